@@ -0,0 +1,72 @@
+//Benchmark de punta a punta: Lexer -> Parser -> SemanticAnalyzer desde el texto, y BatchCompiler.compileFile
+//desde un archivo (incluye la lectura).
+
+package minilang.benchmarks;
+
+import minilang.BatchCompiler;
+import minilang.Lexer;
+import minilang.Parser;
+import minilang.SemanticAnalyzer;
+import minilang.Stmt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xss16m"})
+public class EndToEndBenchmark {
+
+    @Param({"DEEP_NESTING", "LONG_STATEMENTS", "MANY_IDENTIFIERS", "COMMENT_HEAVY"})
+    public SourceGenerator.Shape shape;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private String source;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        source = SourceGenerator.generate(shape, size);
+        file = Files.createTempFile("minilang-bench", ".min");
+        Files.writeString(file, source);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Object compileSource() {
+        List<Stmt> statements = new Parser(new Lexer(source).tokenizeToBuffer()).parse();
+        SemanticAnalyzer analyzer = new SemanticAnalyzer();
+        analyzer.analyze(statements);
+        return analyzer.getErrors();
+    }
+
+    @Benchmark
+    public Object compileFile() {
+        return BatchCompiler.compileFile(file);
+    }
+}
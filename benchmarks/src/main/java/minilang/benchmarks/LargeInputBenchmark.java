@@ -0,0 +1,70 @@
+//Comparación sobre archivos grandes: leer el archivo a un String y usar Lexer contra mapearlo en memoria
+//y usar ByteLexer. Cada invocación tarda segundos, por eso se mide una sola vez por iteración.
+
+package minilang.benchmarks;
+
+import minilang.ByteLexer;
+import minilang.Lexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class LargeInputBenchmark {
+
+    @Param({"50000000"})
+    public int size;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("minilang-bench", ".min");
+        Files.writeString(file, SourceGenerator.generate(SourceGenerator.Shape.LONG_STATEMENTS, size));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void readStringAndLexer(Blackhole blackhole) throws IOException {
+        Lexer lexer = new Lexer(Files.readString(file));
+        lexer.tokenize();
+        blackhole.consume(lexer.getTokens());
+    }
+
+    @Benchmark
+    public void readStringAndTokenBuffer(Blackhole blackhole) throws IOException {
+        blackhole.consume(new Lexer(Files.readString(file)).tokenizeToBuffer());
+    }
+
+    @Benchmark
+    public void mappedByteLexer(Blackhole blackhole) throws IOException {
+        ByteLexer lexer = ByteLexer.open(file);
+        lexer.tokenize();
+        blackhole.consume(lexer.getTokens());
+    }
+}
@@ -0,0 +1,88 @@
+//Benchmarks del análisis léxico: Lexer con lista de Token, con TokenBuffer, en modo streaming y ByteLexer.
+
+package minilang.benchmarks;
+
+import minilang.ByteLexer;
+import minilang.Lexer;
+import minilang.Token;
+import minilang.TokenType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+
+    @Param({"DEEP_NESTING", "LONG_STATEMENTS", "MANY_IDENTIFIERS", "COMMENT_HEAVY"})
+    public SourceGenerator.Shape shape;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private String source;
+    private ByteBuffer bytes;
+
+    @Setup
+    public void setup() {
+        source = SourceGenerator.generate(shape, size);
+        byte[] encoded = source.getBytes(StandardCharsets.UTF_8);
+        bytes = ByteBuffer.allocateDirect(encoded.length);
+        bytes.put(encoded).flip();
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) {
+        Lexer lexer = new Lexer(source);
+        lexer.tokenize();
+        blackhole.consume(lexer.getTokens());
+    }
+
+    @Benchmark
+    public void tokenizeKeepingComments(Blackhole blackhole) {
+        Lexer lexer = new Lexer(source).keepComments();
+        lexer.tokenize();
+        blackhole.consume(lexer.getTokens());
+        blackhole.consume(lexer.getComments());
+    }
+
+    @Benchmark
+    public void tokenizeToBuffer(Blackhole blackhole) {
+        blackhole.consume(new Lexer(source).tokenizeToBuffer());
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole) {
+        Lexer lexer = new Lexer(new StringReader(source));
+        Token token;
+        do {
+            token = lexer.nextToken();
+            blackhole.consume(token);
+        } while (token.type != TokenType.EOF);
+    }
+
+    @Benchmark
+    public void byteLexer(Blackhole blackhole) {
+        ByteLexer lexer = new ByteLexer(bytes.duplicate());
+        lexer.tokenize();
+        blackhole.consume(lexer.getTokens());
+    }
+}
@@ -0,0 +1,60 @@
+//Benchmarks del parser: tokens ya creados (List<Token>) contra TokenBuffer. El texto se tokeniza en el setup,
+//así solo se mide parse().
+
+package minilang.benchmarks;
+
+import minilang.Lexer;
+import minilang.Parser;
+import minilang.Token;
+import minilang.TokenBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xss16m"})
+public class ParserBenchmark {
+
+    @Param({"DEEP_NESTING", "LONG_STATEMENTS", "MANY_IDENTIFIERS", "EXPRESSION_HEAVY"})
+    public SourceGenerator.Shape shape;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private List<Token> tokenList;
+    private TokenBuffer tokenBuffer;
+
+    @Setup
+    public void setup() {
+        String source = SourceGenerator.generate(shape, size);
+        Lexer lexer = new Lexer(source);
+        lexer.tokenize();
+        tokenList = lexer.getTokens();
+        tokenBuffer = new Lexer(source).tokenizeToBuffer();
+    }
+
+    @Benchmark
+    public Object parseTokenList() {
+        return new Parser(tokenList).parse();
+    }
+
+    @Benchmark
+    public Object parseTokenBuffer() {
+        return new Parser(tokenBuffer).parse();
+    }
+}
@@ -0,0 +1,80 @@
+//Benchmark del análisis semántico sobre el AST ya construido, en secuencia y repartido en un ForkJoinPool.
+
+package minilang.benchmarks;
+
+import minilang.Lexer;
+import minilang.Parser;
+import minilang.SemanticAnalyzer;
+import minilang.Stmt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xss16m"})
+public class SemanticBenchmark {
+
+    @Param({"DEEP_NESTING", "LONG_STATEMENTS", "MANY_IDENTIFIERS"})
+    public SourceGenerator.Shape shape;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private List<Stmt> statements;
+
+    @Setup
+    public void setup() {
+        String source = SourceGenerator.generate(shape, size);
+        statements = new Parser(new Lexer(source).tokenizeToBuffer()).parse();
+    }
+
+    @Benchmark
+    public Object analyze() {
+        SemanticAnalyzer analyzer = new SemanticAnalyzer();
+        analyzer.analyze(statements);
+        return analyzer.getErrors();
+    }
+
+    // Solo analyzeParallel usa este estado, así que solo ese benchmark se repite para cada cantidad de hilos
+    @State(Scope.Benchmark)
+    public static class Pool {
+        @Param({"2", "8", "32"})
+        public int threads;
+
+        private ForkJoinPool pool;
+
+        @Setup
+        public void setup() {
+            pool = new ForkJoinPool(threads);
+        }
+
+        @TearDown
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Object analyzeParallel(Pool pool) {
+        SemanticAnalyzer analyzer = new SemanticAnalyzer();
+        analyzer.analyzeParallel(statements, pool.pool);
+        return analyzer.getErrors();
+    }
+}
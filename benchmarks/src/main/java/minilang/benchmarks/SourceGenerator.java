@@ -0,0 +1,111 @@
+//Generadores de programas MiniLang sintéticos para los benchmarks: siempre con la misma semilla, así cada
+//corrida mide exactamente el mismo texto.
+
+package minilang.benchmarks;
+
+import java.util.Random;
+
+public final class SourceGenerator {
+
+    /** Forma del programa generado; cada una carga una parte distinta del compilador. */
+    public enum Shape {
+        DEEP_NESTING,       // expresiones con muchos paréntesis anidados (recursión del parser)
+        LONG_STATEMENTS,    // muchas sentencias cortas y bloques if/while (el caso típico)
+        MANY_IDENTIFIERS,   // miles de variables distintas (tabla de símbolos y NamePool)
+        EXPRESSION_HEAVY,   // expresiones largas con operadores de todas las precedencias (el parser de expresiones)
+        COMMENT_HEAVY       // más comentarios que código (el lexer los saca del flujo de tokens)
+    }
+
+    private static final long SEED = 42;
+    private static final int MAX_DEPTH = 120;
+
+    private SourceGenerator() {}
+
+    /** Genera un programa válido de aproximadamente size caracteres. */
+    public static String generate(Shape shape, int size) {
+        StringBuilder out = new StringBuilder(size + 256);
+        Random random = new Random(SEED);
+        switch (shape) {
+            case DEEP_NESTING -> deepNesting(out, random, size);
+            case LONG_STATEMENTS -> longStatements(out, random, size);
+            case MANY_IDENTIFIERS -> manyIdentifiers(out, random, size);
+            case EXPRESSION_HEAVY -> expressionHeavy(out, random, size);
+            case COMMENT_HEAVY -> commentHeavy(out, random, size);
+        }
+        return out.toString();
+    }
+
+    private static void deepNesting(StringBuilder out, Random random, int size) {
+        out.append("long x;\ndouble y;\nx = 1;\ny = 2.5;\n");
+        while (out.length() < size) {
+            int depth = 1 + random.nextInt(MAX_DEPTH);
+            out.append(random.nextBoolean() ? "x = " : "y = ");
+            for (int i = 0; i < depth; i++) {
+                out.append('(');
+                if (i % 3 == 0) out.append("-");
+            }
+            out.append('x');
+            for (int i = 0; i < depth; i++) {
+                out.append(i % 2 == 0 ? " + " : " * ").append(i % 5 == 0 ? "y" : Integer.toString(i + 1)).append(')');
+            }
+            out.append(";\n");
+        }
+    }
+
+    private static void longStatements(StringBuilder out, Random random, int size) {
+        out.append("long a, b, c, i;\ndouble r;\na = 1;\nb = 2;\nc = 0;\ni = 0;\nr = 0.5;\n");
+        while (out.length() < size) {
+            switch (random.nextInt(6)) {
+                case 0 -> out.append("a = a + ").append(random.nextInt(1000)).append(";\n");
+                case 1 -> out.append("b = b * (a - c) / 3;\n");
+                case 2 -> out.append("r = r * 1.5 + a;\n");
+                case 3 -> out.append("if (a > b) then c = c - 1; else { c = c + 2; write(c); }\n");
+                case 4 -> out.append("while (i < 10) { i = i + 1; if (i == 5) then break; }\n");
+                default -> out.append("write(\"valor: \");\nwrite(a + b * c);\n");
+            }
+        }
+    }
+
+    private static void manyIdentifiers(StringBuilder out, Random random, int size) {
+        // Declara una variable nueva cada pocas sentencias y usa variables ya declaradas al azar
+        int declared = 0;
+        while (out.length() < size) {
+            if (declared == 0 || random.nextInt(4) == 0) {
+                out.append("long variable_").append(declared).append(", contador_").append(declared).append(";\n");
+                declared++;
+            }
+            int target = random.nextInt(declared);
+            int left = random.nextInt(declared);
+            int right = random.nextInt(declared);
+            out.append("variable_").append(target).append(" = contador_").append(left)
+                    .append(" + variable_").append(right).append(";\n");
+        }
+    }
+
+    private static void expressionHeavy(StringBuilder out, Random random, int size) {
+        String[] operators = {" + ", " - ", " * ", " / ", " < ", " >= ", " == ", " != "};
+        String[] operands = {"a", "b", "c", "1", "27", "-a", "!b", "(a + 2)"};
+        out.append("long a, b, c;\na = 1;\nb = 2;\nc = 3;\n");
+        while (out.length() < size) {
+            boolean assign = random.nextBoolean();
+            out.append(assign ? "c = " : "write(");
+            int terms = 4 + random.nextInt(12);
+            out.append(operands[random.nextInt(operands.length)]);
+            for (int i = 1; i < terms; i++) {
+                out.append(operators[random.nextInt(operators.length)]).append(operands[random.nextInt(operands.length)]);
+            }
+            out.append(assign ? ";\n" : ");\n");
+        }
+    }
+
+    private static void commentHeavy(StringBuilder out, Random random, int size) {
+        out.append("long x;\nx = 0;\n");
+        while (out.length() < size) {
+            switch (random.nextInt(3)) {
+                case 0 -> out.append("// comentario de una línea número ").append(random.nextInt(10_000)).append('\n');
+                case 1 -> out.append("/* comentario de varias líneas\n   con x = x + 1; adentro\n   y más texto */\n");
+                default -> out.append("x = x + 1; // suma uno\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+//Compilación en lote: corre Lexer -> Parser -> SemanticAnalyzer sobre muchos archivos .min a la vez, un hilo
+//virtual por archivo, con un máximo de archivos en proceso. Devuelve un resultado estructurado por archivo.
+//Con una CompilationCache, los archivos que no cambiaron toman el resultado guardado sin analizarse.
+
+package minilang;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+public class BatchCompiler {
+
+    public enum Status { OK, LEX_ERRORS, SYNTAX_ERRORS, SEMANTIC_ERRORS, IO_ERROR, INTERNAL_ERROR }
+
+    /**
+     * Resultado de un archivo. Como en Main, el análisis se detiene en la primera etapa con errores. cached indica
+     * que salió de la caché.
+     */
+    public record FileResult(Path path, Status status, List<LexError> lexErrors, List<SyntaxError> syntaxErrors,
+                             List<SemanticError> semanticErrors, String failure, long nanos, boolean cached) {}
+
+    private final int maxConcurrent;
+    private final int maxErrors;
+    private final CompilationCache cache; // null: sin caché
+
+    /** maxConcurrent limita los archivos en proceso al mismo tiempo (y con eso la memoria usada). */
+    public BatchCompiler(int maxConcurrent) {
+        this(maxConcurrent, Integer.MAX_VALUE);
+    }
+
+    /**
+     * maxErrors limita los errores informados por archivo en cada etapa: con archivos muy dañados el análisis
+     * sintáctico se corta al llegar a él (con 1, en el primer error), así el lote termina en un tiempo acotado.
+     */
+    public BatchCompiler(int maxConcurrent, int maxErrors) {
+        this(maxConcurrent, maxErrors, null);
+    }
+
+    /** Como BatchCompiler(maxConcurrent, maxErrors), consultando y completando la caché (puede ser null). */
+    public BatchCompiler(int maxConcurrent, int maxErrors, CompilationCache cache) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent debe ser >= 1");
+        if (maxErrors < 1) throw new IllegalArgumentException("maxErrors debe ser >= 1");
+        this.maxConcurrent = maxConcurrent;
+        this.maxErrors = maxErrors;
+        this.cache = cache;
+    }
+
+    /** Expande directorios (recursivamente, archivos *.min) y deja los archivos como están, en orden. */
+    public static List<Path> collect(List<Path> roots) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path root : roots) {
+            if (Files.isDirectory(root)) {
+                try (Stream<Path> walk = Files.walk(root)) {
+                    walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".min")).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(root);
+            }
+        }
+        return files;
+    }
+
+    /** Compila todos los archivos; los resultados quedan en el mismo orden que files. */
+    public List<FileResult> compile(List<Path> files) throws InterruptedException {
+        Semaphore permits = new Semaphore(maxConcurrent);
+        List<Future<FileResult>> futures = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Path file : files) {
+                permits.acquire(); // no se crea el hilo hasta que haya lugar
+                futures.add(executor.submit(() -> {
+                    try {
+                        return compileFile(file, maxErrors, cache);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        List<FileResult> results = new ArrayList<>(files.size());
+        for (Future<FileResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause()); // compileFile no deja escapar excepciones
+            }
+        }
+        return results;
+    }
+
+    /** Corre las tres etapas sobre un archivo; cualquier excepción queda registrada en el resultado. */
+    public static FileResult compileFile(Path file) {
+        return compileFile(file, Integer.MAX_VALUE);
+    }
+
+    /** Como compileFile(file), con un máximo de errores por etapa. */
+    public static FileResult compileFile(Path file, int maxErrors) {
+        return compileFile(file, maxErrors, null);
+    }
+
+    /**
+     * Como compileFile(file, maxErrors); con una caché (puede ser null), un archivo cuyo contenido ya se analizó
+     * con el mismo máximo de errores toma el resultado guardado, y uno nuevo lo guarda.
+     */
+    public static FileResult compileFile(Path file, int maxErrors, CompilationCache cache) {
+        long start = System.nanoTime();
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            String key = null;
+            if (cache != null) {
+                key = CompilationCache.key(bytes, "batch --max-errors=" + maxErrors);
+                CompilationCache.Entry cached = cache.get(key);
+                if (cached != null) return result(file, cached, true, start);
+            }
+            // Como Files.readString: un archivo que no es UTF-8 válido es un error de lectura
+            String source = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+
+            CompilationCache.Entry entry = analyze(source, maxErrors);
+            if (key != null) {
+                try {
+                    cache.put(key, entry);
+                } catch (IOException | UncheckedIOException e) {
+                    // sin caché para este archivo; el resultado es el mismo
+                }
+            }
+            return result(file, entry, false, start);
+        } catch (IOException | UncheckedIOException e) {
+            return result(file, Status.IO_ERROR, List.of(), List.of(), List.of(), e.getMessage(), start);
+        } catch (RuntimeException | StackOverflowError e) {
+            return result(file, Status.INTERNAL_ERROR, List.of(), List.of(), List.of(), e.toString(), start);
+        }
+    }
+
+    // Las tres etapas; el resultado tiene la forma de una entrada de la caché (sin advertencias: no se optimiza)
+    private static CompilationCache.Entry analyze(String source, int maxErrors) {
+        Lexer lexer = new Lexer(source);
+        TokenBuffer tokens = lexer.tokenizeToBuffer();
+        if (!lexer.getErrors().isEmpty()) {
+            return new CompilationCache.Entry(tokens.size(), lexer.getErrors(), List.of(), List.of(), List.of(), List.of());
+        }
+
+        // Solo interesan los errores: el AST plano no crea un objeto por nodo ni por token
+        Parser parser = new Parser(tokens).setMaxErrors(maxErrors);
+        FlatAst ast = parser.parseFlat();
+        if (!parser.getErrors().isEmpty()) {
+            return new CompilationCache.Entry(tokens.size(), List.of(), parser.getErrors(), List.of(), List.of(), List.of());
+        }
+
+        SemanticAnalyzer semantic = new SemanticAnalyzer().setMaxErrors(maxErrors);
+        semantic.analyze(ast);
+        return new CompilationCache.Entry(tokens.size(), List.of(), List.of(), semantic.getErrors(), List.of(),
+                semantic.getSymbolTable().getSymbols());
+    }
+
+    private static FileResult result(Path file, CompilationCache.Entry entry, boolean cached, long start) {
+        Status status = !entry.lexErrors().isEmpty() ? Status.LEX_ERRORS
+                : !entry.syntaxErrors().isEmpty() ? Status.SYNTAX_ERRORS
+                : !entry.semanticErrors().isEmpty() ? Status.SEMANTIC_ERRORS
+                : Status.OK;
+        return new FileResult(file, status, List.copyOf(entry.lexErrors()), List.copyOf(entry.syntaxErrors()),
+                List.copyOf(entry.semanticErrors()), null, System.nanoTime() - start, cached);
+    }
+
+    private static FileResult result(Path file, Status status, List<LexError> lex, List<SyntaxError> syntax,
+                                     List<SemanticError> semantic, String failure, long start) {
+        return new FileResult(file, status, List.copyOf(lex), List.copyOf(syntax), List.copyOf(semantic),
+                failure, System.nanoTime() - start, false);
+    }
+
+    /** Resumen: los archivos con problemas (con sus errores) y los totales por estado. */
+    public static void writeSummary(List<FileResult> results, double seconds, PrintStream out) {
+        int[] counts = new int[Status.values().length];
+        int cached = 0;
+        for (FileResult r : results) {
+            counts[r.status().ordinal()]++;
+            if (r.cached()) cached++;
+            if (r.status() == Status.OK) continue;
+
+            out.println(r.path() + ": " + r.status());
+            for (LexError e : r.lexErrors()) out.println("  " + e);
+            for (SyntaxError e : r.syntaxErrors()) out.println("  " + e);
+            for (SemanticError e : r.semanticErrors()) out.println("  " + e);
+            if (r.failure() != null) out.println("  " + r.failure());
+        }
+
+        out.println();
+        out.printf("Archivos: %d en %.3f s (%.0f archivos/s)%n", results.size(), seconds, results.size() / seconds);
+        for (Status status : Status.values()) {
+            out.printf("  %-16s %d%n", status, counts[status.ordinal()]);
+        }
+        if (cached > 0) out.printf("  (%d desde la caché)%n", cached);
+    }
+}
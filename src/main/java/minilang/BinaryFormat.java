@@ -0,0 +1,458 @@
+//Formato binario compacto y versionado para secuencias de tokens y para el AST (Stmt/Expr), pensado para guardar
+//o pasar a otro proceso el resultado del análisis sin tener que volver a correr Lexer y Parser.
+//
+//Estructura (los enteros son varints LEB128 sin signo; los que pueden ser negativos van en zigzag):
+//  "MLBF"  versión  clase (1 = tokens, 2 = sentencias)
+//  tabla de cadenas: cantidad, y por cada una su longitud en bytes y el texto UTF-8
+//  contenido:
+//    tokens:     cantidad, y por cada token: un byte con el tipo (ordinal) y el bit SAME_LINE si está en la línea
+//                del token anterior, el índice del lexema, la línea (si cambió: diferencia con la anterior, zigzag)
+//                y la columna
+//    sentencias: cantidad, y cada sentencia en preorden: una etiqueta y después sus tokens (como arriba), sus
+//                hijos, y la profundidad y el slot resueltos (zigzag, -1 si no se resolvieron)
+//Los lexemas, nombres y constantes de cadena se guardan una sola vez en la tabla; al leer, los tokens comparten
+//esos String. La lectura va directo sobre el ByteBuffer (puede ser un archivo mapeado), sin copiarlo a un arreglo.
+
+package minilang;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class BinaryFormat {
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'M', 'L', 'B', 'F'};
+    private static final int TOKENS = 1;
+    private static final int STATEMENTS = 2;
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+    private static final int SAME_LINE = 0x40; // los tipos de token entran en los 6 bits de abajo
+
+    // Etiquetas de los nodos
+    private static final int VAR = 1, EXPRESSION = 2, ASSIGN = 3, READ = 4, WRITE = 5, BLOCK = 6, SCOPE_BLOCK = 7,
+            IF = 8, IF_ELSE = 9, WHILE = 10, BREAK = 11;
+    private static final int BINARY = 16, UNARY = 17, VARIABLE = 18, GROUPING = 19, NULL = 20, INTEGER = 21,
+            LONG = 22, DOUBLE = 23, TRUE = 24, FALSE = 25, STRING = 26;
+
+    static {
+        if (TOKEN_TYPES.length > SAME_LINE) throw new IllegalStateException("Demasiados tipos de token para el formato");
+    }
+
+    private BinaryFormat() {}
+
+    public static byte[] writeTokens(List<Token> tokens) {
+        Writer writer = new Writer();
+        writer.varint(tokens.size());
+        for (Token token : tokens) writer.token(token);
+        return writer.finish(TOKENS);
+    }
+
+    /** Lee tokens desde la posición actual de in, que queda al final de lo leído. */
+    public static List<Token> readTokens(ByteBuffer in) {
+        Reader reader = new Reader(in, TOKENS);
+        try {
+            int count = reader.count();
+            List<Token> tokens = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) tokens.add(reader.token());
+            return tokens;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw invalid("datos truncados o dañados");
+        }
+    }
+
+    /** Sentencias de nivel superior con sus expresiones, incluidas la profundidad y el slot ya resueltos. */
+    public static byte[] writeStatements(List<Stmt> statements) {
+        Writer writer = new Writer();
+        writer.varint(statements.size());
+        for (Stmt stmt : statements) stmt.accept(writer);
+        return writer.finish(STATEMENTS);
+    }
+
+    /** Lee sentencias desde la posición actual de in, que queda al final de lo leído. */
+    public static List<Stmt> readStatements(ByteBuffer in) {
+        Reader reader = new Reader(in, STATEMENTS);
+        try {
+            return reader.statements();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw invalid("datos truncados o dañados");
+        }
+    }
+
+    private static IllegalArgumentException invalid(String detail) {
+        return new IllegalArgumentException("Formato binario inválido: " + detail);
+    }
+
+    // ==================== ESCRITURA ==================== //
+
+    private static final class Writer implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final List<String> table = new ArrayList<>();
+        private byte[] out = new byte[1024];
+        private int size = 0;
+        private int line = 0; // línea del último token escrito
+
+        private void ensure(int extra) {
+            if (size + extra > out.length) out = Arrays.copyOf(out, Math.max(out.length * 2, size + extra));
+        }
+
+        void write(int b) {
+            ensure(1);
+            out[size++] = (byte) b;
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                out[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out[size++] = (byte) value;
+        }
+
+        void zigzag(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        void string(String text) {
+            Integer index = strings.get(text);
+            if (index == null) {
+                index = table.size();
+                strings.put(text, index);
+                table.add(text);
+            }
+            varint(index);
+        }
+
+        void token(Token token) {
+            if (token.line == line) {
+                write(token.type.ordinal() | SAME_LINE);
+                string(token.lexeme);
+            } else {
+                write(token.type.ordinal());
+                string(token.lexeme);
+                zigzag(token.line - line);
+                line = token.line;
+            }
+            varint(token.column);
+        }
+
+        void resolution(int depth, int slot) {
+            zigzag(depth);
+            zigzag(slot);
+        }
+
+        // Encabezado y tabla de cadenas delante del contenido ya escrito
+        byte[] finish(int kind) {
+            byte[] body = Arrays.copyOf(out, size);
+            size = 0;
+            ensure(MAGIC.length);
+            System.arraycopy(MAGIC, 0, out, 0, MAGIC.length);
+            size = MAGIC.length;
+            varint(VERSION);
+            varint(kind);
+            varint(table.size());
+            for (String text : table) {
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                varint(bytes.length);
+                ensure(bytes.length);
+                System.arraycopy(bytes, 0, out, size, bytes.length);
+                size += bytes.length;
+            }
+            ensure(body.length);
+            System.arraycopy(body, 0, out, size, body.length);
+            size += body.length;
+            return Arrays.copyOf(out, size);
+        }
+
+        private void statements(List<Stmt> statements) {
+            varint(statements.size());
+            for (Stmt stmt : statements) stmt.accept(this);
+        }
+
+        @Override
+        public Void visitVarStmt(Stmt.Var stmt) {
+            write(VAR);
+            token(stmt.typeToken);
+            token(stmt.name);
+            resolution(stmt.depth, stmt.slot);
+            return null;
+        }
+
+        @Override
+        public Void visitExpressionStmt(Stmt.Expression stmt) {
+            write(EXPRESSION);
+            stmt.expression.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitAssignStmt(Stmt.Assign stmt) {
+            write(ASSIGN);
+            token(stmt.name);
+            token(stmt.operator);
+            resolution(stmt.depth, stmt.slot);
+            stmt.value.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitReadStmt(Stmt.Read stmt) {
+            write(READ);
+            token(stmt.name);
+            resolution(stmt.depth, stmt.slot);
+            return null;
+        }
+
+        @Override
+        public Void visitWriteStmt(Stmt.Write stmt) {
+            write(WRITE);
+            stmt.expression.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitBlockStmt(Stmt.Block stmt) {
+            write(stmt.opensScope ? SCOPE_BLOCK : BLOCK);
+            statements(stmt.statements);
+            return null;
+        }
+
+        @Override
+        public Void visitIfStmt(Stmt.If stmt) {
+            write(stmt.elseBranch == null ? IF : IF_ELSE);
+            stmt.condition.accept(this);
+            stmt.thenBranch.accept(this);
+            if (stmt.elseBranch != null) stmt.elseBranch.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitWhileStmt(Stmt.While stmt) {
+            write(WHILE);
+            stmt.condition.accept(this);
+            stmt.body.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitBreakStmt(Stmt.Break stmt) {
+            write(BREAK);
+            token(stmt.keyword);
+            return null;
+        }
+
+        @Override
+        public Void visitBinaryExpr(Expr.Binary expr) {
+            write(BINARY);
+            token(expr.operator);
+            expr.left.accept(this);
+            expr.right.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitLiteralExpr(Expr.Literal expr) {
+            switch (expr.value) {
+                case null -> write(NULL);
+                case Integer i -> {
+                    write(INTEGER);
+                    zigzag(i);
+                }
+                case Long l -> {
+                    write(LONG);
+                    zigzag(l);
+                }
+                case Double d -> {
+                    write(DOUBLE);
+                    long bits = Double.doubleToRawLongBits(d);
+                    ensure(8);
+                    for (int shift = 56; shift >= 0; shift -= 8) out[size++] = (byte) (bits >>> shift);
+                }
+                case Boolean b -> write(b ? TRUE : FALSE);
+                case String s -> {
+                    write(STRING);
+                    string(s);
+                }
+                default -> throw new IllegalArgumentException("Literal sin representación binaria: " + expr.value.getClass());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitUnaryExpr(Expr.Unary expr) {
+            write(UNARY);
+            token(expr.operator);
+            expr.right.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitVariableExpr(Expr.Variable expr) {
+            write(VARIABLE);
+            token(expr.name);
+            resolution(expr.depth, expr.slot);
+            return null;
+        }
+
+        @Override
+        public Void visitGroupingExpr(Expr.Grouping expr) {
+            write(GROUPING);
+            expr.expression.accept(this);
+            return null;
+        }
+    }
+
+    // ==================== LECTURA ==================== //
+
+    private static final class Reader {
+        private final ByteBuffer in;
+        private final String[] table;
+        private int line = 0;
+
+        Reader(ByteBuffer in, int kind) {
+            this.in = in;
+            try {
+                for (byte b : MAGIC) {
+                    if (in.get() != b) throw invalid("no empieza con MLBF");
+                }
+                int version = (int) varint();
+                if (version != VERSION) throw invalid("versión " + version + " (se esperaba " + VERSION + ")");
+                if (varint() != kind) throw invalid(kind == TOKENS ? "no contiene tokens" : "no contiene sentencias");
+
+                table = new String[count()];
+                for (int i = 0; i < table.length; i++) {
+                    int length = count();
+                    int start = in.position();
+                    table[i] = in.hasArray()
+                            ? new String(in.array(), in.arrayOffset() + start, length, StandardCharsets.UTF_8)
+                            : StandardCharsets.UTF_8.decode(in.slice(start, length)).toString();
+                    in.position(start + length);
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw invalid("datos truncados o dañados");
+            }
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            throw invalid("varint demasiado largo");
+        }
+
+        long zigzag() {
+            long value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        // Los 8 bytes de un double, del más significativo al menos (sin depender del orden del ByteBuffer)
+        long fixed64() {
+            long bits = 0;
+            for (int i = 0; i < 8; i++) bits = (bits << 8) | (in.get() & 0xFF);
+            return bits;
+        }
+
+        // Cantidad o longitud: no puede ser mayor que los bytes que quedan (cada elemento ocupa al menos uno)
+        int count() {
+            long n = varint();
+            if (n > in.remaining()) throw invalid("cantidad " + n + " mayor que los datos");
+            return (int) n;
+        }
+
+        Token token() {
+            int header = in.get();
+            TokenType type = TOKEN_TYPES[header & (SAME_LINE - 1)];
+            String lexeme = table[(int) varint()];
+            if ((header & SAME_LINE) == 0) line += (int) zigzag();
+            return new Token(type, lexeme, line, (int) varint());
+        }
+
+        List<Stmt> statements() {
+            int count = count();
+            List<Stmt> statements = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) statements.add(statement());
+            return statements;
+        }
+
+        Stmt statement() {
+            int tag = in.get();
+            return switch (tag) {
+                case VAR -> {
+                    Token typeToken = token();
+                    Stmt.Var var = new Stmt.Var(typeToken, token());
+                    var.depth = (int) zigzag();
+                    var.slot = (int) zigzag();
+                    yield var;
+                }
+                case EXPRESSION -> new Stmt.Expression(expression());
+                case ASSIGN -> {
+                    Token name = token();
+                    Token operator = token();
+                    int depth = (int) zigzag();
+                    int slot = (int) zigzag();
+                    Stmt.Assign assign = new Stmt.Assign(name, operator, expression());
+                    assign.depth = depth;
+                    assign.slot = slot;
+                    yield assign;
+                }
+                case READ -> {
+                    Stmt.Read read = new Stmt.Read(token());
+                    read.depth = (int) zigzag();
+                    read.slot = (int) zigzag();
+                    yield read;
+                }
+                case WRITE -> new Stmt.Write(expression());
+                case BLOCK, SCOPE_BLOCK -> new Stmt.Block(statements(), tag == SCOPE_BLOCK);
+                case IF, IF_ELSE -> {
+                    Expr condition = expression();
+                    Stmt thenBranch = statement();
+                    yield new Stmt.If(condition, thenBranch, tag == IF_ELSE ? statement() : null);
+                }
+                case WHILE -> {
+                    Expr condition = expression();
+                    yield new Stmt.While(condition, statement());
+                }
+                case BREAK -> new Stmt.Break(token());
+                default -> throw invalid("etiqueta de sentencia " + tag);
+            };
+        }
+
+        Expr expression() {
+            int tag = in.get();
+            return switch (tag) {
+                case BINARY -> {
+                    Token operator = token();
+                    Expr left = expression();
+                    yield new Expr.Binary(left, operator, expression());
+                }
+                case UNARY -> {
+                    Token operator = token();
+                    yield new Expr.Unary(operator, expression());
+                }
+                case VARIABLE -> {
+                    Expr.Variable variable = new Expr.Variable(token());
+                    variable.depth = (int) zigzag();
+                    variable.slot = (int) zigzag();
+                    yield variable;
+                }
+                case GROUPING -> new Expr.Grouping(expression());
+                case NULL -> new Expr.Literal(null);
+                case INTEGER -> new Expr.Literal((int) zigzag());
+                case LONG -> new Expr.Literal(zigzag());
+                case DOUBLE -> new Expr.Literal(Double.longBitsToDouble(fixed64()));
+                case TRUE -> new Expr.Literal(Boolean.TRUE);
+                case FALSE -> new Expr.Literal(Boolean.FALSE);
+                case STRING -> new Expr.Literal(table[(int) varint()]);
+                default -> throw invalid("etiqueta de expresión " + tag);
+            };
+        }
+    }
+}
@@ -0,0 +1,445 @@
+//Variante del analizador léxico que recorre directamente los bytes UTF-8 del archivo (por ejemplo mapeado en memoria).
+//Produce exactamente los mismos tokens y errores que Lexer.tokenize().
+
+package minilang;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ByteLexer {
+
+    // ==================== TABLAS DE CLASES DE CARACTERES ==================== //
+    // Indexadas por byte (0-255); los bytes >= 0x80 (no ASCII) van por el camino lento.
+
+    private static final byte OTHER = 0;
+    private static final byte WHITESPACE = 1;
+    private static final byte NEWLINE = 2;
+    private static final byte IDENT_START = 3;
+    private static final byte DIGIT = 4;
+    private static final byte QUOTE = 5;
+    private static final byte SLASH = 6;
+    private static final byte NON_ASCII = 7;
+
+    private static final byte[] CLASS = new byte[256];
+    private static final boolean[] IDENT_PART = new boolean[256];
+    private static final String[] SYMBOL_LEXEME = new String[128]; // lexemas de un carácter, sin crear Strings
+    private static final TokenType[] SYMBOL_TYPE = new TokenType[128];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            if (b >= 0x80) {
+                CLASS[b] = NON_ASCII;
+                continue;
+            }
+            char c = (char) b;
+            if (c == '\n') CLASS[b] = NEWLINE;
+            else if (Character.isWhitespace(c)) CLASS[b] = WHITESPACE;
+            else if (Character.isLetter(c) || c == '_') CLASS[b] = IDENT_START;
+            else if (Character.isDigit(c)) CLASS[b] = DIGIT;
+            else if (c == '"') CLASS[b] = QUOTE;
+            else if (c == '/') CLASS[b] = SLASH;
+            IDENT_PART[b] = Character.isLetterOrDigit(c) || c == '_';
+            SYMBOL_LEXEME[b] = String.valueOf(c);
+            SYMBOL_TYPE[b] = TokenType.UNKNOWN;
+        }
+        SYMBOL_TYPE['+'] = TokenType.PLUS;
+        SYMBOL_TYPE['-'] = TokenType.MINUS;
+        SYMBOL_TYPE['*'] = TokenType.MULTIPLY;
+        SYMBOL_TYPE['/'] = TokenType.DIVIDE;
+        SYMBOL_TYPE['>'] = TokenType.GREATER;
+        SYMBOL_TYPE['<'] = TokenType.LESS;
+        SYMBOL_TYPE['='] = TokenType.ASSIGN;
+        SYMBOL_TYPE['!'] = TokenType.NOT;
+        SYMBOL_TYPE['('] = TokenType.LPAREN;
+        SYMBOL_TYPE[')'] = TokenType.RPAREN;
+        SYMBOL_TYPE['{'] = TokenType.LBRACE;
+        SYMBOL_TYPE['}'] = TokenType.RBRACE;
+        SYMBOL_TYPE[';'] = TokenType.SEMICOLON;
+        SYMBOL_TYPE[','] = TokenType.COMMA;
+    }
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final List<Token> tokens = new ArrayList<>();
+    private final List<LexError> errors = new ArrayList<>();
+    private List<Token> comments;      // null: los comentarios se descartan, como en Lexer
+    private final NamePool names;
+
+    private int position;
+    private int line = 1;
+    private int column = 1;
+
+    // Resultado de decodeChar(): carácter UTF-16 y cantidad de bytes que ocupa
+    private char decoded;
+    private int decodedLength;
+    private boolean decodedSupplementary; // el código necesita dos chars (par sustituto)
+
+    // Cadena o comentario multilínea que llegó al final sin cerrarse (lo usa ParallelLexer para reparar)
+    boolean unterminated = false;
+    int unterminatedPosition;
+    int unterminatedLine;
+    int unterminatedColumn;
+
+    public ByteLexer(ByteBuffer buffer) {
+        this(buffer, new NamePool());
+    }
+
+    public ByteLexer(ByteBuffer buffer, NamePool names) {
+        this(buffer, names, buffer.position(), buffer.limit(), 1, 1);
+    }
+
+    // Lexer sobre la región [start, limit) del buffer, empezando en la línea y columna dadas
+    ByteLexer(ByteBuffer buffer, NamePool names, int start, int limit, int line, int column) {
+        this.buffer = buffer;
+        this.names = names;
+        this.position = start;
+        this.limit = limit;
+        this.line = line;
+        this.column = column;
+    }
+
+    /** Mapea el archivo en memoria (solo lectura). */
+    public static ByteLexer open(Path path) throws IOException {
+        return new ByteLexer(map(path));
+    }
+
+    static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Archivo demasiado grande para mapearlo de una vez: " + size + " bytes");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    public List<Token> getTokens() {
+        return tokens;
+    }
+
+    public List<LexError> getErrors() {
+        return errors;
+    }
+
+    /** Como Lexer.keepComments(): guarda los comentarios en getComments() en lugar de descartarlos. */
+    public ByteLexer keepComments() {
+        comments = new ArrayList<>();
+        return this;
+    }
+
+    public List<Token> getComments() {
+        return comments == null ? List.of() : comments;
+    }
+
+    public void tokenize() {
+        scan();
+        tokens.add(new Token(TokenType.EOF, "", line, column));
+    }
+
+    int getLine() {
+        return line;
+    }
+
+    int getColumn() {
+        return column;
+    }
+
+    // Escanea la región completa sin agregar EOF
+    void scan() {
+        while (position < limit) {
+            int b = buffer.get(position) & 0xFF;
+            switch (CLASS[b]) {
+                case NEWLINE -> {
+                    line++;
+                    column = 1;
+                    position++;
+                }
+                case WHITESPACE -> {
+                    column++;
+                    position++;
+                }
+                case IDENT_START -> handleIdentifierOrKeyword();
+                case DIGIT -> handleNumber();
+                case QUOTE -> handleString();
+                case SLASH -> {
+                    int next = position + 1 < limit ? buffer.get(position + 1) : 0;
+                    if (next == '/') handleSingleLineComment();
+                    else if (next == '*') handleMultiLineComment();
+                    else handleSymbol(b);
+                }
+                case NON_ASCII -> handleNonAscii();
+                default -> handleSymbol(b);
+            }
+        }
+    }
+
+    // ==================== MANEJO DE TIPOS DE TOKENS ==================== //
+
+    private void handleIdentifierOrKeyword() {
+        int start = position;
+        boolean ascii = true;
+        while (position < limit) {
+            int b = buffer.get(position) & 0xFF;
+            if (b < 0x80) {
+                if (!IDENT_PART[b]) break;
+                position++;
+            } else {
+                decodeChar(position);
+                if (decodedSupplementary || !Character.isLetterOrDigit(decoded)) break;
+                ascii = false;
+                position += decodedLength;
+            }
+        }
+
+        int keyword = ascii ? keyword(start, position - start) : -1;
+        String text;
+        if (keyword >= 0) {
+            text = Keywords.text(keyword);
+        } else {
+            text = ascii ? names.intern(buffer, start, position) : names.intern(decode(start, position, false));
+        }
+        TokenType type = keyword >= 0 ? Keywords.type(keyword) : TokenType.IDENTIFIER;
+
+        tokens.add(new Token(type, text, line, column));
+        column += text.length();
+    }
+
+    private void handleNumber() {
+        int start = position;
+        boolean ascii = skipDigits();
+
+        if (position < limit && buffer.get(position) == '.') {
+            position++;
+            ascii &= skipDigits();
+            String number = decode(start, position, ascii);
+            tokens.add(new Token(TokenType.REAL_CONST, number, line, column));
+            column += number.length();
+            return;
+        }
+
+        String number = decode(start, position, ascii);
+        tokens.add(new Token(TokenType.INTEGER_CONST, number, line, column));
+        column += number.length();
+    }
+
+    // Avanza sobre dígitos (Character.isDigit, igual que Lexer); devuelve false si hubo dígitos no ASCII
+    private boolean skipDigits() {
+        boolean ascii = true;
+        while (position < limit) {
+            int b = buffer.get(position) & 0xFF;
+            if (b < 0x80) {
+                if (CLASS[b] != DIGIT) break;
+                position++;
+            } else {
+                decodeChar(position);
+                if (decodedSupplementary || !Character.isDigit(decoded)) break;
+                ascii = false;
+                position += decodedLength;
+            }
+        }
+        return ascii;
+    }
+
+    private void handleString() {
+        markConstructStart();
+        position++; // saltar la comilla inicial
+        int start = position;
+        boolean ascii = true;
+
+        // Los bytes de continuación UTF-8 son >= 0x80: nunca se confunden con '"' o '\n'
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b == '"') break;
+            if (b == '\n') line++;
+            if (b < 0) {
+                ascii = false;
+                skipCodePoint();
+                continue;
+            }
+            position++;
+        }
+
+        if (position >= limit) {
+            unterminated = true;
+            errors.add(new LexError(line, column, "Cadena sin cierre de comillas"));
+            return;
+        }
+
+        String text = decode(start, position, ascii);
+        position++; // cerrar comillas
+        tokens.add(new Token(TokenType.STRING_CONST, text, line, column));
+        column += text.length() + 2;
+    }
+
+    private void handleSingleLineComment() {
+        int start = position;
+        while (position < limit && buffer.get(position) != '\n') {
+            if (buffer.get(position) < 0) skipCodePoint();
+            else position++;
+        }
+        if (comments != null) comments.add(new Token(TokenType.COMMENT_SINGLE, decode(start, position, false), line, column));
+    }
+
+    private void handleMultiLineComment() {
+        markConstructStart();
+        int start = position;
+        position += 2; // /*
+        int startLine = line;
+        int startColumn = column;
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b == '*' && position + 1 < limit && buffer.get(position + 1) == '/') {
+                position += 2;
+                if (comments != null) {
+                    comments.add(new Token(TokenType.COMMENT_MULTI, decode(start, position, false), startLine, startColumn));
+                }
+                return;
+            }
+            if (b == '\n') {
+                line++;
+                column = 1;
+            }
+            if (b < 0) skipCodePoint();
+            else position++;
+        }
+
+        // Si sale del bucle sin cerrar el comentario:
+        unterminated = true;
+        errors.add(new LexError(startLine, startColumn, "Comentario multilínea sin cierre"));
+    }
+
+    private void handleSymbol(int b) {
+        position++;
+        TokenType type = SYMBOL_TYPE[b];
+        if (position < limit && buffer.get(position) == '=') {
+            TokenType combined = switch (type) {
+                case GREATER -> TokenType.GREATER_EQUAL;
+                case LESS -> TokenType.LESS_EQUAL;
+                case ASSIGN -> TokenType.EQUAL;
+                case NOT -> TokenType.NOT_EQUAL;
+                default -> null;
+            };
+            if (combined != null) {
+                type = combined;
+                position++;
+            }
+        }
+
+        // Igual que Lexer: el lexema es solo el primer carácter
+        tokens.add(new Token(type, SYMBOL_LEXEME[b], line, column));
+        column++;
+    }
+
+    // Camino lento: el carácter actual no es ASCII
+    private void handleNonAscii() {
+        decodeChar(position);
+        char c = decoded;
+
+        if (decodedSupplementary) {
+            // Lexer ve dos chars sustitutos, que no son letras ni dígitos: dos tokens UNKNOWN
+            int codePoint = decodeCodePoint(position);
+            position += decodedLength;
+            tokens.add(new Token(TokenType.UNKNOWN, String.valueOf(Character.highSurrogate(codePoint)), line, column));
+            column++;
+            tokens.add(new Token(TokenType.UNKNOWN, String.valueOf(Character.lowSurrogate(codePoint)), line, column));
+            column++;
+        } else if (Character.isWhitespace(c)) {
+            column++;
+            position += decodedLength;
+        } else if (Character.isLetter(c)) {
+            handleIdentifierOrKeyword();
+        } else if (Character.isDigit(c)) {
+            handleNumber();
+        } else {
+            position += decodedLength;
+            tokens.add(new Token(TokenType.UNKNOWN, String.valueOf(c), line, column));
+            column++;
+        }
+    }
+
+    private void markConstructStart() {
+        unterminatedPosition = position;
+        unterminatedLine = line;
+        unterminatedColumn = column;
+    }
+
+    // ==================== PALABRAS RESERVADAS ==================== //
+
+    // Compara los bytes con la única palabra reservada candidata sin crear Strings; devuelve su índice o -1
+    private int keyword(int start, int length) {
+        if (length < 2) return -1;
+        int index = Keywords.candidate(length, buffer.get(start), buffer.get(start + 1));
+        if (index < 0) return -1;
+        String word = Keywords.text(index);
+        for (int i = 1; i < length; i++) {
+            if (buffer.get(start + i) != word.charAt(i)) return -1;
+        }
+        return index;
+    }
+
+    // ==================== DECODIFICACIÓN ==================== //
+
+    private String decode(int start, int end, boolean ascii) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    // Avanza sobre el carácter no ASCII de la posición actual dentro de una cadena o un comentario: sus bytes no se
+    // interpretan, pero un UTF-8 inválido se rechaza igual que en el código (y que en Main, que decodifica todo)
+    private void skipCodePoint() {
+        decodeCodePoint(position);
+        position += decodedLength;
+    }
+
+    // Decodifica el carácter UTF-8 que empieza en pos (deja el resultado en decoded/decodedLength)
+    private void decodeChar(int pos) {
+        int codePoint = decodeCodePoint(pos);
+        decodedSupplementary = codePoint > 0xFFFF;
+        decoded = (char) codePoint;
+    }
+
+    private int decodeCodePoint(int pos) {
+        int b0 = buffer.get(pos) & 0xFF;
+        int length;
+        int codePoint;
+        if (b0 >= 0xF0 && b0 <= 0xF4) {
+            length = 4;
+            codePoint = b0 & 0x07;
+        } else if (b0 >= 0xE0 && b0 < 0xF0) {
+            length = 3;
+            codePoint = b0 & 0x0F;
+        } else if (b0 >= 0xC2 && b0 < 0xE0) {
+            length = 2;
+            codePoint = b0 & 0x1F;
+        } else {
+            throw malformed(pos);
+        }
+        if (pos + length > limit) throw malformed(pos);
+
+        for (int i = 1; i < length; i++) {
+            int b = buffer.get(pos + i) & 0xFF;
+            if ((b & 0xC0) != 0x80) throw malformed(pos);
+            codePoint = (codePoint << 6) | (b & 0x3F);
+        }
+        // Formas sobrelargas, sustitutos codificados y valores fuera de rango no son UTF-8 válido
+        if ((length == 3 && (codePoint < 0x800 || Character.isSurrogate((char) codePoint)))
+                || (length == 4 && (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT))) {
+            throw malformed(pos);
+        }
+        decodedLength = length;
+        return codePoint;
+    }
+
+    private UncheckedIOException malformed(int pos) {
+        return new UncheckedIOException("UTF-8 inválido en el byte " + pos, new MalformedInputException(1));
+    }
+}
@@ -0,0 +1,315 @@
+//Caché de compilación en disco, direccionada por contenido: el resultado del análisis de un archivo (cantidad de
+//tokens, errores de cada fase, advertencias y tabla de símbolos) se guarda bajo el SHA-256 de sus bytes, de la
+//versión del compilador y de las opciones que cambian el resultado. Si el archivo no cambió, se lee el resultado
+//en lugar de repetir los análisis léxico, sintáctico y semántico.
+//
+//Cada entrada es un archivo <clave>.entry. Se escribe en un temporal del mismo directorio y se renombra (atómico),
+//así que varios procesos pueden escribir a la vez: nadie lee una entrada a medias, y si dos procesos guardan la
+//misma clave el contenido es el mismo. Una entrada que no se puede leer (formato o versión distintos, suma de
+//control incorrecta) cuenta como ausente. La fecha de modificación hace de último uso: al leer una entrada se
+//actualiza, y cuando el directorio pasa del tamaño máximo se borran las de uso más antiguo (LRU).
+
+package minilang;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+public class CompilationCache {
+    /** Forma parte de cada clave: hay que cambiarla cuando cambia lo que informa alguna fase (reglas o mensajes). */
+    public static final String COMPILER_VERSION = "minilang-2026.10";
+
+    private static final int MAGIC = 0x4D4C4343;   // "MLCC"
+    private static final int FORMAT = 1;           // versión del formato de las entradas
+    private static final String SUFFIX = ".entry";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000L; // temporales de un proceso que terminó mal
+    private static final double EVICT_TO = 0.9;    // al desalojar se deja un margen para no recorrer siempre
+
+    /** Resultado guardado: como en Main, las fases siguientes a la primera con errores quedan vacías. */
+    public record Entry(int tokens, List<LexError> lexErrors, List<SyntaxError> syntaxErrors,
+                        List<SemanticError> semanticErrors, List<SemanticWarning> warnings, List<Symbol> symbols) {}
+
+    private final Path directory;
+    private final long maxBytes;
+    private final AtomicLong size;                 // tamaño estimado del directorio (otros procesos también escriben)
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger evictions = new AtomicInteger();
+
+    private CompilationCache(Path directory, long maxBytes, long size) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.size = new AtomicLong(size);
+    }
+
+    /** Abre (o crea) el directorio de la caché; maxBytes es el tamaño máximo de todas las entradas. */
+    public static CompilationCache open(Path directory, long maxBytes) throws IOException {
+        if (maxBytes < 1) throw new IllegalArgumentException("maxBytes debe ser >= 1");
+        Files.createDirectories(directory);
+        long size = 0;
+        for (EntryFile file : list(directory)) size += file.bytes();
+        return new CompilationCache(directory, maxBytes, size);
+    }
+
+    /**
+     * Clave de un archivo: SHA-256 (en hexadecimal) de la versión del compilador, de profile (las opciones que
+     * cambian el resultado, por ejemplo el máximo de errores) y de los bytes del código fuente.
+     */
+    public static String key(byte[] source, String profile) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(COMPILER_VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(profile.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(source);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e); // toda JVM lo tiene
+        }
+    }
+
+    /** Entrada guardada para la clave, o null si no hay una válida. */
+    public Entry get(String key) {
+        Path path = directory.resolve(key + SUFFIX);
+        Entry entry;
+        try {
+            entry = decode(key, ByteBuffer.wrap(Files.readAllBytes(path)));
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            entry = null; // no existe, otro proceso la desalojó, o está dañada
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // desalojada mientras tanto: el resultado leído sigue sirviendo
+        }
+        return entry;
+    }
+
+    /** Guarda la entrada (reemplaza la anterior de la misma clave) y desaloja si se pasó del tamaño máximo. */
+    public void put(String key, Entry entry) throws IOException {
+        byte[] bytes = encode(key, entry);
+        Path temp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+        try {
+            Files.write(temp, bytes);
+            try {
+                Files.move(temp, directory.resolve(key + SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, directory.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        if (size.addAndGet(bytes.length) > maxBytes) evict();
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public int getEvictions() {
+        return evictions.get();
+    }
+
+    public String report() {
+        return String.format(" Caché %s: %d aciertos, %d fallos, %d entradas desalojadas (%,d de %,d bytes)",
+                directory, hits.get(), misses.get(), evictions.get(), size.get(), maxBytes);
+    }
+
+    // ==================== DESALOJO ==================== //
+
+    private record EntryFile(Path path, long bytes, long lastUsed) {}
+
+    // Recorre el directorio (lo que vale es lo que hay en disco, no la estimación) y borra las entradas de uso más
+    // antiguo hasta quedar bajo el EVICT_TO del máximo. Si otro proceso borra una entrada al mismo tiempo, no pasa nada.
+    private synchronized void evict() throws IOException {
+        if (size.get() <= maxBytes) return; // otro hilo ya desalojó
+        List<EntryFile> files = list(directory);
+        files.sort(Comparator.comparingLong(EntryFile::lastUsed));
+        long total = 0;
+        for (EntryFile file : files) total += file.bytes();
+
+        long target = (long) (maxBytes * EVICT_TO);
+        for (int i = 0; i < files.size() && total > target; i++) {
+            if (Files.deleteIfExists(files.get(i).path())) evictions.incrementAndGet();
+            total -= files.get(i).bytes();
+        }
+        size.set(total);
+    }
+
+    // Entradas del directorio; de paso borra los temporales viejos que dejó algún proceso interrumpido
+    private static List<EntryFile> list(Path directory) throws IOException {
+        List<EntryFile> files = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    long modified = attributes.lastModifiedTime().toMillis();
+                    if (name.endsWith(SUFFIX)) {
+                        files.add(new EntryFile(path, attributes.size(), modified));
+                    } else if (name.endsWith(TEMP_SUFFIX) && now - modified > STALE_TEMP_MILLIS) {
+                        Files.deleteIfExists(path);
+                    }
+                } catch (NoSuchFileException e) {
+                    // la borró otro proceso
+                }
+            }
+        }
+        return files;
+    }
+
+    // ==================== FORMATO ==================== //
+    // MAGIC, FORMAT, clave, tokens, errores léxicos, sintácticos y semánticos, advertencias, símbolos y al final el
+    // CRC32 de todo lo anterior. Las listas llevan su cantidad adelante y los textos van en UTF-8 con su longitud.
+
+    private static byte[] encode(String key, Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        writeString(out, key);
+        out.writeInt(entry.tokens());
+
+        out.writeInt(entry.lexErrors().size());
+        for (LexError e : entry.lexErrors()) {
+            out.writeInt(e.getLine());
+            out.writeInt(e.getColumn());
+            writeString(out, e.getMessage());
+        }
+        out.writeInt(entry.syntaxErrors().size());
+        for (SyntaxError e : entry.syntaxErrors()) {
+            out.writeInt(e.line);
+            out.writeInt(e.column);
+            writeString(out, e.message);
+        }
+        out.writeInt(entry.semanticErrors().size());
+        for (SemanticError e : entry.semanticErrors()) {
+            out.writeInt(e.getLine());
+            writeString(out, e.getMessage());
+        }
+        out.writeInt(entry.warnings().size());
+        for (SemanticWarning w : entry.warnings()) {
+            out.writeInt(w.getLine());
+            writeString(out, w.getMessage());
+        }
+        out.writeInt(entry.symbols().size());
+        for (Symbol s : entry.symbols()) {
+            writeString(out, s.getName());
+            out.writeByte(s.getType().ordinal());
+            writeString(out, s.getScope());
+            out.writeInt(s.getLine());
+            out.writeInt(s.getDepth());
+            out.writeInt(s.getSlot());
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // null si la entrada es de otro formato o de otra clave; una entrada truncada termina en BufferUnderflowException
+    private static Entry decode(String key, ByteBuffer in) {
+        if (in.remaining() < 4) return null;
+        CRC32 crc = new CRC32();
+        crc.update(in.array(), 0, in.limit() - 4);
+        if ((int) crc.getValue() != in.getInt(in.limit() - 4)) return null;
+        in.limit(in.limit() - 4);
+
+        if (in.getInt() != MAGIC || in.getInt() != FORMAT || !key.equals(readString(in))) return null;
+        int tokens = in.getInt();
+
+        int n = count(in);
+        List<LexError> lexErrors = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int line = in.getInt();
+            int column = in.getInt();
+            lexErrors.add(new LexError(line, column, readString(in)));
+        }
+        n = count(in);
+        List<SyntaxError> syntaxErrors = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int line = in.getInt();
+            int column = in.getInt();
+            syntaxErrors.add(new SyntaxError(line, column, readString(in)));
+        }
+        n = count(in);
+        List<SemanticError> semanticErrors = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int line = in.getInt();
+            semanticErrors.add(new SemanticError(readString(in), line));
+        }
+        n = count(in);
+        List<SemanticWarning> warnings = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int line = in.getInt();
+            warnings.add(new SemanticWarning(readString(in), line));
+        }
+        n = count(in);
+        List<Symbol> symbols = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String name = readString(in);
+            Type type = Type.values()[in.get()];
+            String scope = readString(in);
+            int line = in.getInt();
+            int depth = in.getInt();
+            int slot = in.getInt();
+            symbols.add(new Symbol(name, type, scope, null, line, depth, slot));
+        }
+        if (in.hasRemaining()) return null;
+        return new Entry(tokens, lexErrors, syntaxErrors, semanticErrors, warnings, symbols);
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = count(in);
+        String text = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return text;
+    }
+
+    // Cantidad o longitud leída de la entrada; una negativa o mayor que lo que queda es una entrada dañada
+    private static int count(ByteBuffer in) {
+        int n = in.getInt();
+        if (n < 0 || n > in.remaining()) throw new IllegalArgumentException("Entrada dañada");
+        return n;
+    }
+}
@@ -0,0 +1,290 @@
+//Optimización sobre el AST ya verificado (entre SemanticAnalyzer y la ejecución): pliega operaciones entre
+//literales con las mismas reglas que en ejecución, quita los paréntesis (Expr.Grouping), simplifica
+//identidades (x * 1, 1 * x, x / 1, x - 0) y poda las ramas de los if con condición constante.
+//Los nodos que no cambian se reutilizan; el resto se crea de nuevo conservando la resolución (depth, slot).
+
+package minilang;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConstantFolder implements Stmt.Visitor<Stmt>, Expr.Visitor<Expr> {
+
+    private int folded = 0;       // operaciones reemplazadas por su resultado
+    private int groupings = 0;    // paréntesis quitados
+    private int identities = 0;   // operaciones con neutro (x * 1, ...) reemplazadas por el operando
+    private int prunedIfs = 0;    // if con condición constante reemplazados por una de sus ramas
+    private int nodesBefore = 0;
+    private int nodesAfter = 0;
+
+    public List<Stmt> fold(List<Stmt> statements) {
+        nodesBefore = PhaseMetrics.countNodes(statements);
+        List<Stmt> result = foldAll(statements);
+        nodesAfter = PhaseMetrics.countNodes(result);
+        return result;
+    }
+
+    /** Nodos del AST (sentencias y expresiones) que quitó la última llamada a fold(). */
+    public int getEliminatedNodes() {
+        return nodesBefore - nodesAfter;
+    }
+
+    public int getFolded() {
+        return folded;
+    }
+
+    public int getGroupings() {
+        return groupings;
+    }
+
+    public int getIdentities() {
+        return identities;
+    }
+
+    public int getPrunedIfs() {
+        return prunedIfs;
+    }
+
+    public String report() {
+        return String.format(" Nodos eliminados: %d de %d (%d operaciones plegadas, %d paréntesis, %d identidades, %d if podados)",
+                getEliminatedNodes(), nodesBefore, folded, groupings, identities, prunedIfs);
+    }
+
+    // Las sentencias que desaparecen (if falso sin else) se quitan de la lista
+    private List<Stmt> foldAll(List<Stmt> statements) {
+        List<Stmt> result = new ArrayList<>(statements.size());
+        boolean changed = false;
+        for (Stmt stmt : statements) {
+            Stmt f = stmt.accept(this);
+            if (f != null) result.add(f);
+            changed |= f != stmt;
+        }
+        return changed ? result : statements;
+    }
+
+    // Una rama que desaparece pasa a ser un bloque vacío
+    private Stmt branch(Stmt stmt) {
+        Stmt f = stmt.accept(this);
+        return f != null ? f : new Stmt.Block(List.of());
+    }
+
+    // ======================
+    // SENTENCIAS
+    // ======================
+
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitExpressionStmt(Stmt.Expression stmt) {
+        Expr e = stmt.expression.accept(this);
+        return e == stmt.expression ? stmt : new Stmt.Expression(e);
+    }
+
+    @Override
+    public Stmt visitAssignStmt(Stmt.Assign stmt) {
+        Expr value = stmt.value.accept(this);
+        if (value == stmt.value) return stmt;
+        Stmt.Assign assign = new Stmt.Assign(stmt.name, stmt.operator, value);
+        assign.depth = stmt.depth;
+        assign.slot = stmt.slot;
+        return assign;
+    }
+
+    @Override
+    public Stmt visitReadStmt(Stmt.Read stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitWriteStmt(Stmt.Write stmt) {
+        Expr e = stmt.expression.accept(this);
+        return e == stmt.expression ? stmt : new Stmt.Write(e);
+    }
+
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        List<Stmt> statements = foldAll(stmt.statements);
+        return statements == stmt.statements ? stmt : new Stmt.Block(statements, stmt.opensScope);
+    }
+
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        Expr condition = stmt.condition.accept(this);
+        if (condition instanceof Expr.Literal literal && !(literal.value instanceof String)) {
+            prunedIfs++;
+            if (isTrue(literal.value)) return stmt.thenBranch.accept(this);
+            return stmt.elseBranch != null ? stmt.elseBranch.accept(this) : null;
+        }
+
+        Stmt thenBranch = branch(stmt.thenBranch);
+        Stmt elseBranch = stmt.elseBranch != null ? branch(stmt.elseBranch) : null;
+        if (condition == stmt.condition && thenBranch == stmt.thenBranch && elseBranch == stmt.elseBranch) return stmt;
+        return new Stmt.If(condition, thenBranch, elseBranch);
+    }
+
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        Expr condition = stmt.condition.accept(this);
+        Stmt body = branch(stmt.body);
+        if (condition == stmt.condition && body == stmt.body) return stmt;
+        return new Stmt.While(condition, body);
+    }
+
+    @Override
+    public Stmt visitBreakStmt(Stmt.Break stmt) {
+        return stmt;
+    }
+
+    // ======================
+    // EXPRESIONES
+    // ======================
+
+    @Override
+    public Expr visitBinaryExpr(Expr.Binary expr) {
+        Expr left = expr.left.accept(this);
+        Expr right = expr.right.accept(this);
+        TokenType op = expr.operator.type;
+
+        if (left instanceof Expr.Literal l && right instanceof Expr.Literal r) {
+            Object value = fold(op, l.value, r.value);
+            if (value != null) {
+                folded++;
+                return new Expr.Literal(value);
+            }
+        }
+
+        // Con un literal entero (no 1.0: x * 1.0 convierte x a double) el resultado es el otro operando.
+        // x + 0 no se simplifica: con x = -0.0 el resultado es 0.0.
+        if ((op == TokenType.MULTIPLY && isInteger(right, 1)) || (op == TokenType.DIVIDE && isInteger(right, 1))
+                || (op == TokenType.MINUS && isInteger(right, 0))) {
+            identities++;
+            return left;
+        }
+        if (op == TokenType.MULTIPLY && isInteger(left, 1)) {
+            identities++;
+            return right;
+        }
+
+        if (left == expr.left && right == expr.right) return expr;
+        return new Expr.Binary(left, expr.operator, right);
+    }
+
+    @Override
+    public Expr visitLiteralExpr(Expr.Literal expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitUnaryExpr(Expr.Unary expr) {
+        Expr right = expr.right.accept(this);
+        if (right instanceof Expr.Literal literal) {
+            Object value = foldUnary(expr.operator.type, literal.value);
+            if (value != null) {
+                folded++;
+                return new Expr.Literal(value);
+            }
+        }
+        return right == expr.right ? expr : new Expr.Unary(expr.operator, right);
+    }
+
+    @Override
+    public Expr visitVariableExpr(Expr.Variable expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitGroupingExpr(Expr.Grouping expr) {
+        groupings++;
+        return expr.expression.accept(this);
+    }
+
+    // ======================
+    // PLEGADO DE VALORES
+    // ======================
+
+    // Resultado de "a op b" como en ejecución, o null si no se puede (o no conviene) calcular ahora:
+    // división entera por cero (es un error en ejecución) o un long que no entra en un literal Integer.
+    private static Object fold(TokenType op, Object a, Object b) {
+        if (a instanceof String || b instanceof String) {
+            if (!(a instanceof String sa) || !(b instanceof String sb)) return null;
+            return switch (op) {
+                case PLUS -> sa + sb;
+                case EQUAL -> sa.equals(sb);
+                case NOT_EQUAL -> !sa.equals(sb);
+                default -> null;
+            };
+        }
+
+        if (op == TokenType.AND) return isTrue(a) && isTrue(b);
+        if (op == TokenType.OR) return isTrue(a) || isTrue(b);
+
+        // Promoción a double si alguno de los operandos es double
+        if (a instanceof Double || b instanceof Double) {
+            double x = toDouble(a);
+            double y = toDouble(b);
+            return switch (op) {
+                case PLUS -> x + y;
+                case MINUS -> x - y;
+                case MULTIPLY -> x * y;
+                case DIVIDE -> x / y;
+                case GREATER -> x > y;
+                case GREATER_EQUAL -> x >= y;
+                case LESS -> x < y;
+                case LESS_EQUAL -> x <= y;
+                case EQUAL -> x == y;
+                case NOT_EQUAL -> x != y;
+                default -> null;
+            };
+        }
+
+        long x = toLong(a);
+        long y = toLong(b);
+        return switch (op) {
+            case PLUS -> integer(x + y);
+            case MINUS -> integer(x - y);
+            case MULTIPLY -> integer(x * y);
+            case DIVIDE -> y == 0 ? null : integer(x / y);
+            case GREATER -> x > y;
+            case GREATER_EQUAL -> x >= y;
+            case LESS -> x < y;
+            case LESS_EQUAL -> x <= y;
+            case EQUAL -> x == y;
+            case NOT_EQUAL -> x != y;
+            default -> null;
+        };
+    }
+
+    private static Object foldUnary(TokenType op, Object value) {
+        if (value instanceof String) return null;
+        if (op == TokenType.NOT) return !isTrue(value);
+        if (value instanceof Double d) return -d;
+        return integer(-toLong(value));
+    }
+
+    // Los literales enteros son Integer: un resultado fuera de rango se deja sin plegar
+    private static Integer integer(long value) {
+        return value == (int) value ? (int) value : null;
+    }
+
+    // Los booleanos valen 1/0, como en ejecución
+    private static long toLong(Object value) {
+        if (value instanceof Boolean b) return b ? 1L : 0L;
+        return ((Integer) value).longValue();
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Double d ? d : toLong(value);
+    }
+
+    private static boolean isTrue(Object value) {
+        if (value instanceof Double d) return d != 0.0;
+        return toLong(value) != 0;
+    }
+
+    private static boolean isInteger(Expr expr, int value) {
+        return expr instanceof Expr.Literal literal && literal.value instanceof Integer i && i == value;
+    }
+}
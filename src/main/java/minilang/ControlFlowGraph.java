@@ -0,0 +1,218 @@
+//Grafo de flujo de control del programa verificado: un nodo por sentencia simple (var, asignación, read,
+//write, expresión, break) y uno por condición de if/while. Calcula qué nodos son alcanzables desde el inicio
+//y qué variables están vivas a la salida de cada nodo. Las variables se identifican por su posición
+//SymbolTable.index(depth, slot): los ámbitos hermanos que comparten posición siempre empiezan con su
+//propia declaración, que redefine la variable.
+
+package minilang;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ControlFlowGraph {
+    private static final int[] NO_SUCCESSORS = new int[0];
+
+    private final SymbolTable symbols;
+    private final int exit;                      // nodo final (sin sentencia)
+    private final int entry;
+
+    private final List<Object> nodes = new ArrayList<>();   // Stmt simple, o Stmt.If / Stmt.While por su condición
+    private final List<int[]> successors = new ArrayList<>();
+    private final Map<Stmt, Integer> nodeOf = new IdentityHashMap<>();
+
+    private boolean[] reachable;
+    private BitSet[] liveOut;
+
+    public ControlFlowGraph(List<Stmt> statements, SymbolTable symbols) {
+        this.symbols = symbols;
+        this.exit = addNode(null, NO_SUCCESSORS);
+        this.entry = sequence(statements, exit, exit);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /** Si la sentencia (o, para if/while, su condición) puede ejecutarse. Un bloque es alcanzable si alguna de sus sentencias lo es. */
+    public boolean isReachable(Stmt stmt) {
+        if (reachable == null) computeReachability();
+        if (stmt instanceof Stmt.Block block) {
+            for (Stmt s : block.statements) {
+                if (isReachable(s)) return true;
+            }
+            return false;
+        }
+        return reachable[nodeOf.get(stmt)];
+    }
+
+    /** Si la variable de la posición index puede leerse después de ejecutar la sentencia simple stmt. */
+    public boolean isLiveAfter(Stmt stmt, int index) {
+        if (liveOut == null) computeLiveness();
+        return liveOut[nodeOf.get(stmt)].get(index);
+    }
+
+    // ======================
+    // CONSTRUCCIÓN
+    // ======================
+
+    private int addNode(Object stmt, int[] next) {
+        nodes.add(stmt);
+        successors.add(next);
+        return nodes.size() - 1;
+    }
+
+    // Se construye de atrás hacia adelante: cada sentencia conoce su sucesor (next) y el destino de break
+    private int sequence(List<Stmt> statements, int next, int breakTarget) {
+        for (int i = statements.size() - 1; i >= 0; i--) {
+            next = statement(statements.get(i), next, breakTarget);
+        }
+        return next;
+    }
+
+    private int statement(Stmt stmt, int next, int breakTarget) {
+        int node;
+        switch (stmt) {
+            case Stmt.Block s -> {
+                return sequence(s.statements, next, breakTarget);
+            }
+            case Stmt.Break s -> node = addNode(s, new int[] {breakTarget});
+            case Stmt.If s -> {
+                int thenEntry = statement(s.thenBranch, next, breakTarget);
+                int elseEntry = s.elseBranch != null ? statement(s.elseBranch, next, breakTarget) : next;
+                Boolean constant = constantCondition(s.condition);
+                int[] targets = constant == null ? new int[] {thenEntry, elseEntry}
+                        : new int[] {constant ? thenEntry : elseEntry};
+                node = addNode(s, targets);
+            }
+            case Stmt.While s -> {
+                // La condición se crea antes que el cuerpo para que el cuerpo pueda volver a ella
+                node = addNode(s, NO_SUCCESSORS);
+                int bodyEntry = statement(s.body, node, next);
+                Boolean constant = constantCondition(s.condition);
+                successors.set(node, constant == null ? new int[] {bodyEntry, next}
+                        : new int[] {constant ? bodyEntry : next});
+            }
+            default -> node = addNode(stmt, new int[] {next});
+        }
+        nodeOf.put(stmt, node);
+        return node;
+    }
+
+    // true/false si la condición es un literal (como quedan después de ConstantFolder), null si no
+    private static Boolean constantCondition(Expr condition) {
+        if (!(condition instanceof Expr.Literal literal)) return null;
+        return switch (literal.value) {
+            case Integer i -> i != 0;
+            case Double d -> d != 0.0;
+            case Boolean b -> b;
+            default -> null; // una cadena es un error en ejecución
+        };
+    }
+
+    // ======================
+    // ANÁLISIS
+    // ======================
+
+    private void computeReachability() {
+        reachable = new boolean[nodes.size()];
+        Deque<Integer> pending = new ArrayDeque<>();
+        reachable[entry] = true;
+        pending.push(entry);
+        while (!pending.isEmpty()) {
+            for (int next : successors.get(pending.pop())) {
+                if (!reachable[next]) {
+                    reachable[next] = true;
+                    pending.push(next);
+                }
+            }
+        }
+    }
+
+    // Análisis hacia atrás hasta el punto fijo: in = uses ∪ (out − defs), out = ∪ in(sucesores)
+    private void computeLiveness() {
+        int n = nodes.size();
+        BitSet[] uses = new BitSet[n];
+        int[] defs = new int[n];
+        List<List<Integer>> predecessors = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            uses[i] = new BitSet();
+            defs[i] = -1;
+            predecessors.add(new ArrayList<>(2));
+        }
+        for (int i = 0; i < n; i++) {
+            collect(nodes.get(i), uses[i]);
+            defs[i] = definedBy(nodes.get(i));
+            for (int next : successors.get(i)) predecessors.get(next).add(i);
+        }
+
+        liveOut = new BitSet[n];
+        BitSet[] liveIn = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            liveOut[i] = new BitSet();
+            liveIn[i] = (BitSet) uses[i].clone();
+        }
+
+        Deque<Integer> pending = new ArrayDeque<>();
+        boolean[] queued = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            pending.add(i);
+            queued[i] = true;
+        }
+        while (!pending.isEmpty()) {
+            int node = pending.poll();
+            queued[node] = false;
+            BitSet out = liveOut[node];
+            for (int next : successors.get(node)) out.or(liveIn[next]);
+
+            BitSet in = (BitSet) out.clone();
+            if (defs[node] >= 0) in.clear(defs[node]);
+            in.or(uses[node]);
+            if (!in.equals(liveIn[node])) {
+                liveIn[node] = in;
+                for (int previous : predecessors.get(node)) {
+                    if (!queued[previous]) {
+                        queued[previous] = true;
+                        pending.add(previous);
+                    }
+                }
+            }
+        }
+    }
+
+    // Variables leídas por el nodo
+    private void collect(Object node, BitSet uses) {
+        switch (node) {
+            case Stmt.Assign s -> {
+                if (s.operator.type != TokenType.ASSIGN) uses.set(symbols.index(s.depth, s.slot)); // x += e lee x
+                collect(s.value, uses);
+            }
+            case Stmt.Write s -> collect(s.expression, uses);
+            case Stmt.Expression s -> collect(s.expression, uses);
+            case Stmt.If s -> collect(s.condition, uses);
+            case Stmt.While s -> collect(s.condition, uses);
+            case Expr.Variable e -> uses.set(symbols.index(e.depth, e.slot));
+            case Expr.Binary e -> {
+                collect(e.left, uses);
+                collect(e.right, uses);
+            }
+            case Expr.Unary e -> collect(e.right, uses);
+            case Expr.Grouping e -> collect(e.expression, uses);
+            case null, default -> { }
+        }
+    }
+
+    // Variable escrita por el nodo, o -1
+    private int definedBy(Object node) {
+        return switch (node) {
+            case Stmt.Var s -> symbols.index(s.depth, s.slot);
+            case Stmt.Assign s -> symbols.index(s.depth, s.slot);
+            case Stmt.Read s -> symbols.index(s.depth, s.slot);
+            case null, default -> -1;
+        };
+    }
+}
@@ -0,0 +1,64 @@
+//Propagación de copias sobre la SSA: cada uso de "x = copy y" pasa a usar y, y los phi triviales (todos
+//sus argumentos son el mismo valor, o el propio phi en un ciclo) se reemplazan por ese valor. Se repite
+//porque quitar un phi puede dejar trivial a otro.
+
+package minilang;
+
+public class CopyPropagation implements IrPass {
+
+    @Override
+    public String name() {
+        return "Propagación de copias";
+    }
+
+    @Override
+    public boolean run(Ir.Function function) {
+        boolean changed = false;
+        boolean again = true;
+        while (again) {
+            Ir.Instr[] replacement = new Ir.Instr[function.valueCount()];
+            again = false;
+            for (Ir.Block b : function.blocks()) {
+                for (Ir.Instr phi : b.phis) {
+                    Ir.Instr same = trivialValue(phi, replacement);
+                    if (same != null) {
+                        replacement[phi.id] = same;
+                        again = true;
+                    }
+                }
+                for (Ir.Instr instr : b.instrs) {
+                    if (instr.op == Ir.Op.COPY) {
+                        replacement[instr.id] = instr.args[0];
+                        again = true;
+                    }
+                }
+            }
+            if (!again) break;
+
+            function.replaceUses(replacement);
+            for (Ir.Block b : function.blocks()) {
+                b.phis.removeIf(phi -> replacement[phi.id] != null);
+                b.instrs.removeIf(instr -> replacement[instr.id] != null);
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    // El único valor distinto del propio phi entre sus argumentos, o null si hay más de uno
+    private static Ir.Instr trivialValue(Ir.Instr phi, Ir.Instr[] replacement) {
+        Ir.Instr same = null;
+        for (Ir.Instr arg : phi.args) {
+            Ir.Instr value = resolve(arg, replacement);
+            if (value == phi || value == same) continue;
+            if (same != null) return null;
+            same = value;
+        }
+        return same;
+    }
+
+    private static Ir.Instr resolve(Ir.Instr value, Ir.Instr[] replacement) {
+        while (replacement[value.id] != null) value = replacement[value.id];
+        return value;
+    }
+}
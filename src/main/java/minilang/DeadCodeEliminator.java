@@ -0,0 +1,335 @@
+//Eliminación de código muerto sobre el AST ya verificado (después de ConstantFolder), guiada por el
+//ControlFlowGraph: quita las sentencias inalcanzables (después de un break, o de un while que no termina),
+//las asignaciones cuyo valor nunca se lee y las declaraciones de variables que nunca se leen. Cada caso se
+//informa como SemanticWarning. Se repite hasta que no cambia nada, porque quitar una sentencia puede dejar
+//muerta a otra. Las asignaciones que pueden fallar en ejecución (división entera) y los read se conservan.
+
+package minilang;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class DeadCodeEliminator implements Stmt.Visitor<Stmt> {
+
+    private final SymbolTable symbols;
+    private final List<SemanticWarning> warnings = new ArrayList<>();
+    private final Set<Stmt.Var> warnedVars = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private ControlFlowGraph cfg;
+    private Map<Stmt.Var, Usage> usages;          // lecturas y referencias de cada declaración
+    private Map<Stmt, Stmt.Var> declarations;     // declaración de cada asignación y read
+    private int lastLine = 0;                     // línea de la última sentencia con línea conocida
+
+    private int unreachable = 0;  // sentencias inalcanzables quitadas
+    private int deadStores = 0;   // asignaciones sin lectura posterior quitadas
+    private int unusedVars = 0;   // declaraciones quitadas
+    private int passes = 0;
+    private int nodesBefore = 0;
+    private int nodesAfter = 0;
+
+    private static final class Usage {
+        int reads = 0;       // Expr.Variable que la leen
+        int references = 0;  // asignaciones y read que la escriben
+    }
+
+    public DeadCodeEliminator(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public List<Stmt> eliminate(List<Stmt> statements) {
+        nodesBefore = PhaseMetrics.countNodes(statements);
+        List<Stmt> result = statements;
+        List<Stmt> previous;
+        do {
+            previous = result;
+            passes++;
+            cfg = new ControlFlowGraph(result, symbols);
+            countUsages(result);
+            lastLine = 0;
+            result = eliminateAll(result);
+        } while (result != previous);
+        cfg = null;
+        usages = null;
+        declarations = null;
+
+        warnings.sort(Comparator.comparingInt(SemanticWarning::getLine));
+        nodesAfter = PhaseMetrics.countNodes(result);
+        return result;
+    }
+
+    /** Advertencias ordenadas por línea. */
+    public List<SemanticWarning> getWarnings() {
+        return warnings;
+    }
+
+    /** Nodos del AST (sentencias y expresiones) que quitó la última llamada a eliminate(). */
+    public int getEliminatedNodes() {
+        return nodesBefore - nodesAfter;
+    }
+
+    public int getUnreachable() {
+        return unreachable;
+    }
+
+    public int getDeadStores() {
+        return deadStores;
+    }
+
+    public int getUnusedVars() {
+        return unusedVars;
+    }
+
+    public String report() {
+        return String.format(" Código muerto: %d nodos eliminados (%d sentencias inalcanzables, %d asignaciones sin uso, %d variables sin uso; %d pasadas)",
+                getEliminatedNodes(), unreachable, deadStores, unusedVars, passes);
+    }
+
+    // Las sentencias que desaparecen se quitan de la lista; de una serie de inalcanzables se avisa la primera
+    private List<Stmt> eliminateAll(List<Stmt> statements) {
+        List<Stmt> result = new ArrayList<>(statements.size());
+        boolean changed = false;
+        boolean warned = false;
+        for (Stmt stmt : statements) {
+            Stmt e;
+            if (isEmptyBlock(stmt) || cfg.isReachable(stmt)) {
+                e = stmt.accept(this);
+                warned = false;
+            } else {
+                unreachable++;
+                if (!warned) warn("Sentencia inalcanzable.", stmt);
+                warned = true;
+                e = null;
+            }
+            if (e != null) result.add(e);
+            changed |= e != stmt;
+        }
+        return changed ? result : statements;
+    }
+
+    // Una rama que desaparece pasa a ser un bloque vacío
+    private Stmt branch(Stmt stmt) {
+        if (!isEmptyBlock(stmt) && !cfg.isReachable(stmt)) {
+            unreachable++;
+            warn("Sentencia inalcanzable.", stmt);
+            return new Stmt.Block(List.of());
+        }
+        Stmt e = stmt.accept(this);
+        return e != null ? e : new Stmt.Block(List.of());
+    }
+
+    // Un bloque sin sentencias, o que solo tiene bloques vacíos ("{ { } }"): no tiene nodos en el grafo, así que
+    // ControlFlowGraph no puede decir si se alcanza, pero quitarlo o dejarlo da igual
+    private static boolean isEmptyBlock(Stmt stmt) {
+        if (!(stmt instanceof Stmt.Block block)) return false;
+        for (Stmt s : block.statements) {
+            if (!isEmptyBlock(s)) return false;
+        }
+        return true;
+    }
+
+    // ======================
+    // SENTENCIAS
+    // ======================
+
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        lastLine = stmt.name.line;
+        Usage usage = usages.get(stmt);
+        if (usage.reads > 0) return stmt;
+        if (warnedVars.add(stmt)) {
+            warn("Variable '" + stmt.name.lexeme + "' declarada y nunca leída.", stmt);
+        }
+        // Se quita cuando ya no la escribe ninguna sentencia (las asignaciones puras se quitan antes)
+        if (usage.references > 0) return stmt;
+        unusedVars++;
+        return null;
+    }
+
+    @Override
+    public Stmt visitExpressionStmt(Stmt.Expression stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitAssignStmt(Stmt.Assign stmt) {
+        lastLine = stmt.name.line;
+        if (cfg.isLiveAfter(stmt, symbols.index(stmt.depth, stmt.slot)) || !canRemove(stmt)) return stmt;
+        deadStores++;
+        // Si la variable nunca se lee ya se avisó en su declaración
+        if (usages.get(declarations.get(stmt)).reads > 0) {
+            warn("El valor asignado a '" + stmt.name.lexeme + "' nunca se usa.", stmt);
+        }
+        return null;
+    }
+
+    @Override
+    public Stmt visitReadStmt(Stmt.Read stmt) {
+        lastLine = stmt.name.line;
+        return stmt; // consume la entrada aunque el valor no se use
+    }
+
+    @Override
+    public Stmt visitWriteStmt(Stmt.Write stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        List<Stmt> statements = eliminateAll(stmt.statements);
+        return statements == stmt.statements ? stmt : new Stmt.Block(statements, stmt.opensScope);
+    }
+
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        Stmt thenBranch = branch(stmt.thenBranch);
+        Stmt elseBranch = stmt.elseBranch != null ? branch(stmt.elseBranch) : null;
+        if (thenBranch == stmt.thenBranch && elseBranch == stmt.elseBranch) return stmt;
+        return new Stmt.If(stmt.condition, thenBranch, elseBranch);
+    }
+
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        Stmt body = branch(stmt.body);
+        return body == stmt.body ? stmt : new Stmt.While(stmt.condition, body);
+    }
+
+    @Override
+    public Stmt visitBreakStmt(Stmt.Break stmt) {
+        lastLine = stmt.keyword.line;
+        return stmt;
+    }
+
+    // ======================
+    // USOS DE CADA DECLARACIÓN
+    // ======================
+
+    // Recorre el árbol en orden con la declaración vigente en cada posición index(depth, slot): un ámbito
+    // hermano que reutiliza la posición empieza siempre con su propia declaración.
+    private void countUsages(List<Stmt> statements) {
+        usages = new IdentityHashMap<>();
+        declarations = new IdentityHashMap<>();
+        Stmt.Var[] current = new Stmt.Var[symbols.storageSize()];
+        for (Stmt stmt : statements) countUsages(stmt, current);
+    }
+
+    private void countUsages(Stmt stmt, Stmt.Var[] current) {
+        switch (stmt) {
+            case Stmt.Var s -> {
+                current[symbols.index(s.depth, s.slot)] = s;
+                usages.put(s, new Usage());
+            }
+            case Stmt.Assign s -> {
+                Stmt.Var declaration = current[symbols.index(s.depth, s.slot)];
+                declarations.put(s, declaration);
+                usages.get(declaration).references++;
+                if (s.operator.type != TokenType.ASSIGN) usages.get(declaration).reads++; // x += e lee x
+                countReads(s.value, current);
+            }
+            case Stmt.Read s -> {
+                Stmt.Var declaration = current[symbols.index(s.depth, s.slot)];
+                declarations.put(s, declaration);
+                usages.get(declaration).references++;
+            }
+            case Stmt.Write s -> countReads(s.expression, current);
+            case Stmt.Expression s -> countReads(s.expression, current);
+            case Stmt.Block s -> {
+                for (Stmt inner : s.statements) countUsages(inner, current);
+            }
+            case Stmt.If s -> {
+                countReads(s.condition, current);
+                countUsages(s.thenBranch, current);
+                if (s.elseBranch != null) countUsages(s.elseBranch, current);
+            }
+            case Stmt.While s -> {
+                countReads(s.condition, current);
+                countUsages(s.body, current);
+            }
+            default -> { }
+        }
+    }
+
+    private void countReads(Expr expr, Stmt.Var[] current) {
+        switch (expr) {
+            case Expr.Variable e -> usages.get(current[symbols.index(e.depth, e.slot)]).reads++;
+            case Expr.Binary e -> {
+                countReads(e.left, current);
+                countReads(e.right, current);
+            }
+            case Expr.Unary e -> countReads(e.right, current);
+            case Expr.Grouping e -> countReads(e.expression, current);
+            default -> { }
+        }
+    }
+
+    // ======================
+    // EFECTOS Y LÍNEAS
+    // ======================
+
+    // Una asignación solo se quita si no puede terminar en un error de ejecución
+    private static boolean canRemove(Stmt.Assign stmt) {
+        if (stmt.operator.type == TokenType.DIV_ASSIGN && !isSafeDivisor(stmt.value)) return false;
+        return isPure(stmt.value);
+    }
+
+    // La única operación que puede fallar en un programa verificado es la división entera por cero
+    private static boolean isPure(Expr expr) {
+        return switch (expr) {
+            case Expr.Binary e -> (e.operator.type != TokenType.DIVIDE || isSafeDivisor(e.right))
+                    && isPure(e.left) && isPure(e.right);
+            case Expr.Unary e -> isPure(e.right);
+            case Expr.Grouping e -> isPure(e.expression);
+            default -> true;
+        };
+    }
+
+    private static boolean isSafeDivisor(Expr expr) {
+        if (!(expr instanceof Expr.Literal literal)) return false;
+        return literal.value instanceof Double || (literal.value instanceof Integer i && i != 0);
+    }
+
+    private void warn(String message, Stmt stmt) {
+        int line = line(stmt);
+        if (line > 0) lastLine = line;
+        warnings.add(new SemanticWarning(message, line > 0 ? line : lastLine));
+    }
+
+    // Primera línea conocida de la sentencia, o 0 (los literales no guardan su token)
+    private static int line(Stmt stmt) {
+        return switch (stmt) {
+            case Stmt.Var s -> s.name.line;
+            case Stmt.Assign s -> s.name.line;
+            case Stmt.Read s -> s.name.line;
+            case Stmt.Break s -> s.keyword.line;
+            case Stmt.Write s -> line(s.expression);
+            case Stmt.Expression s -> line(s.expression);
+            case Stmt.If s -> line(s.condition);
+            case Stmt.While s -> line(s.condition);
+            case Stmt.Block s -> {
+                for (Stmt inner : s.statements) {
+                    int line = line(inner);
+                    if (line > 0) yield line;
+                }
+                yield 0;
+            }
+            default -> 0;
+        };
+    }
+
+    private static int line(Expr expr) {
+        return switch (expr) {
+            case Expr.Variable e -> e.name.line;
+            case Expr.Binary e -> {
+                int line = line(e.left);
+                yield line > 0 ? line : e.operator.line;
+            }
+            case Expr.Unary e -> e.operator.line;
+            case Expr.Grouping e -> line(e.expression);
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,45 @@
+//Eliminación de valores sin uso sobre la SSA: se marcan como vivas las instrucciones con efectos (read,
+//write, divisiones enteras que pueden fallar) y las condiciones de los saltos, y desde ellas sus argumentos;
+//el resto se quita. Marcar desde las raíces también quita los ciclos de phi que solo se usan entre sí.
+
+package minilang;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public class DeadValueElimination implements IrPass {
+
+    @Override
+    public String name() {
+        return "Eliminación de valores sin uso";
+    }
+
+    @Override
+    public boolean run(Ir.Function function) {
+        boolean[] live = new boolean[function.valueCount()];
+        Deque<Ir.Instr> pending = new ArrayDeque<>();
+        for (Ir.Block b : function.blocks()) {
+            for (Ir.Instr instr : b.instrs) {
+                if (!instr.isPure()) mark(instr, live, pending);
+            }
+            if (b.condition != null) mark(b.condition, live, pending);
+        }
+        while (!pending.isEmpty()) {
+            for (Ir.Instr arg : pending.pop().args) mark(arg, live, pending);
+        }
+
+        boolean changed = false;
+        for (Ir.Block b : function.blocks()) {
+            changed |= b.phis.removeIf(phi -> !live[phi.id]);
+            changed |= b.instrs.removeIf(instr -> !live[instr.id]);
+        }
+        return changed;
+    }
+
+    private static void mark(Ir.Instr instr, boolean[] live, Deque<Ir.Instr> pending) {
+        if (!live[instr.id]) {
+            live[instr.id] = true;
+            pending.push(instr);
+        }
+    }
+}
@@ -35,6 +35,7 @@ public abstract class Expr {
 
     public static class Variable extends Expr {
         public final Token name;
+        public int depth = -1, slot = -1; // declaración a la que se resolvió (la completa SemanticAnalyzer)
         public Variable(Token name) { this.name = name; }
         @Override public <R> R accept(Visitor<R> v) { return v.visitVariableExpr(this); }
         @Override public String toString() { return name.lexeme; }
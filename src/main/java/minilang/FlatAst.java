@@ -0,0 +1,267 @@
+//AST plano: los nodos viven en arreglos paralelos (tipo de nodo, hijos, siguiente hermano e índice de token en el
+//TokenBuffer) en lugar de un objeto por nodo con referencias a objetos Token. Lo arma Parser.parseFlat(); se
+//recorre con FlatAst.Visitor (SemanticAnalyzer.analyze(FlatAst) lo hace) o se convierte al árbol de objetos con
+//toStatements().
+//
+//Uso de los campos según el tipo de nodo (-1: no hay):
+//  VAR        token = nombre      first = token del tipo    second/third = profundidad/slot (los pone el semántico)
+//  ASSIGN     token = nombre      first = valor             second/third = profundidad/slot (operador: token + 1)
+//  READ       token = nombre                                second/third = profundidad/slot
+//  VARIABLE   token = nombre                                second/third = profundidad/slot
+//  EXPRESSION, WRITE              first = expresión
+//  BLOCK                          first = primera sentencia second = 1 si abre un ámbito
+//  IF                             first = condición         second = then               third = else
+//  WHILE                          first = condición         second = cuerpo
+//  BREAK      token = break
+//  BINARY     token = operador    first = izquierda         second = derecha
+//  UNARY      token = operador    first = operando
+//  LITERAL    token = constante
+//  GROUPING                       first = expresión
+//Las sentencias de un bloque (y las de nivel superior) se encadenan con next. Una declaración "long a, b;" es un
+//BLOCK que no abre ámbito con los dos VAR, como el Stmt.Block que arma Parser.parse().
+
+package minilang;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FlatAst {
+
+    public enum Kind { VAR, EXPRESSION, ASSIGN, READ, WRITE, BLOCK, IF, WHILE, BREAK, BINARY, LITERAL, UNARY, VARIABLE, GROUPING }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    /** Recorrido del AST plano: cada método recibe el índice del nodo. */
+    public interface Visitor<R> {
+        R visitVar(int node);
+        R visitExpression(int node);
+        R visitAssign(int node);
+        R visitRead(int node);
+        R visitWrite(int node);
+        R visitBlock(int node);
+        R visitIf(int node);
+        R visitWhile(int node);
+        R visitBreak(int node);
+        R visitBinary(int node);
+        R visitLiteral(int node);
+        R visitUnary(int node);
+        R visitVariable(int node);
+        R visitGrouping(int node);
+    }
+
+    private final TokenSource tokens;
+
+    private byte[] kinds;
+    private int[] tokenIndexes;
+    private int[] firsts;
+    private int[] seconds;
+    private int[] thirds;
+    private int[] nexts;
+    private int size = 0;
+    private int firstStatement = -1;
+
+    public FlatAst(TokenSource tokens) {
+        this.tokens = tokens;
+        int capacity = Math.max(16, tokens.size() / 2); // cerca de un nodo cada dos tokens
+        kinds = new byte[capacity];
+        tokenIndexes = new int[capacity];
+        firsts = new int[capacity];
+        seconds = new int[capacity];
+        thirds = new int[capacity];
+        nexts = new int[capacity];
+    }
+
+    // ==================== CONSTRUCCIÓN (NodeBuilder.Flat) ==================== //
+
+    int add(Kind kind, int token, int first, int second, int third) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            tokenIndexes = Arrays.copyOf(tokenIndexes, capacity);
+            firsts = Arrays.copyOf(firsts, capacity);
+            seconds = Arrays.copyOf(seconds, capacity);
+            thirds = Arrays.copyOf(thirds, capacity);
+            nexts = Arrays.copyOf(nexts, capacity);
+        }
+        kinds[size] = (byte) kind.ordinal();
+        tokenIndexes[size] = token;
+        firsts[size] = first;
+        seconds[size] = second;
+        thirds[size] = third;
+        nexts[size] = -1;
+        return size++;
+    }
+
+    void setNext(int node, int next) {
+        nexts[node] = next;
+    }
+
+    void setFirstStatement(int node) {
+        firstStatement = node;
+    }
+
+    /** Libera la capacidad sobrante una vez que no se van a agregar más nodos. */
+    void trimToSize() {
+        if (size == kinds.length) return;
+        kinds = Arrays.copyOf(kinds, size);
+        tokenIndexes = Arrays.copyOf(tokenIndexes, size);
+        firsts = Arrays.copyOf(firsts, size);
+        seconds = Arrays.copyOf(seconds, size);
+        thirds = Arrays.copyOf(thirds, size);
+        nexts = Arrays.copyOf(nexts, size);
+    }
+
+    // Declaración a la que se resolvió un nombre (VAR, ASSIGN, READ y VARIABLE); la completa SemanticAnalyzer
+    void resolve(int node, int depth, int slot) {
+        seconds[node] = depth;
+        thirds[node] = slot;
+    }
+
+    // ==================== CONSULTA ==================== //
+
+    public TokenSource getTokens() {
+        return tokens;
+    }
+
+    /** Cantidad de nodos. */
+    public int size() {
+        return size;
+    }
+
+    /** Primera sentencia de nivel superior (-1 si no hay); las demás siguen con next(). */
+    public int firstStatement() {
+        return firstStatement;
+    }
+
+    public Kind kind(int node) {
+        return KINDS[kinds[node]];
+    }
+
+    public int token(int node) {
+        return tokenIndexes[node];
+    }
+
+    public int first(int node) {
+        return firsts[node];
+    }
+
+    public int second(int node) {
+        return seconds[node];
+    }
+
+    public int third(int node) {
+        return thirds[node];
+    }
+
+    public int next(int node) {
+        return nexts[node];
+    }
+
+    /** Lexema del token del nodo (nombre, operador o constante). */
+    public String lexeme(int node) {
+        return tokens.lexeme(tokenIndexes[node]);
+    }
+
+    public int line(int node) {
+        return tokens.line(tokenIndexes[node]);
+    }
+
+    /** Bytes que ocupan los arreglos de nodos (sin contar el TokenBuffer). */
+    public long footprint() {
+        return kinds.length + 5L * Integer.BYTES * kinds.length;
+    }
+
+    public <R> R accept(int node, Visitor<R> visitor) {
+        return switch (kind(node)) {
+            case VAR -> visitor.visitVar(node);
+            case EXPRESSION -> visitor.visitExpression(node);
+            case ASSIGN -> visitor.visitAssign(node);
+            case READ -> visitor.visitRead(node);
+            case WRITE -> visitor.visitWrite(node);
+            case BLOCK -> visitor.visitBlock(node);
+            case IF -> visitor.visitIf(node);
+            case WHILE -> visitor.visitWhile(node);
+            case BREAK -> visitor.visitBreak(node);
+            case BINARY -> visitor.visitBinary(node);
+            case LITERAL -> visitor.visitLiteral(node);
+            case UNARY -> visitor.visitUnary(node);
+            case VARIABLE -> visitor.visitVariable(node);
+            case GROUPING -> visitor.visitGrouping(node);
+        };
+    }
+
+    // ==================== CONVERSIÓN AL ÁRBOL DE OBJETOS ==================== //
+
+    /**
+     * Sentencias de nivel superior como árbol de objetos Stmt/Expr, para los pases que todavía no recorren el
+     * AST plano (optimizadores, intérprete, backends). Conserva la profundidad y el slot ya resueltos.
+     */
+    public List<Stmt> toStatements() {
+        return toList(firstStatement);
+    }
+
+    private List<Stmt> toList(int node) {
+        List<Stmt> list = new ArrayList<>();
+        for (int n = node; n >= 0; n = nexts[n]) list.add(toStmt(n));
+        return list;
+    }
+
+    private Stmt toStmt(int node) {
+        return switch (kind(node)) {
+            case VAR -> {
+                Stmt.Var var = new Stmt.Var(tokens.token(firsts[node]), tokens.token(tokenIndexes[node]));
+                var.depth = seconds[node];
+                var.slot = thirds[node];
+                yield var;
+            }
+            case ASSIGN -> {
+                Stmt.Assign assign = new Stmt.Assign(tokens.token(tokenIndexes[node]), tokens.token(tokenIndexes[node] + 1),
+                        toExpr(firsts[node]));
+                assign.depth = seconds[node];
+                assign.slot = thirds[node];
+                yield assign;
+            }
+            case READ -> {
+                Stmt.Read read = new Stmt.Read(tokens.token(tokenIndexes[node]));
+                read.depth = seconds[node];
+                read.slot = thirds[node];
+                yield read;
+            }
+            case EXPRESSION -> new Stmt.Expression(toExpr(firsts[node]));
+            case WRITE -> new Stmt.Write(toExpr(firsts[node]));
+            case BLOCK -> new Stmt.Block(toList(firsts[node]), seconds[node] != 0);
+            case IF -> new Stmt.If(toExpr(firsts[node]), toStmt(seconds[node]), thirds[node] < 0 ? null : toStmt(thirds[node]));
+            case WHILE -> new Stmt.While(toExpr(firsts[node]), toStmt(seconds[node]));
+            case BREAK -> new Stmt.Break(tokens.token(tokenIndexes[node]));
+            default -> throw new IllegalStateException("El nodo " + node + " no es una sentencia: " + kind(node));
+        };
+    }
+
+    private Expr toExpr(int node) {
+        return switch (kind(node)) {
+            case BINARY -> new Expr.Binary(toExpr(firsts[node]), tokens.token(tokenIndexes[node]), toExpr(seconds[node]));
+            case UNARY -> new Expr.Unary(tokens.token(tokenIndexes[node]), toExpr(firsts[node]));
+            case GROUPING -> new Expr.Grouping(toExpr(firsts[node]));
+            case LITERAL -> new Expr.Literal(literal(node));
+            case VARIABLE -> {
+                Expr.Variable variable = new Expr.Variable(tokens.token(tokenIndexes[node]));
+                variable.depth = seconds[node];
+                variable.slot = thirds[node];
+                yield variable;
+            }
+            default -> throw new IllegalStateException("El nodo " + node + " no es una expresión: " + kind(node));
+        };
+    }
+
+    /** Valor de un LITERAL, como en Expr.Literal (Integer, Double, Boolean o String). */
+    public Object literal(int node) {
+        String text = lexeme(node);
+        return switch (tokens.type(tokenIndexes[node])) {
+            case INTEGER_CONST -> Integer.parseInt(text);
+            case REAL_CONST -> Double.parseDouble(text);
+            case BOOLEAN_CONST -> Boolean.parseBoolean(text);
+            default -> text;
+        };
+    }
+}
@@ -0,0 +1,97 @@
+//Numeración global de valores: recorre el árbol de dominadores y reemplaza cada instrucción que calcula lo
+//mismo que otra que la domina (misma operación, tipo, constante y argumentos) por esa otra. Las tablas son
+//por ámbito del árbol: lo que se numera en una rama del if no se ve en la otra. read y write no se numeran;
+//dos divisiones enteras iguales sí, porque si la primera no falló la segunda tampoco puede fallar.
+
+package minilang;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GlobalValueNumbering implements IrPass {
+
+    // Lo que identifica el valor calculado por una instrucción. block solo cuenta para los phi.
+    private record Key(Ir.Op op, Type type, Object constant, List<Integer> args, int block) {}
+
+    // Entrada (o salida, con la cantidad de claves que había al entrar) de un bloque en el recorrido
+    private record Visit(Ir.Block block, boolean exit, int mark) {}
+
+    @Override
+    public String name() {
+        return "Numeración global de valores";
+    }
+
+    @Override
+    public boolean run(Ir.Function function) {
+        function.computeDominators();
+        Ir.Instr[] replacement = new Ir.Instr[function.valueCount()];
+        Map<Key, Ir.Instr> table = new HashMap<>();
+        List<Key> added = new ArrayList<>();   // claves agregadas, para deshacer al salir de cada subárbol
+        boolean changed = false;
+
+        // Recorrido en preorden del árbol de dominadores sin recursión (el árbol puede ser muy profundo)
+        Deque<Visit> stack = new ArrayDeque<>();
+        stack.push(new Visit(function.entry(), false, 0));
+        while (!stack.isEmpty()) {
+            Visit visit = stack.pop();
+            if (visit.exit()) {
+                while (added.size() > visit.mark()) table.remove(added.remove(added.size() - 1));
+                continue;
+            }
+            Ir.Block b = visit.block();
+            stack.push(new Visit(b, true, added.size()));
+            for (Ir.Block child : b.dominated) stack.push(new Visit(child, false, 0));
+
+            changed |= number(b.phis, b, table, added, replacement);
+            changed |= number(b.instrs, b, table, added, replacement);
+        }
+
+        if (changed) {
+            function.replaceUses(replacement);
+            for (Ir.Block b : function.blocks()) {
+                b.phis.removeIf(phi -> replacement[phi.id] != null);
+                b.instrs.removeIf(instr -> replacement[instr.id] != null);
+            }
+        }
+        return changed;
+    }
+
+    private static boolean number(List<Ir.Instr> instrs, Ir.Block block, Map<Key, Ir.Instr> table, List<Key> added,
+                                  Ir.Instr[] replacement) {
+        boolean changed = false;
+        for (Ir.Instr instr : instrs) {
+            if (instr.op == Ir.Op.READ || instr.op == Ir.Op.WRITE || instr.op == Ir.Op.COPY) continue;
+            Key key = key(instr, block, replacement);
+            Ir.Instr leader = table.get(key);
+            if (leader != null) {
+                replacement[instr.id] = leader;
+                changed = true;
+            } else {
+                table.put(key, instr);
+                added.add(key);
+            }
+        }
+        return changed;
+    }
+
+    private static Key key(Ir.Instr instr, Ir.Block block, Ir.Instr[] replacement) {
+        Integer[] args = new Integer[instr.args.length];
+        for (int i = 0; i < args.length; i++) args[i] = resolve(instr.args[i], replacement).id;
+        if (instr.op.isCommutative() && args[0] > args[1]) {
+            Integer t = args[0];
+            args[0] = args[1];
+            args[1] = t;
+        }
+        return new Key(instr.op, instr.type, instr.constant, Arrays.asList(args), instr.op == Ir.Op.PHI ? block.id : -1);
+    }
+
+    private static Ir.Instr resolve(Ir.Instr value, Ir.Instr[] replacement) {
+        while (replacement[value.id] != null) value = replacement[value.id];
+        return value;
+    }
+}
@@ -0,0 +1,582 @@
+//Documento para integración con editores: guarda el texto, los tokens y las sentencias de nivel superior, y ante
+//cada edición vuelve a analizar solo la zona dañada, reutilizando los tokens y los Stmt que no cambiaron.
+//
+//Texto y tokens se guardan en buffers con hueco (gap buffers) ubicados en el punto de la última edición. Después
+//del hueco las posiciones y las líneas se guardan relativas al final del texto, así que una edición no obliga a
+//recorrer lo que viene después: el costo depende de la zona dañada y de cuánto se movió el punto de edición.
+
+package minilang;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class IncrementalDocument {
+    private static final int INITIAL_WINDOW = 256; // caracteres o tokens que se miran más allá de la edición
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final NamePool names = new NamePool();
+
+    // ---- Texto: el hueco ocupa [gapStart, gapEnd) ----
+    private char[] text = new char[16];
+    private int gapStart = 0;
+    private int gapEnd = 16;
+    private int lineCount = 1;
+
+    // ---- Tokens (sin EOF): rango consumido [from, to), línea y columna; hueco en [tokenGapStart, tokenGapEnd) ----
+    // Después del hueco from/to se guardan restando la longitud del texto, y line restando lineCount
+    private byte[] types = new byte[16];
+    private int[] froms = new int[16];
+    private int[] tos = new int[16];
+    private int[] lines = new int[16];
+    private int[] columns = new int[16];
+    private int tokenGapStart = 0;
+    private int tokenGapEnd = 16;
+
+    // EOF y error léxico (siempre están al final del texto): líneas relativas a lineCount
+    private int eofLine = 0;
+    private int eofColumn = 1;
+    private LexError lexError;
+
+    // ---- Sentencias de nivel superior; hueco en [entryGapStart, entryGapEnd). Después del hueco los índices de
+    // token se guardan restando la cantidad de tokens ----
+    private Entry[] entries = new Entry[16];
+    private int entryGapStart = 0;
+    private int entryGapEnd = 16;
+
+    private int relexedTokens;
+    private int reparsedStatements;
+
+    private static final class Entry {
+        int first;                  // primer token de la sentencia
+        int end;                    // token siguiente al último consumido (el parser pudo mirarlo)
+        Stmt stmt;                  // null si la sentencia tuvo errores
+        List<SyntaxError> errors;
+        int builtLine;              // línea del primer token cuando se crearon stmt y errors
+
+        Entry(int first, int end, Stmt stmt, List<SyntaxError> errors, int builtLine) {
+            this.first = first;
+            this.end = end;
+            this.stmt = stmt;
+            this.errors = errors;
+            this.builtLine = builtLine;
+        }
+    }
+
+    public IncrementalDocument(String source) {
+        edit(0, 0, source);
+    }
+
+    /** Reemplaza removedLength caracteres desde offset por inserted y actualiza tokens y sentencias. */
+    public void edit(int offset, int removedLength, String inserted) {
+        int length = textLength();
+        if (offset < 0 || removedLength < 0 || offset + removedLength > length) {
+            throw new IndexOutOfBoundsException("Edición fuera del texto: " + offset + "+" + removedLength + " de " + length);
+        }
+
+        // Se vuelve a analizar desde el token anterior al primero que llega a la edición (ese no cambia, y se
+        // conoce el estado del lexer en su comienzo)
+        int damaged = firstTokenReaching(offset);
+        int restartToken = damaged == 0 ? 0 : damaged - 1;
+        int restart = damaged == 0 ? 0 : from(restartToken);
+        int restartLine = damaged == 0 ? 1 : startLine(restartToken);
+        int restartColumn = damaged == 0 ? 1 : columns[physical(restartToken)];
+
+        // Primera sentencia que miró algún token desde restartToken
+        int firstEntry = firstEntryReaching(restartToken);
+        int reparseFrom = firstEntry < entryCount() ? entryFirst(firstEntry) : 0;
+
+        moveEntryGap(firstEntry);
+        moveTokenGap(restartToken);
+        replaceText(offset, removedLength, inserted);
+
+        relex(restartToken, restart, restartLine, restartColumn, offset + inserted.length());
+        reparse(firstEntry, reparseFrom, restartToken + relexedTokens);
+    }
+
+    public String getText() {
+        return substring(0, textLength());
+    }
+
+    /** Tokens del documento, iguales a los de Lexer.tokenize() sobre getText(). */
+    public List<Token> getTokens() {
+        int count = tokenCount();
+        List<Token> result = new ArrayList<>(count + 1);
+        for (int i = 0; i < count; i++) {
+            result.add(new Token(type(i), lexeme(i), line(i), columns[physical(i)]));
+        }
+        result.add(new Token(TokenType.EOF, "", eofLine + lineCount, eofColumn));
+        return result;
+    }
+
+    public List<LexError> getLexErrors() {
+        if (lexError == null) return List.of();
+        return List.of(new LexError(lexError.getLine() + lineCount, lexError.getColumn(), lexError.getMessage()));
+    }
+
+    /**
+     * Sentencias de nivel superior, iguales a las de Parser.parse(). Las que la edición no tocó (ni cambiaron de
+     * línea) son las mismas instancias que antes.
+     */
+    public List<Stmt> getStatements() {
+        List<Stmt> result = new ArrayList<>(entryCount());
+        for (int i = 0; i < entryCount(); i++) {
+            Entry entry = relocated(i);
+            if (entry.stmt != null) result.add(entry.stmt);
+        }
+        return result;
+    }
+
+    public List<SyntaxError> getSyntaxErrors() {
+        List<SyntaxError> result = new ArrayList<>();
+        for (int i = 0; i < entryCount(); i++) {
+            result.addAll(relocated(i).errors);
+        }
+        return result;
+    }
+
+    /** Tokens producidos por el último re-análisis léxico. */
+    public int getRelexedTokens() {
+        return relexedTokens;
+    }
+
+    /** Sentencias de nivel superior analizadas de nuevo en la última edición. */
+    public int getReparsedStatements() {
+        return reparsedStatements;
+    }
+
+    // ==================== RE-ANÁLISIS ==================== //
+
+    // Analiza desde restart hasta encontrar un token idéntico a uno viejo (misma posición, tipo, línea y columna)
+    // ubicado después de la edición: desde ahí el resto no cambia. La ventana de texto se duplica si no alcanza.
+    private void relex(int restartToken, int restart, int line, int column, int editEnd) {
+        int length = textLength();
+        int oldCount = tokenCount();
+        for (int window = INITIAL_WINDOW; ; window *= 2) {
+            int windowEnd = (int) Math.min(length, (long) editEnd + window);
+            boolean complete = windowEnd == length;
+            Lexer lexer = new Lexer(substring(restart, windowEnd), names, line, column);
+            TokenBuffer fresh = lexer.tokenizeToBuffer();
+
+            int accepted = 0;
+            int old = restartToken;
+            int sync = -1;
+            for (int i = 0; i < fresh.size() - 1; i++) {
+                TokenType type = fresh.type(i);
+                int from = restart + consumedFrom(type, fresh.start(i));
+                int to = restart + consumedTo(type, fresh.start(i), fresh.end(i));
+                if (!complete && to >= windowEnd) break; // el lexer no vio el carácter que lo termina
+                if (from >= editEnd) {
+                    while (old < oldCount && from(old) < from) old++;
+                    if (old < oldCount && from(old) == from && type(old) == type
+                            && line(old) == fresh.line(i) && columns[physical(old)] == fresh.column(i)) {
+                        sync = old;
+                        break;
+                    }
+                }
+                accepted++;
+            }
+            if (sync < 0 && !complete) continue;
+
+            // Los tokens viejos [restartToken, sync) están justo después del hueco: se descartan y se insertan los nuevos
+            tokenGapEnd += (sync < 0 ? oldCount : sync) - restartToken;
+            ensureTokenGap(accepted);
+            for (int i = 0; i < accepted; i++) {
+                TokenType type = fresh.type(i);
+                int p = tokenGapStart++;
+                types[p] = (byte) type.ordinal();
+                froms[p] = restart + consumedFrom(type, fresh.start(i));
+                tos[p] = restart + consumedTo(type, fresh.start(i), fresh.end(i));
+                lines[p] = fresh.line(i);
+                columns[p] = fresh.column(i);
+            }
+            if (sync < 0) {
+                int eof = fresh.size() - 1;
+                eofLine = fresh.line(eof) - lineCount;
+                eofColumn = fresh.column(eof);
+                lexError = null;
+                for (LexError e : lexer.getErrors()) {
+                    lexError = new LexError(e.getLine() - lineCount, e.getColumn(), e.getMessage());
+                }
+            }
+            relexedTokens = accepted;
+            return;
+        }
+    }
+
+    // Analiza sentencias desde reparseFrom hasta que una termina justo donde empezaba una sentencia vieja
+    // posterior a los tokens dañados: desde ahí las sentencias viejas siguen valiendo.
+    private void reparse(int firstEntry, int reparseFrom, int damagedEnd) {
+        int count = tokenCount();
+        int oldEntries = entryCount();
+        for (int window = INITIAL_WINDOW; ; window *= 2) {
+            int windowTokens = (int) Math.min(count - reparseFrom, (long) damagedEnd - reparseFrom + window);
+            boolean complete = reparseFrom + windowTokens == count;
+            Parser parser = new Parser(tokenWindow(reparseFrom, windowTokens, complete));
+
+            List<Entry> fresh = new ArrayList<>();
+            int old = firstEntry;
+            int sync = -1;
+            boolean exhausted = false;
+            while (parser.hasMore()) {
+                int before = parser.position();
+                int errorsBefore = parser.getErrors().size();
+                Stmt stmt = parser.parseTopLevel();
+                int after = parser.position();
+                if (!complete && after >= windowTokens) { // miró el EOF artificial de la ventana
+                    exhausted = true;
+                    break;
+                }
+                List<SyntaxError> errors = new ArrayList<>(parser.getErrors().subList(errorsBefore, parser.getErrors().size()));
+                fresh.add(new Entry(reparseFrom + before, reparseFrom + after, stmt, errors, line(reparseFrom + before)));
+
+                int end = reparseFrom + after;
+                if (end >= damagedEnd) {
+                    while (old < oldEntries && entryFirst(old) < end) old++;
+                    if (old < oldEntries && entryFirst(old) == end) {
+                        sync = old;
+                        break;
+                    }
+                }
+            }
+            if (exhausted || (sync < 0 && !complete)) continue;
+
+            // Las sentencias viejas [firstEntry, sync) están justo después del hueco
+            int removed = (sync < 0 ? oldEntries : sync) - firstEntry;
+            Arrays.fill(entries, entryGapEnd, entryGapEnd + removed, null);
+            entryGapEnd += removed;
+            ensureEntryGap(fresh.size());
+            for (Entry entry : fresh) {
+                entries[entryGapStart++] = entry;
+            }
+            reparsedStatements = fresh.size();
+            return;
+        }
+    }
+
+    // Tokens [first, first + n) como TokenBuffer para el parser, con un EOF al final (artificial si no es el real)
+    private TokenBuffer tokenWindow(int first, int n, boolean complete) {
+        int base = n > 0 ? from(first) : 0;
+        int limit = n > 0 ? to(first + n - 1) : 0;
+        TokenBuffer buffer = new TokenBuffer(substring(base, limit), names);
+        for (int i = first; i < first + n; i++) {
+            TokenType type = type(i);
+            int from = from(i);
+            buffer.add(type, lexemeStart(type, from) - base, lexemeEnd(type, from, to(i)) - base, line(i), columns[physical(i)]);
+        }
+        if (complete) {
+            buffer.add(TokenType.EOF, limit - base, limit - base, eofLine + lineCount, eofColumn);
+        } else {
+            buffer.add(TokenType.EOF, limit - base, limit - base, line(first + n - 1), 0);
+        }
+        return buffer;
+    }
+
+    // Las sentencias reutilizadas después de una edición que agregó o quitó líneas se corrigen al pedirlas
+    private Entry relocated(int index) {
+        Entry entry = entry(index);
+        int delta = line(entryFirst(index)) - entry.builtLine;
+        if (delta != 0) {
+            Relocator relocator = new Relocator(delta);
+            if (entry.stmt != null) entry.stmt = entry.stmt.accept(relocator);
+            List<SyntaxError> errors = new ArrayList<>(entry.errors.size());
+            for (SyntaxError e : entry.errors) {
+                errors.add(new SyntaxError(e.line + delta, e.column, e.message));
+            }
+            entry.errors = errors;
+            entry.builtLine += delta;
+        }
+        return entry;
+    }
+
+    // ==================== TOKENS ==================== //
+
+    private int tokenCount() {
+        return types.length - (tokenGapEnd - tokenGapStart);
+    }
+
+    private int physical(int index) {
+        return index < tokenGapStart ? index : index + (tokenGapEnd - tokenGapStart);
+    }
+
+    private TokenType type(int index) {
+        return TYPES[types[physical(index)]];
+    }
+
+    private int from(int index) {
+        return index < tokenGapStart ? froms[index] : froms[physical(index)] + textLength();
+    }
+
+    private int to(int index) {
+        return index < tokenGapStart ? tos[index] : tos[physical(index)] + textLength();
+    }
+
+    private int line(int index) {
+        return index < tokenGapStart ? lines[index] : lines[physical(index)] + lineCount;
+    }
+
+    // Línea en la que estaba el lexer al empezar el token (en las cadenas, line es la del cierre)
+    private int startLine(int index) {
+        int line = line(index);
+        if (type(index) == TokenType.STRING_CONST) {
+            for (int pos = from(index) + 1; pos < to(index) - 1; pos++) {
+                if (charAt(pos) == '\n') line--;
+            }
+        }
+        return line;
+    }
+
+    private String lexeme(int index) {
+        TokenType type = type(index);
+        return substring(lexemeStart(type, from(index)), lexemeEnd(type, from(index), to(index)));
+    }
+
+    // Rango consumido por el lexer a partir del rango del lexema (el lexema de un símbolo es solo su primer
+    // carácter y el de una cadena no incluye las comillas)
+    private static int consumedFrom(TokenType type, int lexemeStart) {
+        return type == TokenType.STRING_CONST ? lexemeStart - 1 : lexemeStart;
+    }
+
+    private static int consumedTo(TokenType type, int lexemeStart, int lexemeEnd) {
+        return switch (type) {
+            case STRING_CONST -> lexemeEnd + 1;
+            case GREATER_EQUAL, LESS_EQUAL, EQUAL, NOT_EQUAL -> lexemeStart + 2;
+            default -> lexemeEnd;
+        };
+    }
+
+    private static int lexemeStart(TokenType type, int from) {
+        return type == TokenType.STRING_CONST ? from + 1 : from;
+    }
+
+    private static int lexemeEnd(TokenType type, int from, int to) {
+        return switch (type) {
+            case STRING_CONST -> to - 1;
+            case GREATER_EQUAL, LESS_EQUAL, EQUAL, NOT_EQUAL -> from + 1;
+            default -> to;
+        };
+    }
+
+    // Primer token cuyo rango consumido llega hasta offset (o lo toca); tokenCount() si no hay
+    private int firstTokenReaching(int offset) {
+        int low = 0;
+        int high = tokenCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (to(mid) >= offset) high = mid;
+            else low = mid + 1;
+        }
+        return low;
+    }
+
+    private void moveTokenGap(int index) {
+        int length = textLength();
+        while (tokenGapStart > index) {
+            tokenGapStart--;
+            tokenGapEnd--;
+            moveToken(tokenGapStart, tokenGapEnd, -length, -lineCount);
+        }
+        while (tokenGapStart < index) {
+            moveToken(tokenGapEnd, tokenGapStart, length, lineCount);
+            tokenGapStart++;
+            tokenGapEnd++;
+        }
+    }
+
+    private void moveToken(int source, int target, int offsetShift, int lineShift) {
+        types[target] = types[source];
+        froms[target] = froms[source] + offsetShift;
+        tos[target] = tos[source] + offsetShift;
+        lines[target] = lines[source] + lineShift;
+        columns[target] = columns[source];
+    }
+
+    private void ensureTokenGap(int needed) {
+        int gap = tokenGapEnd - tokenGapStart;
+        if (gap >= needed) return;
+        int capacity = Math.max(types.length * 2, types.length + needed - gap);
+        int after = types.length - tokenGapEnd;
+        int newGapEnd = capacity - after;
+        types = grow(types, capacity, newGapEnd);
+        froms = grow(froms, capacity, newGapEnd);
+        tos = grow(tos, capacity, newGapEnd);
+        lines = grow(lines, capacity, newGapEnd);
+        columns = grow(columns, capacity, newGapEnd);
+        tokenGapEnd = newGapEnd;
+    }
+
+    private byte[] grow(byte[] array, int capacity, int newGapEnd) {
+        byte[] bigger = new byte[capacity];
+        System.arraycopy(array, 0, bigger, 0, tokenGapStart);
+        System.arraycopy(array, tokenGapEnd, bigger, newGapEnd, array.length - tokenGapEnd);
+        return bigger;
+    }
+
+    private int[] grow(int[] array, int capacity, int newGapEnd) {
+        int[] bigger = new int[capacity];
+        System.arraycopy(array, 0, bigger, 0, tokenGapStart);
+        System.arraycopy(array, tokenGapEnd, bigger, newGapEnd, array.length - tokenGapEnd);
+        return bigger;
+    }
+
+    // ==================== SENTENCIAS ==================== //
+
+    private int entryCount() {
+        return entries.length - (entryGapEnd - entryGapStart);
+    }
+
+    private Entry entry(int index) {
+        return entries[index < entryGapStart ? index : index + (entryGapEnd - entryGapStart)];
+    }
+
+    private int entryFirst(int index) {
+        return index < entryGapStart ? entry(index).first : entry(index).first + tokenCount();
+    }
+
+    private int entryEnd(int index) {
+        return index < entryGapStart ? entry(index).end : entry(index).end + tokenCount();
+    }
+
+    // Primera sentencia cuyo último token mirado llega a token; entryCount() si no hay
+    private int firstEntryReaching(int token) {
+        int low = 0;
+        int high = entryCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entryEnd(mid) >= token) high = mid;
+            else low = mid + 1;
+        }
+        return low;
+    }
+
+    private void moveEntryGap(int index) {
+        int count = tokenCount();
+        while (entryGapStart > index) {
+            Entry entry = entries[--entryGapStart];
+            entries[entryGapStart] = null;
+            entry.first -= count;
+            entry.end -= count;
+            entries[--entryGapEnd] = entry;
+        }
+        while (entryGapStart < index) {
+            Entry entry = entries[entryGapEnd];
+            entries[entryGapEnd++] = null;
+            entry.first += count;
+            entry.end += count;
+            entries[entryGapStart++] = entry;
+        }
+    }
+
+    private void ensureEntryGap(int needed) {
+        int gap = entryGapEnd - entryGapStart;
+        if (gap >= needed) return;
+        int capacity = Math.max(entries.length * 2, entries.length + needed - gap);
+        int after = entries.length - entryGapEnd;
+        Entry[] bigger = new Entry[capacity];
+        System.arraycopy(entries, 0, bigger, 0, entryGapStart);
+        System.arraycopy(entries, entryGapEnd, bigger, capacity - after, after);
+        entries = bigger;
+        entryGapEnd = capacity - after;
+    }
+
+    // ==================== TEXTO ==================== //
+
+    private int textLength() {
+        return text.length - (gapEnd - gapStart);
+    }
+
+    private char charAt(int pos) {
+        return pos < gapStart ? text[pos] : text[pos + (gapEnd - gapStart)];
+    }
+
+    private String substring(int from, int to) {
+        char[] chars = new char[to - from];
+        int beforeGap = Math.min(to, gapStart);
+        if (from < beforeGap) {
+            System.arraycopy(text, from, chars, 0, beforeGap - from);
+        }
+        int afterGap = Math.max(from, gapStart);
+        if (afterGap < to) {
+            System.arraycopy(text, afterGap + (gapEnd - gapStart), chars, afterGap - from, to - afterGap);
+        }
+        return new String(chars);
+    }
+
+    private void replaceText(int offset, int removedLength, String inserted) {
+        // Mover el hueco hasta offset
+        if (offset < gapStart) {
+            int n = gapStart - offset;
+            System.arraycopy(text, offset, text, gapEnd - n, n);
+            gapStart -= n;
+            gapEnd -= n;
+        } else if (offset > gapStart) {
+            int n = offset - gapStart;
+            System.arraycopy(text, gapEnd, text, gapStart, n);
+            gapStart += n;
+            gapEnd += n;
+        }
+
+        for (int i = gapEnd; i < gapEnd + removedLength; i++) {
+            if (text[i] == '\n') lineCount--;
+        }
+        gapEnd += removedLength;
+
+        int n = inserted.length();
+        if (gapEnd - gapStart < n) {
+            int capacity = Math.max(text.length * 2, textLength() + n + 16);
+            char[] bigger = new char[capacity];
+            int after = text.length - gapEnd;
+            System.arraycopy(text, 0, bigger, 0, gapStart);
+            System.arraycopy(text, gapEnd, bigger, capacity - after, after);
+            text = bigger;
+            gapEnd = capacity - after;
+        }
+        inserted.getChars(0, n, text, gapStart);
+        gapStart += n;
+        for (int i = 0; i < n; i++) {
+            if (inserted.charAt(i) == '\n') lineCount++;
+        }
+    }
+
+    // ==================== REUBICACIÓN DE LÍNEAS ==================== //
+
+    // Copia un subárbol sumando delta a la línea de todos sus tokens
+    private static final class Relocator implements Stmt.Visitor<Stmt>, Expr.Visitor<Expr> {
+        private final int delta;
+
+        Relocator(int delta) {
+            this.delta = delta;
+        }
+
+        private Token move(Token token) {
+            return new Token(token.type, token.lexeme, token.line + delta, token.column);
+        }
+
+        @Override public Stmt visitVarStmt(Stmt.Var stmt) { return new Stmt.Var(move(stmt.typeToken), move(stmt.name)); }
+        @Override public Stmt visitExpressionStmt(Stmt.Expression stmt) { return new Stmt.Expression(stmt.expression.accept(this)); }
+        @Override public Stmt visitAssignStmt(Stmt.Assign stmt) { return new Stmt.Assign(move(stmt.name), move(stmt.operator), stmt.value.accept(this)); }
+        @Override public Stmt visitReadStmt(Stmt.Read stmt) { return new Stmt.Read(move(stmt.name)); }
+        @Override public Stmt visitWriteStmt(Stmt.Write stmt) { return new Stmt.Write(stmt.expression.accept(this)); }
+        @Override public Stmt visitBreakStmt(Stmt.Break stmt) { return new Stmt.Break(move(stmt.keyword)); }
+        @Override public Stmt visitWhileStmt(Stmt.While stmt) { return new Stmt.While(stmt.condition.accept(this), stmt.body.accept(this)); }
+
+        @Override
+        public Stmt visitBlockStmt(Stmt.Block stmt) {
+            List<Stmt> statements = new ArrayList<>(stmt.statements.size());
+            for (Stmt s : stmt.statements) statements.add(s.accept(this));
+            return new Stmt.Block(statements, stmt.opensScope);
+        }
+
+        @Override
+        public Stmt visitIfStmt(Stmt.If stmt) {
+            Stmt elseBranch = stmt.elseBranch != null ? stmt.elseBranch.accept(this) : null;
+            return new Stmt.If(stmt.condition.accept(this), stmt.thenBranch.accept(this), elseBranch);
+        }
+
+        @Override public Expr visitBinaryExpr(Expr.Binary expr) { return new Expr.Binary(expr.left.accept(this), move(expr.operator), expr.right.accept(this)); }
+        @Override public Expr visitLiteralExpr(Expr.Literal expr) { return expr; }
+        @Override public Expr visitUnaryExpr(Expr.Unary expr) { return new Expr.Unary(move(expr.operator), expr.right.accept(this)); }
+        @Override public Expr visitVariableExpr(Expr.Variable expr) { return new Expr.Variable(move(expr.name)); }
+        @Override public Expr visitGroupingExpr(Expr.Grouping expr) { return new Expr.Grouping(expr.expression.accept(this)); }
+    }
+}
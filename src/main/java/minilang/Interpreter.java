@@ -0,0 +1,332 @@
+//Intérprete que recorre el AST ya verificado y ejecuta el programa. Los valores long/double viven en arreglos primitivos.
+
+package minilang;
+
+import java.util.List;
+
+public class Interpreter implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
+
+    // Clase del valor que dejó la última expresión evaluada
+    private static final int LONG = 0;
+    private static final int DOUBLE = 1;
+    private static final int STRING = 2;
+
+    private final ProgramIO io;
+
+    // Cada variable usa la posición symbols.index(depth, slot) de longs[] o doubles[] según su tipo.
+    // Bloques hermanos comparten posiciones, por eso el tipo se actualiza al ejecutar cada declaración.
+    private final SymbolTable symbols;
+    private final boolean[] doubleVars;
+    private final long[] longs;
+    private final double[] doubles;
+
+    // "Registro" de resultado: evita devolver valores en cajas (Long/Double)
+    private int kind;
+    private long longValue;
+    private double doubleValue;
+    private String stringValue;
+
+    private boolean breaking = false;  // se ejecutó un break y hay que salir del while actual
+    private long executed = 0;         // sentencias ejecutadas
+
+    public Interpreter(SymbolTable symbols, ProgramIO io) {
+        this.io = io;
+        this.symbols = symbols;
+
+        int size = symbols.storageSize();
+        this.doubleVars = new boolean[size];
+        this.longs = new long[size];
+        this.doubles = new double[size];
+    }
+
+    public void interpret(List<Stmt> statements) {
+        for (Stmt stmt : statements) {
+            stmt.accept(this);
+        }
+        io.flush();
+    }
+
+    /** Cantidad de sentencias ejecutadas (sin contar los bloques). */
+    public long getExecutedStatements() {
+        return executed;
+    }
+
+    // ======================
+    // VISITORS PARA STMTs
+    // ======================
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        executed++;
+        int slot = symbols.index(stmt.depth, stmt.slot);
+        doubleVars[slot] = stmt.typeToken.type == TokenType.DOUBLE;
+        if (doubleVars[slot]) {
+            doubles[slot] = 0.0;
+        } else {
+            longs[slot] = 0L;
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        executed++;
+        stmt.expression.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitAssignStmt(Stmt.Assign stmt) {
+        executed++;
+        String name = stmt.name.lexeme;
+        int slot = symbols.index(stmt.depth, stmt.slot);
+        boolean isDouble = doubleVars[slot];
+
+        stmt.value.accept(this);
+        if (kind == STRING) {
+            throw new RuntimeError(stmt.name.line, "No se puede asignar una cadena a '" + name + "'.");
+        }
+
+        TokenType op = stmt.operator.type;
+        if (isDouble) {
+            double value = kind == DOUBLE ? doubleValue : longValue;
+            doubles[slot] = switch (op) {
+                case PLUS_ASSIGN -> doubles[slot] + value;
+                case MINUS_ASSIGN -> doubles[slot] - value;
+                case MULT_ASSIGN -> doubles[slot] * value;
+                case DIV_ASSIGN -> doubles[slot] / value;
+                default -> value;
+            };
+        } else {
+            long value = kind == DOUBLE ? (long) doubleValue : longValue;
+            longs[slot] = switch (op) {
+                case PLUS_ASSIGN -> longs[slot] + value;
+                case MINUS_ASSIGN -> longs[slot] - value;
+                case MULT_ASSIGN -> longs[slot] * value;
+                case DIV_ASSIGN -> ProgramIO.divide(longs[slot], value, stmt.operator.line);
+                default -> value;
+            };
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitReadStmt(Stmt.Read stmt) {
+        executed++;
+        String name = stmt.name.lexeme;
+        int slot = symbols.index(stmt.depth, stmt.slot);
+        if (doubleVars[slot]) {
+            doubles[slot] = io.readDouble(stmt.name.line, name);
+        } else {
+            longs[slot] = io.readLong(stmt.name.line, name);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitWriteStmt(Stmt.Write stmt) {
+        executed++;
+        stmt.expression.accept(this);
+        switch (kind) {
+            case LONG -> io.writeLong(longValue);
+            case DOUBLE -> io.writeDouble(doubleValue);
+            default -> io.writeString(stringValue);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        for (Stmt s : stmt.statements) {
+            s.accept(this);
+            if (breaking) return null;
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        executed++;
+        if (isTrue(stmt.condition)) {
+            stmt.thenBranch.accept(this);
+        } else if (stmt.elseBranch != null) {
+            stmt.elseBranch.accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        executed++;
+        while (isTrue(stmt.condition)) {
+            stmt.body.accept(this);
+            if (breaking) {
+                breaking = false;
+                break;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitBreakStmt(Stmt.Break stmt) {
+        executed++;
+        breaking = true;
+        return null;
+    }
+
+    // ======================
+    // VISITORS PARA EXPRs
+    // ======================
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        Token op = expr.operator;
+
+        // Operadores lógicos con cortocircuito
+        if (op.type == TokenType.AND) {
+            setBoolean(isTrue(expr.left) && isTrue(expr.right));
+            return null;
+        }
+        if (op.type == TokenType.OR) {
+            setBoolean(isTrue(expr.left) || isTrue(expr.right));
+            return null;
+        }
+
+        expr.left.accept(this);
+        int leftKind = kind;
+        long leftLong = longValue;
+        double leftDouble = doubleValue;
+        String leftString = stringValue;
+
+        expr.right.accept(this);
+
+        if (leftKind == STRING || kind == STRING) {
+            if (leftKind != kind) {
+                throw new RuntimeError(op.line, "Operación incompatible con cadenas: '" + op.lexeme + "'.");
+            }
+            switch (op.type) {
+                case EQUAL -> setBoolean(leftString.equals(stringValue));
+                case NOT_EQUAL -> setBoolean(!leftString.equals(stringValue));
+                case PLUS -> stringValue = leftString + stringValue;
+                default -> throw new RuntimeError(op.line, "Operación no soportada con cadenas: '" + op.lexeme + "'.");
+            }
+            return null;
+        }
+
+        // Promoción a double si alguno de los operandos es double
+        if (leftKind == DOUBLE || kind == DOUBLE) {
+            double a = leftKind == DOUBLE ? leftDouble : leftLong;
+            double b = kind == DOUBLE ? doubleValue : longValue;
+            switch (op.type) {
+                case PLUS -> setDouble(a + b);
+                case MINUS -> setDouble(a - b);
+                case MULTIPLY -> setDouble(a * b);
+                case DIVIDE -> setDouble(a / b);
+                case GREATER -> setBoolean(a > b);
+                case GREATER_EQUAL -> setBoolean(a >= b);
+                case LESS -> setBoolean(a < b);
+                case LESS_EQUAL -> setBoolean(a <= b);
+                case EQUAL -> setBoolean(a == b);
+                case NOT_EQUAL -> setBoolean(a != b);
+                default -> throw new RuntimeError(op.line, "Operador no soportado: '" + op.lexeme + "'.");
+            }
+            return null;
+        }
+
+        long a = leftLong;
+        long b = longValue;
+        switch (op.type) {
+            case PLUS -> longValue = a + b;
+            case MINUS -> longValue = a - b;
+            case MULTIPLY -> longValue = a * b;
+            case DIVIDE -> longValue = ProgramIO.divide(a, b, op.line);
+            case GREATER -> setBoolean(a > b);
+            case GREATER_EQUAL -> setBoolean(a >= b);
+            case LESS -> setBoolean(a < b);
+            case LESS_EQUAL -> setBoolean(a <= b);
+            case EQUAL -> setBoolean(a == b);
+            case NOT_EQUAL -> setBoolean(a != b);
+            default -> throw new RuntimeError(op.line, "Operador no soportado: '" + op.lexeme + "'.");
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        Object value = expr.value;
+        if (value instanceof Integer i) {
+            kind = LONG;
+            longValue = i;
+        } else if (value instanceof Double d) {
+            kind = DOUBLE;
+            doubleValue = d;
+        } else if (value instanceof Boolean b) {
+            setBoolean(b);
+        } else {
+            kind = STRING;
+            stringValue = String.valueOf(value);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        if (expr.operator.type == TokenType.NOT) {
+            setBoolean(!isTrue(expr.right));
+            return null;
+        }
+
+        expr.right.accept(this);
+        switch (kind) {
+            case LONG -> longValue = -longValue;
+            case DOUBLE -> doubleValue = -doubleValue;
+            default -> throw new RuntimeError(expr.operator.line, "No se puede negar una cadena.");
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        int slot = symbols.index(expr.depth, expr.slot);
+        if (doubleVars[slot]) {
+            kind = DOUBLE;
+            doubleValue = doubles[slot];
+        } else {
+            kind = LONG;
+            longValue = longs[slot];
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        expr.expression.accept(this);
+        return null;
+    }
+
+    // ======================
+    // FUNCIONES AUXILIARES
+    // ======================
+
+    // Las condiciones son verdaderas cuando su valor numérico es distinto de cero
+    private boolean isTrue(Expr condition) {
+        condition.accept(this);
+        return switch (kind) {
+            case LONG -> longValue != 0;
+            case DOUBLE -> doubleValue != 0.0;
+            default -> throw new RuntimeError(0, "Una cadena no puede usarse como condición.");
+        };
+    }
+
+    // Los resultados lógicos se representan como long 1/0
+    private void setBoolean(boolean value) {
+        kind = LONG;
+        longValue = value ? 1L : 0L;
+    }
+
+    private void setDouble(double value) {
+        kind = DOUBLE;
+        doubleValue = value;
+    }
+}
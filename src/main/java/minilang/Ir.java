@@ -0,0 +1,390 @@
+//Representación intermedia en forma SSA: el programa es una función con bloques básicos; cada instrucción
+//define un único valor tipado (Type.LONG, DOUBLE, BOOLEAN o STRING) y las variables que se asignan en
+//ramas de if/while se unen con nodos phi al comienzo del bloque donde se juntan los caminos.
+//La construye IrBuilder, la transforman los pases de PassManager y la ejecuta IrInterpreter.
+
+package minilang;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+public final class Ir {
+
+    private Ir() {
+    }
+
+    public enum Op {
+        CONST,              // constant: Long (long y boolean), Double o String
+        PHI,                // un argumento por predecesor del bloque, en el mismo orden
+        COPY,               // x = y (la quita CopyPropagation)
+        ADD, SUB, MUL, DIV, NEG,
+        EQ, NE, LT, LE, GT, GE, NOT,   // comparan según el tipo del primer argumento; resultado boolean (1/0)
+        TO_DOUBLE, TO_LONG,
+        CONCAT, STR_EQ, STR_NE,
+        READ,               // constant: nombre de la variable (para el mensaje de error)
+        WRITE;              // sin valor
+
+        public boolean isCommutative() {
+            return this == ADD || this == MUL || this == EQ || this == NE || this == STR_EQ || this == STR_NE;
+        }
+    }
+
+    public static final class Instr {
+        public final int id;          // índice del valor en los registros de IrInterpreter
+        public final Op op;
+        public final Type type;       // null para WRITE
+        public Instr[] args;
+        public final Object constant;
+        public final String name;     // variable de la que es una definición (phi, copy, read), o null
+        public final int line;        // línea para los errores de ejecución (división, read)
+        public Block block;
+
+        private Instr(int id, Op op, Type type, Object constant, String name, int line, Instr[] args) {
+            this.id = id;
+            this.op = op;
+            this.type = type;
+            this.constant = constant;
+            this.name = name;
+            this.line = line;
+            this.args = args;
+        }
+
+        /** Si la instrucción puede moverse o quitarse: no lee ni escribe y no puede fallar en ejecución. */
+        public boolean isPure() {
+            return switch (op) {
+                case PHI, READ, WRITE -> false;
+                case DIV -> type == Type.DOUBLE || isNonZeroConstant(args[1]);
+                default -> true;
+            };
+        }
+
+        private static boolean isNonZeroConstant(Instr value) {
+            return value.op == Op.CONST && value.constant instanceof Long l && l != 0;
+        }
+
+        @Override
+        public String toString() {
+            return "%" + id;
+        }
+    }
+
+    public static final class Block {
+        private static final Block[] NONE = new Block[0];
+
+        public final int id;
+        public final List<Instr> phis = new ArrayList<>();
+        public final List<Instr> instrs = new ArrayList<>();
+        public final List<Block> preds = new ArrayList<>();
+        public Block[] succs = NONE;   // 0: fin del programa, 1: salto, 2: condición (verdadero, falso)
+        public Instr condition;        // solo con dos sucesores
+        public int statements;         // sentencias del programa que se cuentan al entrar al bloque
+
+        // Calculados por Function.computeDominators()
+        public Block idom;
+        public final List<Block> dominated = new ArrayList<>();
+        int rpo = -1;                  // orden en el recorrido en postorden inverso
+        private int domPre, domPost;   // intervalo en el árbol de dominadores
+
+        private Block(int id) {
+            this.id = id;
+        }
+
+        public int getRpo() {
+            return rpo;
+        }
+
+        @Override
+        public String toString() {
+            return "B" + id;
+        }
+    }
+
+    public static final class Function {
+        private final List<Block> blocks = new ArrayList<>();
+        private int nextBlock = 0;
+        private int nextValue = 0;
+
+        /** El primer bloque creado es la entrada. */
+        public Block entry() {
+            return blocks.get(0);
+        }
+
+        public List<Block> blocks() {
+            return blocks;
+        }
+
+        /** Cantidad de ids de valor usados: tamaño de los registros para ejecutar. */
+        public int valueCount() {
+            return nextValue;
+        }
+
+        /** Instrucciones (incluidos los phi) que quedan en los bloques. */
+        public int instructionCount() {
+            int count = 0;
+            for (Block b : blocks) count += b.phis.size() + b.instrs.size();
+            return count;
+        }
+
+        public Block newBlock() {
+            Block block = new Block(nextBlock++);
+            blocks.add(block);
+            return block;
+        }
+
+        /** Crea una instrucción sin agregarla a ningún bloque. */
+        public Instr newInstr(Op op, Type type, Object constant, String name, int line, Instr... args) {
+            return new Instr(nextValue++, op, type, constant, name, line, args);
+        }
+
+        public void jump(Block from, Block to) {
+            from.succs = new Block[] {to};
+            to.preds.add(from);
+        }
+
+        public void branch(Block from, Instr condition, Block ifTrue, Block ifFalse) {
+            from.succs = new Block[] {ifTrue, ifFalse};
+            from.condition = condition;
+            ifTrue.preds.add(from);
+            ifFalse.preds.add(from);
+        }
+
+        /** Quita los bloques a los que no se llega desde la entrada (y sus argumentos en los phi). */
+        public void removeUnreachable() {
+            boolean[] reachable = new boolean[nextBlock];
+            Deque<Block> pending = new ArrayDeque<>();
+            reachable[entry().id] = true;
+            pending.push(entry());
+            while (!pending.isEmpty()) {
+                for (Block next : pending.pop().succs) {
+                    if (!reachable[next.id]) {
+                        reachable[next.id] = true;
+                        pending.push(next);
+                    }
+                }
+            }
+            blocks.removeIf(b -> !reachable[b.id]);
+            for (Block b : blocks) {
+                for (int i = b.preds.size() - 1; i >= 0; i--) {
+                    if (reachable[b.preds.get(i).id]) continue;
+                    b.preds.remove(i);
+                    for (Instr phi : b.phis) phi.args = remove(phi.args, i);
+                }
+            }
+        }
+
+        private static Instr[] remove(Instr[] args, int index) {
+            Instr[] result = new Instr[args.length - 1];
+            System.arraycopy(args, 0, result, 0, index);
+            System.arraycopy(args, index + 1, result, index, args.length - index - 1);
+            return result;
+        }
+
+        /**
+         * Reemplaza cada uso del valor v por replacement[v.id] (si no es null, siguiendo cadenas) en todos
+         * los argumentos y condiciones. Las instrucciones reemplazadas tienen que quitarse aparte.
+         */
+        public void replaceUses(Instr[] replacement) {
+            for (Block b : blocks) {
+                for (Instr phi : b.phis) replaceArgs(phi, replacement);
+                for (Instr instr : b.instrs) replaceArgs(instr, replacement);
+                if (b.condition != null) b.condition = resolve(b.condition, replacement);
+            }
+        }
+
+        private static void replaceArgs(Instr instr, Instr[] replacement) {
+            Instr[] args = instr.args;
+            for (int i = 0; i < args.length; i++) args[i] = resolve(args[i], replacement);
+        }
+
+        private static Instr resolve(Instr value, Instr[] replacement) {
+            Instr r = replacement[value.id];
+            while (r != null) {
+                value = r;
+                r = replacement[value.id];
+            }
+            return value;
+        }
+
+        // ======================
+        // DOMINADORES
+        // ======================
+
+        /** Orden en postorden inverso, idom y árbol de dominadores (Cooper, Harvey y Kennedy). */
+        public void computeDominators() {
+            List<Block> order = reversePostorder();
+            for (Block b : blocks) {
+                b.idom = null;
+                b.dominated.clear();
+            }
+            Block entry = entry();
+            entry.idom = entry;
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (Block b : order) {
+                    if (b == entry) continue;
+                    Block idom = null;
+                    for (Block p : b.preds) {
+                        if (p.idom == null) continue;
+                        idom = idom == null ? p : intersect(p, idom);
+                    }
+                    if (idom != b.idom) {
+                        b.idom = idom;
+                        changed = true;
+                    }
+                }
+            }
+            for (Block b : order) {
+                if (b != entry) b.idom.dominated.add(b);
+            }
+
+            // Numeración del árbol para responder dominates() en O(1); sin recursión (el árbol puede ser muy profundo)
+            int counter = 0;
+            Deque<Block> stack = new ArrayDeque<>();
+            Deque<Integer> next = new ArrayDeque<>();
+            stack.push(entry);
+            next.push(0);
+            entry.domPre = counter++;
+            while (!stack.isEmpty()) {
+                Block b = stack.peek();
+                int i = next.pop();
+                if (i < b.dominated.size()) {
+                    next.push(i + 1);
+                    Block child = b.dominated.get(i);
+                    child.domPre = counter++;
+                    stack.push(child);
+                    next.push(0);
+                } else {
+                    b.domPost = counter++;
+                    stack.pop();
+                }
+            }
+        }
+
+        private static Block intersect(Block a, Block b) {
+            while (a != b) {
+                while (a.rpo > b.rpo) a = a.idom;
+                while (b.rpo > a.rpo) b = b.idom;
+            }
+            return a;
+        }
+
+        /** a domina a b (todo camino desde la entrada hasta b pasa por a). Requiere computeDominators(). */
+        public boolean dominates(Block a, Block b) {
+            return a.domPre <= b.domPre && b.domPost <= a.domPost;
+        }
+
+        /** Bloques alcanzables en postorden inverso; también numera Block.rpo. */
+        public List<Block> reversePostorder() {
+            List<Block> postorder = new ArrayList<>(blocks.size());
+            boolean[] visited = new boolean[nextBlock];
+            Deque<Block> stack = new ArrayDeque<>();
+            Deque<Integer> next = new ArrayDeque<>();
+            visited[entry().id] = true;
+            stack.push(entry());
+            next.push(0);
+            while (!stack.isEmpty()) {
+                Block b = stack.peek();
+                int i = next.pop();
+                if (i < b.succs.length) {
+                    next.push(i + 1);
+                    Block s = b.succs[i];
+                    if (!visited[s.id]) {
+                        visited[s.id] = true;
+                        stack.push(s);
+                        next.push(0);
+                    }
+                } else {
+                    postorder.add(stack.pop());
+                }
+            }
+            List<Block> order = new ArrayList<>(postorder.size());
+            for (int i = postorder.size() - 1; i >= 0; i--) {
+                Block b = postorder.get(i);
+                b.rpo = order.size();
+                order.add(b);
+            }
+            return order;
+        }
+
+        // ======================
+        // VERIFICACIÓN Y TEXTO
+        // ======================
+
+        /** Comprueba las invariantes de la SSA; lanza IllegalStateException con la primera que no se cumple. */
+        public void verify() {
+            computeDominators();
+            for (Block b : blocks) {
+                for (Block s : b.succs) {
+                    if (!s.preds.contains(b)) fail(b + " no es predecesor de su sucesor " + s);
+                }
+                if ((b.succs.length == 2) != (b.condition != null)) fail(b + ": condición sin dos sucesores");
+                for (Instr phi : b.phis) {
+                    if (phi.block != b) fail(phi + " está en " + b + " pero dice estar en " + phi.block);
+                    if (phi.args.length != b.preds.size()) fail(phi + ": " + phi.args.length + " argumentos para "
+                            + b.preds.size() + " predecesores");
+                    for (int i = 0; i < phi.args.length; i++) {
+                        checkDefined(phi, phi.args[i], b.preds.get(i), Integer.MAX_VALUE);
+                    }
+                }
+                for (int i = 0; i < b.instrs.size(); i++) {
+                    Instr instr = b.instrs.get(i);
+                    if (instr.block != b) fail(instr + " está en " + b + " pero dice estar en " + instr.block);
+                    for (Instr arg : instr.args) checkDefined(instr, arg, b, i);
+                }
+                if (b.condition != null) checkDefined(null, b.condition, b, Integer.MAX_VALUE);
+            }
+        }
+
+        // El valor tiene que estar definido en un bloque que domina al uso (antes, si es el mismo bloque)
+        private void checkDefined(Instr user, Instr value, Block at, int position) {
+            String where = user != null ? user.toString() : "la condición de " + at;
+            if (value.block == null || !blocks.contains(value.block)) fail(where + " usa " + value + ", que no está en ningún bloque");
+            if (!dominates(value.block, at)) fail(where + " usa " + value + " de " + value.block + ", que no domina a " + at);
+            if (value.block == at && value.op != Op.PHI) {
+                int index = at.instrs.indexOf(value);
+                if (index < 0 || index >= position) fail(where + " usa " + value + " antes de definirlo");
+            }
+        }
+
+        private static void fail(String message) {
+            throw new IllegalStateException("IR inválida: " + message);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (Block b : blocks) {
+                sb.append(b);
+                if (!b.preds.isEmpty()) sb.append("  <- ").append(b.preds);
+                if (b.statements > 0) sb.append("  (").append(b.statements).append(" sentencias)");
+                sb.append('\n');
+                for (Instr phi : b.phis) append(sb, phi);
+                for (Instr instr : b.instrs) append(sb, instr);
+                switch (b.succs.length) {
+                    case 0 -> sb.append("    fin\n");
+                    case 1 -> sb.append("    salta ").append(b.succs[0]).append('\n');
+                    default -> sb.append("    si ").append(b.condition).append(" salta ").append(b.succs[0])
+                            .append(" si no ").append(b.succs[1]).append('\n');
+                }
+            }
+            return sb.toString();
+        }
+
+        private static void append(StringBuilder sb, Instr instr) {
+            sb.append("    ");
+            if (instr.type != null) sb.append(instr).append(": ").append(instr.type).append(" = ");
+            sb.append(instr.op.name().toLowerCase(Locale.ROOT));
+            if (instr.op == Op.CONST) {
+                sb.append(' ').append(instr.constant instanceof String s ? '"' + s + '"' : instr.constant);
+            }
+            if (instr.args.length > 0) sb.append(' ').append(Arrays.toString(instr.args));
+            if (instr.name != null) sb.append("  ; ").append(instr.name);
+            sb.append('\n');
+        }
+    }
+}
@@ -0,0 +1,370 @@
+//Construye la representación SSA (Ir) desde el AST verificado, recorriéndolo con los visitors de Stmt y
+//Expr. Las variables se identifican por symbols.index(depth, slot) y se convierten a valores SSA con el
+//método de Braun et al. ("Simple and Efficient Construction of Static Single Assignment Form"): cada
+//bloque recuerda la última definición de cada variable y los phi se crean al leer una variable en un
+//bloque con varios predecesores; en los bloques todavía abiertos (la cabecera de un while mientras se
+//traduce el cuerpo) el phi queda incompleto hasta sellar el bloque.
+
+package minilang;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+public class IrBuilder implements Stmt.Visitor<Void>, Expr.Visitor<Ir.Instr> {
+
+    private final SymbolTable symbols;
+    private final Ir.Function function = new Ir.Function();
+
+    // Tipo y nombre de cada variable según la última declaración traducida (bloques hermanos comparten posición)
+    private final Type[] varTypes;
+    private final String[] varNames;
+
+    private record IncompletePhi(int var, Ir.Instr phi) {}
+
+    // Estado por bloque, indexado por Block.id
+    private final List<Ir.Instr[]> definitions = new ArrayList<>();
+    private final List<List<IncompletePhi>> incompletePhis = new ArrayList<>(); // null si el bloque está sellado
+
+    private final Deque<Ir.Block> loopExits = new ArrayDeque<>(); // destino de break de cada while abierto
+    private Ir.Block current;
+
+    public IrBuilder(SymbolTable symbols) {
+        this.symbols = symbols;
+        int size = symbols.storageSize();
+        this.varTypes = new Type[size];
+        this.varNames = new String[size];
+    }
+
+    public Ir.Function build(List<Stmt> statements) {
+        current = newBlock();
+        seal(current);
+        for (Stmt stmt : statements) {
+            stmt.accept(this);
+        }
+        function.removeUnreachable();
+        return function;
+    }
+
+    // ======================
+    // BLOQUES Y VARIABLES (SSA)
+    // ======================
+
+    private Ir.Block newBlock() {
+        Ir.Block block = function.newBlock();
+        definitions.add(new Ir.Instr[varTypes.length]);
+        incompletePhis.add(new ArrayList<>());
+        return block;
+    }
+
+    private void write(int var, Ir.Block block, Ir.Instr value) {
+        definitions.get(block.id)[var] = value;
+    }
+
+    private Ir.Instr read(int var, Ir.Block block) {
+        Ir.Instr value = definitions.get(block.id)[var];
+        return value != null ? value : readRecursive(var, block);
+    }
+
+    private Ir.Instr readRecursive(int var, Ir.Block block) {
+        Ir.Instr value;
+        List<IncompletePhi> incomplete = incompletePhis.get(block.id);
+        if (incomplete != null) {
+            // Bloque abierto: faltan predecesores, los argumentos se agregan en seal()
+            value = newPhi(var, block);
+            incomplete.add(new IncompletePhi(var, value));
+        } else if (block.preds.size() == 1) {
+            value = read(var, block.preds.get(0));
+        } else if (block.preds.isEmpty()) {
+            // Solo en código inalcanzable (después de un break); el bloque se quita al terminar
+            value = constant(block, zero(varTypes[var]), varTypes[var]);
+        } else {
+            value = newPhi(var, block);
+            write(var, block, value); // antes de leer los predecesores: corta los ciclos
+            addPhiOperands(var, value);
+        }
+        write(var, block, value);
+        return value;
+    }
+
+    private Ir.Instr newPhi(int var, Ir.Block block) {
+        Ir.Instr phi = function.newInstr(Ir.Op.PHI, varTypes[var], null, varNames[var], 0);
+        phi.block = block;
+        block.phis.add(phi);
+        return phi;
+    }
+
+    private void addPhiOperands(int var, Ir.Instr phi) {
+        List<Ir.Block> preds = phi.block.preds;
+        Ir.Instr[] args = new Ir.Instr[preds.size()];
+        for (int i = 0; i < args.length; i++) args[i] = read(var, preds.get(i));
+        phi.args = args;
+    }
+
+    // Todos los predecesores del bloque ya son conocidos
+    private void seal(Ir.Block block) {
+        List<IncompletePhi> incomplete = incompletePhis.get(block.id);
+        incompletePhis.set(block.id, null);
+        for (IncompletePhi p : incomplete) addPhiOperands(p.var(), p.phi());
+    }
+
+    private Ir.Instr emit(Ir.Op op, Type type, Object constant, String name, int line, Ir.Instr... args) {
+        Ir.Instr instr = function.newInstr(op, type, constant, name, line, args);
+        instr.block = current;
+        current.instrs.add(instr);
+        return instr;
+    }
+
+    private Ir.Instr constant(Ir.Block block, Object value, Type type) {
+        Ir.Instr instr = function.newInstr(Ir.Op.CONST, type, value, null, 0);
+        instr.block = block;
+        block.instrs.add(block == current ? block.instrs.size() : 0, instr);
+        return instr;
+    }
+
+    private static Object zero(Type type) {
+        return type == Type.DOUBLE ? (Object) 0.0 : (Object) 0L;
+    }
+
+    // Conversión implícita al tipo de una variable (double -> long trunca, como en el intérprete)
+    private Ir.Instr convert(Ir.Instr value, Type target, int line) {
+        if (target == Type.DOUBLE && value.type != Type.DOUBLE) return emit(Ir.Op.TO_DOUBLE, Type.DOUBLE, null, null, line, value);
+        if (target != Type.DOUBLE && value.type == Type.DOUBLE) return emit(Ir.Op.TO_LONG, Type.LONG, null, null, line, value);
+        return value;
+    }
+
+    private int variable(int depth, int slot) {
+        return symbols.index(depth, slot);
+    }
+
+    // ======================
+    // SENTENCIAS
+    // ======================
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        current.statements++;
+        int var = variable(stmt.depth, stmt.slot);
+        varTypes[var] = Type.of(stmt.typeToken.type);
+        varNames[var] = stmt.name.lexeme;
+        write(var, current, constant(current, zero(varTypes[var]), varTypes[var]));
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        current.statements++;
+        stmt.expression.accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visitAssignStmt(Stmt.Assign stmt) {
+        current.statements++;
+        int var = variable(stmt.depth, stmt.slot);
+        Type type = varTypes[var];
+        int line = stmt.operator.line;
+        Ir.Instr value = convert(stmt.value.accept(this), type, line);
+
+        Ir.Op op = switch (stmt.operator.type) {
+            case PLUS_ASSIGN -> Ir.Op.ADD;
+            case MINUS_ASSIGN -> Ir.Op.SUB;
+            case MULT_ASSIGN -> Ir.Op.MUL;
+            case DIV_ASSIGN -> Ir.Op.DIV;
+            default -> null;
+        };
+        if (op != null) value = emit(op, type, null, null, line, read(var, current), value);
+        write(var, current, emit(Ir.Op.COPY, type, null, stmt.name.lexeme, line, value));
+        return null;
+    }
+
+    @Override
+    public Void visitReadStmt(Stmt.Read stmt) {
+        current.statements++;
+        int var = variable(stmt.depth, stmt.slot);
+        write(var, current, emit(Ir.Op.READ, varTypes[var], stmt.name.lexeme, stmt.name.lexeme, stmt.name.line));
+        return null;
+    }
+
+    @Override
+    public Void visitWriteStmt(Stmt.Write stmt) {
+        current.statements++;
+        emit(Ir.Op.WRITE, null, null, null, 0, stmt.expression.accept(this));
+        return null;
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        for (Stmt s : stmt.statements) {
+            s.accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        current.statements++;
+        Ir.Instr condition = stmt.condition.accept(this);
+        Ir.Block thenBlock = newBlock();
+        Ir.Block merge = newBlock();
+        Ir.Block elseBlock = stmt.elseBranch != null ? newBlock() : merge;
+        function.branch(current, condition, thenBlock, elseBlock);
+
+        seal(thenBlock);
+        current = thenBlock;
+        stmt.thenBranch.accept(this);
+        function.jump(current, merge);
+
+        if (stmt.elseBranch != null) {
+            seal(elseBlock);
+            current = elseBlock;
+            stmt.elseBranch.accept(this);
+            function.jump(current, merge);
+        }
+
+        seal(merge);
+        current = merge;
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        current.statements++;
+        Ir.Block header = newBlock();
+        function.jump(current, header);
+        current = header;
+        Ir.Instr condition = stmt.condition.accept(this);
+
+        Ir.Block body = newBlock();
+        Ir.Block exit = newBlock();
+        function.branch(current, condition, body, exit);
+        seal(body);
+
+        loopExits.push(exit);
+        current = body;
+        stmt.body.accept(this);
+        function.jump(current, header);
+        loopExits.pop();
+
+        seal(header); // ya se conocen todos los saltos de vuelta
+        seal(exit);   // y todos los break
+        current = exit;
+        return null;
+    }
+
+    @Override
+    public Void visitBreakStmt(Stmt.Break stmt) {
+        current.statements++;
+        function.jump(current, loopExits.peek());
+        // Lo que sigue al break en el mismo bloque es inalcanzable
+        current = newBlock();
+        seal(current);
+        return null;
+    }
+
+    // ======================
+    // EXPRESIONES
+    // ======================
+
+    @Override
+    public Ir.Instr visitBinaryExpr(Expr.Binary expr) {
+        TokenType op = expr.operator.type;
+        int line = expr.operator.line;
+        if (op == TokenType.AND || op == TokenType.OR) return logical(expr, op == TokenType.AND);
+
+        Ir.Instr left = expr.left.accept(this);
+        Ir.Instr right = expr.right.accept(this);
+
+        if (left.type == Type.STRING) {
+            return switch (op) {
+                case PLUS -> emit(Ir.Op.CONCAT, Type.STRING, null, null, line, left, right);
+                case EQUAL -> emit(Ir.Op.STR_EQ, Type.BOOLEAN, null, null, line, left, right);
+                default -> emit(Ir.Op.STR_NE, Type.BOOLEAN, null, null, line, left, right);
+            };
+        }
+
+        // Promoción a double si alguno de los operandos es double
+        Type type = left.type == Type.DOUBLE || right.type == Type.DOUBLE ? Type.DOUBLE : Type.LONG;
+        left = convert(left, type, line);
+        right = convert(right, type, line);
+        return switch (op) {
+            case PLUS -> emit(Ir.Op.ADD, type, null, null, line, left, right);
+            case MINUS -> emit(Ir.Op.SUB, type, null, null, line, left, right);
+            case MULTIPLY -> emit(Ir.Op.MUL, type, null, null, line, left, right);
+            case DIVIDE -> emit(Ir.Op.DIV, type, null, null, line, left, right);
+            case GREATER -> emit(Ir.Op.GT, Type.BOOLEAN, null, null, line, left, right);
+            case GREATER_EQUAL -> emit(Ir.Op.GE, Type.BOOLEAN, null, null, line, left, right);
+            case LESS -> emit(Ir.Op.LT, Type.BOOLEAN, null, null, line, left, right);
+            case LESS_EQUAL -> emit(Ir.Op.LE, Type.BOOLEAN, null, null, line, left, right);
+            case EQUAL -> emit(Ir.Op.EQ, Type.BOOLEAN, null, null, line, left, right);
+            case NOT_EQUAL -> emit(Ir.Op.NE, Type.BOOLEAN, null, null, line, left, right);
+            default -> throw new IllegalStateException("Operador no soportado: " + op);
+        };
+    }
+
+    // && y || con cortocircuito: el operando derecho se evalúa en su propio bloque y el resultado es un phi
+    private Ir.Instr logical(Expr.Binary expr, boolean isAnd) {
+        Ir.Instr left = expr.left.accept(this);
+        Ir.Block leftEnd = current;
+        Ir.Block rightBlock = newBlock();
+        Ir.Block merge = newBlock();
+        if (isAnd) {
+            function.branch(current, left, rightBlock, merge);
+        } else {
+            function.branch(current, left, merge, rightBlock);
+        }
+        seal(rightBlock);
+
+        current = rightBlock;
+        Ir.Instr right = truth(expr.right.accept(this), expr.operator.line);
+        Ir.Block rightEnd = current;
+        function.jump(current, merge);
+        seal(merge);
+
+        // El resultado sin evaluar el derecho se calcula en el bloque izquierdo (domina a merge)
+        Ir.Instr shortCircuit = function.newInstr(Ir.Op.CONST, Type.BOOLEAN, isAnd ? 0L : 1L, null, 0);
+        shortCircuit.block = leftEnd;
+        leftEnd.instrs.add(shortCircuit);
+
+        current = merge;
+        Ir.Instr phi = function.newInstr(Ir.Op.PHI, Type.BOOLEAN, null, null, 0);
+        phi.block = merge;
+        phi.args = merge.preds.get(0) == leftEnd ? new Ir.Instr[] {shortCircuit, right} : new Ir.Instr[] {right, shortCircuit};
+        merge.phis.add(phi);
+        return phi;
+    }
+
+    // Valor 1/0 de una condición
+    private Ir.Instr truth(Ir.Instr value, int line) {
+        return emit(Ir.Op.NE, Type.BOOLEAN, null, null, line, value, constant(current, zero(value.type), value.type == Type.DOUBLE ? Type.DOUBLE : Type.LONG));
+    }
+
+    @Override
+    public Ir.Instr visitLiteralExpr(Expr.Literal expr) {
+        return switch (expr.value) {
+            case Integer i -> constant(current, (long) i, Type.LONG);
+            case Double d -> constant(current, d, Type.DOUBLE);
+            case Boolean b -> constant(current, b ? 1L : 0L, Type.BOOLEAN);
+            default -> constant(current, String.valueOf(expr.value), Type.STRING);
+        };
+    }
+
+    @Override
+    public Ir.Instr visitUnaryExpr(Expr.Unary expr) {
+        Ir.Instr operand = expr.right.accept(this);
+        int line = expr.operator.line;
+        if (expr.operator.type == TokenType.NOT) return emit(Ir.Op.NOT, Type.BOOLEAN, null, null, line, operand);
+        return emit(Ir.Op.NEG, operand.type == Type.DOUBLE ? Type.DOUBLE : Type.LONG, null, null, line, operand);
+    }
+
+    @Override
+    public Ir.Instr visitVariableExpr(Expr.Variable expr) {
+        return read(variable(expr.depth, expr.slot), current);
+    }
+
+    @Override
+    public Ir.Instr visitGroupingExpr(Expr.Grouping expr) {
+        return expr.expression.accept(this);
+    }
+}
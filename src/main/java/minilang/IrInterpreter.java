@@ -0,0 +1,167 @@
+//Ejecuta la representación SSA (Ir) directamente: cada valor tiene su registro (Instr.id) en el banco de su
+//tipo y los phi de un bloque se copian todos juntos al entrar, según el predecesor desde el que se llegó.
+//Sirve como motor --run=ssa y para comprobar que los pases de PassManager no cambian el resultado.
+
+package minilang;
+
+public class IrInterpreter {
+
+    private final ProgramIO io;
+    private long executed = 0;
+
+    public IrInterpreter(ProgramIO io) {
+        this.io = io;
+    }
+
+    /** Cantidad de sentencias ejecutadas (Block.statements de cada bloque visitado). */
+    public long getExecutedStatements() {
+        return executed;
+    }
+
+    public void run(Ir.Function function) {
+        int size = function.valueCount();
+        long[] longs = new long[size];
+        double[] doubles = new double[size];
+        String[] strings = new String[size];
+
+        // Valores de los phi leídos antes de asignar ninguno (un phi puede usar a otro del mismo bloque)
+        int maxPhis = 0;
+        for (Ir.Block b : function.blocks()) maxPhis = Math.max(maxPhis, b.phis.size());
+        long[] phiLongs = new long[maxPhis];
+        double[] phiDoubles = new double[maxPhis];
+        String[] phiStrings = new String[maxPhis];
+
+        Ir.Block previous = null;
+        Ir.Block block = function.entry();
+        while (true) {
+            executed += block.statements;
+
+            if (!block.phis.isEmpty()) {
+                int from = block.preds.indexOf(previous);
+                for (int i = 0; i < block.phis.size(); i++) {
+                    Ir.Instr arg = block.phis.get(i).args[from];
+                    phiLongs[i] = longs[arg.id];
+                    phiDoubles[i] = doubles[arg.id];
+                    phiStrings[i] = strings[arg.id];
+                }
+                for (int i = 0; i < block.phis.size(); i++) {
+                    int id = block.phis.get(i).id;
+                    longs[id] = phiLongs[i];
+                    doubles[id] = phiDoubles[i];
+                    strings[id] = phiStrings[i];
+                }
+            }
+
+            for (Ir.Instr instr : block.instrs) {
+                execute(instr, longs, doubles, strings);
+            }
+
+            previous = block;
+            switch (block.succs.length) {
+                case 0 -> {
+                    io.flush();
+                    return;
+                }
+                case 1 -> block = block.succs[0];
+                default -> {
+                    Ir.Instr c = block.condition;
+                    boolean value = switch (c.type) {
+                        case DOUBLE -> doubles[c.id] != 0.0;
+                        case STRING -> throw new RuntimeError(0, "Una cadena no puede usarse como condición.");
+                        default -> longs[c.id] != 0;
+                    };
+                    block = block.succs[value ? 0 : 1];
+                }
+            }
+        }
+    }
+
+    private void execute(Ir.Instr instr, long[] longs, double[] doubles, String[] strings) {
+        int d = instr.id;
+        Ir.Instr[] args = instr.args;
+        boolean isDouble = instr.type == Type.DOUBLE;
+        switch (instr.op) {
+            case CONST -> {
+                switch (instr.constant) {
+                    case Long l -> longs[d] = l;
+                    case Double v -> doubles[d] = v;
+                    default -> strings[d] = (String) instr.constant;
+                }
+            }
+            case COPY -> {
+                int a = args[0].id;
+                longs[d] = longs[a];
+                doubles[d] = doubles[a];
+                strings[d] = strings[a];
+            }
+            case ADD -> {
+                if (isDouble) doubles[d] = doubles[args[0].id] + doubles[args[1].id];
+                else longs[d] = longs[args[0].id] + longs[args[1].id];
+            }
+            case SUB -> {
+                if (isDouble) doubles[d] = doubles[args[0].id] - doubles[args[1].id];
+                else longs[d] = longs[args[0].id] - longs[args[1].id];
+            }
+            case MUL -> {
+                if (isDouble) doubles[d] = doubles[args[0].id] * doubles[args[1].id];
+                else longs[d] = longs[args[0].id] * longs[args[1].id];
+            }
+            case DIV -> {
+                if (isDouble) doubles[d] = doubles[args[0].id] / doubles[args[1].id];
+                else longs[d] = ProgramIO.divide(longs[args[0].id], longs[args[1].id], instr.line);
+            }
+            case NEG -> {
+                if (isDouble) doubles[d] = -doubles[args[0].id];
+                else longs[d] = -longs[args[0].id];
+            }
+            case EQ, NE, LT, LE, GT, GE -> longs[d] = compare(instr.op, args[0], args[1], longs, doubles) ? 1L : 0L;
+            case NOT -> {
+                Ir.Instr a = args[0];
+                longs[d] = (a.type == Type.DOUBLE ? doubles[a.id] == 0.0 : longs[a.id] == 0) ? 1L : 0L;
+            }
+            case TO_DOUBLE -> doubles[d] = longs[args[0].id];
+            case TO_LONG -> longs[d] = (long) doubles[args[0].id];
+            case CONCAT -> strings[d] = strings[args[0].id] + strings[args[1].id];
+            case STR_EQ -> longs[d] = strings[args[0].id].equals(strings[args[1].id]) ? 1L : 0L;
+            case STR_NE -> longs[d] = strings[args[0].id].equals(strings[args[1].id]) ? 0L : 1L;
+            case READ -> {
+                if (isDouble) doubles[d] = io.readDouble(instr.line, (String) instr.constant);
+                else longs[d] = io.readLong(instr.line, (String) instr.constant);
+            }
+            case WRITE -> {
+                Ir.Instr a = args[0];
+                switch (a.type) {
+                    case DOUBLE -> io.writeDouble(doubles[a.id]);
+                    case STRING -> io.writeString(strings[a.id]);
+                    default -> io.writeLong(longs[a.id]);
+                }
+            }
+            case PHI -> throw new IllegalStateException("phi fuera de la cabecera del bloque");
+        }
+    }
+
+    private static boolean compare(Ir.Op op, Ir.Instr left, Ir.Instr right, long[] longs, double[] doubles) {
+        if (left.type == Type.DOUBLE) {
+            double a = doubles[left.id];
+            double b = doubles[right.id];
+            return switch (op) {
+                case EQ -> a == b;
+                case NE -> a != b;
+                case LT -> a < b;
+                case LE -> a <= b;
+                case GT -> a > b;
+                default -> a >= b;
+            };
+        }
+        long a = longs[left.id];
+        long b = longs[right.id];
+        return switch (op) {
+            case EQ -> a == b;
+            case NE -> a != b;
+            case LT -> a < b;
+            case LE -> a <= b;
+            case GT -> a > b;
+            default -> a >= b;
+        };
+    }
+}
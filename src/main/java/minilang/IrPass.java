@@ -0,0 +1,13 @@
+//Pase de optimización sobre la representación SSA. Los pases se registran en un PassManager, que los
+//ejecuta en orden y mide el tiempo de cada uno.
+
+package minilang;
+
+public interface IrPass {
+
+    /** Nombre corto para el reporte de PassManager. */
+    String name();
+
+    /** Transforma la función; devuelve true si cambió algo. */
+    boolean run(Ir.Function function);
+}
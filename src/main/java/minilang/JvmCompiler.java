@@ -0,0 +1,474 @@
+//Backend que traduce el AST verificado a bytecode de la JVM (API java.lang.classfile) y lo carga como clase oculta.
+
+package minilang;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.Label;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.constant.ConstantDescs.CD_Object;
+import static java.lang.constant.ConstantDescs.CD_String;
+import static java.lang.constant.ConstantDescs.CD_boolean;
+import static java.lang.constant.ConstantDescs.CD_double;
+import static java.lang.constant.ConstantDescs.CD_int;
+import static java.lang.constant.ConstantDescs.CD_long;
+import static java.lang.constant.ConstantDescs.CD_void;
+import static java.lang.constant.ConstantDescs.INIT_NAME;
+import static java.lang.constant.ConstantDescs.MTD_void;
+
+public class JvmCompiler {
+
+    /** Programa compilado: run() ejecuta el programa y devuelve las sentencias ejecutadas. */
+    public interface Program {
+        long run(ProgramIO io);
+
+        /** Sentencias ejecutadas por la última llamada a run(), también si terminó con un error. */
+        long getExecutedStatements();
+    }
+
+    /**
+     * El programa no entra en un método de la JVM (más de 64 KB de bytecode o de 65535 locales). Quien compila
+     * puede ejecutarlo con otro motor.
+     */
+    public static class TooLargeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TooLargeException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    // Tipos de las expresiones durante la generación
+    private static final int LONG = 0;
+    private static final int DOUBLE = 1;
+    private static final int STRING = 2;
+
+    private static final ClassDesc CD_PROGRAM = ClassDesc.of("minilang.JvmCompiler$Program");
+    private static final ClassDesc CD_PROGRAM_IO = ClassDesc.of("minilang.ProgramIO");
+    private static final ClassDesc CD_GENERATED = ClassDesc.of("minilang.CompiledMiniLang");
+
+    private static final MethodTypeDesc MTD_RUN = MethodTypeDesc.of(CD_long, CD_PROGRAM_IO);
+    private static final MethodTypeDesc MTD_EXECUTED = MethodTypeDesc.of(CD_long);
+    private static final MethodTypeDesc MTD_WRITE_LONG = MethodTypeDesc.of(CD_void, CD_long);
+    private static final MethodTypeDesc MTD_WRITE_DOUBLE = MethodTypeDesc.of(CD_void, CD_double);
+    private static final MethodTypeDesc MTD_WRITE_STRING = MethodTypeDesc.of(CD_void, CD_String);
+    private static final MethodTypeDesc MTD_READ_LONG = MethodTypeDesc.of(CD_long, CD_int, CD_String);
+    private static final MethodTypeDesc MTD_READ_DOUBLE = MethodTypeDesc.of(CD_double, CD_int, CD_String);
+    private static final MethodTypeDesc MTD_DIVIDE = MethodTypeDesc.of(CD_long, CD_long, CD_long, CD_int);
+    private static final MethodTypeDesc MTD_EQUALS = MethodTypeDesc.of(CD_boolean, CD_Object);
+    private static final MethodTypeDesc MTD_CONCAT = MethodTypeDesc.of(CD_String, CD_String);
+
+    // Locales del método run: 0 = this, 1 = io, 2-3 = contador de sentencias, luego las variables
+    private static final int IO_SLOT = 1;
+    private static final int COUNTER_SLOT = 2;
+    private static final int FIRST_VAR_SLOT = 4;
+    private static final int MAX_LOCALS = 65535; // max_locals es un u2 en el formato de clase
+
+    // La variable (depth, slot) usa la posición symbols.index(depth, slot), que tiene una local long y otra
+    // double: bloques hermanos de distinto tipo comparten la posición sin mezclar tipos en una misma local.
+    // El tipo vigente es el de la última declaración traducida.
+    private final SymbolTable symbols;
+    private final boolean[] doubleVars;
+    private final Map<Expr, Integer> exprTypes = new IdentityHashMap<>();
+    private final Deque<Label> loopEnds = new ArrayDeque<>(); // destino de break del while actual
+
+    private CodeBuilder code;
+
+    public JvmCompiler(SymbolTable symbols) {
+        this.symbols = symbols;
+        this.doubleVars = new boolean[symbols.storageSize()];
+    }
+
+    /**
+     * Genera el bytecode del programa completo, todo en el método run(). Lanza TooLargeException si no entra
+     * en un método de la JVM.
+     */
+    public byte[] generate(List<Stmt> statements) {
+        int locals = FIRST_VAR_SLOT + 4 * doubleVars.length;
+        if (locals > MAX_LOCALS) {
+            throw new TooLargeException("El programa usa " + locals + " locales y un método de la JVM admite "
+                    + MAX_LOCALS + ".", null);
+        }
+        try {
+            return build(statements);
+        } catch (IllegalArgumentException e) {
+            // La API rechaza el método si el bytecode supera los 64 KB (u otro límite del formato de clase)
+            throw new TooLargeException("El programa no entra en un método de la JVM: " + e.getMessage(), e);
+        }
+    }
+
+    private byte[] build(List<Stmt> statements) {
+        return ClassFile.of().build(CD_GENERATED, cls -> {
+            cls.withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL);
+            cls.withSuperclass(CD_Object);
+            cls.withInterfaceSymbols(CD_PROGRAM);
+            cls.withField("executed", CD_long, ClassFile.ACC_PRIVATE);
+
+            cls.withMethodBody(INIT_NAME, MTD_void, ClassFile.ACC_PUBLIC, cob -> cob
+                    .aload(0)
+                    .invokespecial(CD_Object, INIT_NAME, MTD_void)
+                    .return_());
+
+            cls.withMethodBody("run", MTD_RUN, ClassFile.ACC_PUBLIC, cob -> {
+                code = cob;
+                // El verificador exige que todas las locales estén inicializadas
+                cob.lconst_0().lstore(COUNTER_SLOT);
+                for (int i = 0; i < doubleVars.length; i++) {
+                    cob.lconst_0().lstore(FIRST_VAR_SLOT + 4 * i);
+                    cob.dconst_0().dstore(FIRST_VAR_SLOT + 4 * i + 2);
+                }
+                // El contador vive en una local; se copia al campo al terminar, también si se lanzó un error
+                Label start = cob.newBoundLabel();
+                for (Stmt stmt : statements) {
+                    statement(stmt);
+                }
+                Label end = cob.newBoundLabel();
+                cob.aload(0).lload(COUNTER_SLOT).putfield(CD_GENERATED, "executed", CD_long);
+                cob.lload(COUNTER_SLOT).lreturn();
+                Label handler = cob.newBoundLabel();
+                cob.aload(0).lload(COUNTER_SLOT).putfield(CD_GENERATED, "executed", CD_long);
+                cob.athrow();
+                cob.exceptionCatchAll(start, end, handler);
+                code = null;
+            });
+
+            cls.withMethodBody("getExecutedStatements", MTD_EXECUTED, ClassFile.ACC_PUBLIC, cob -> cob
+                    .aload(0)
+                    .getfield(CD_GENERATED, "executed", CD_long)
+                    .lreturn());
+        });
+    }
+
+    /** Genera el bytecode y lo carga como clase oculta en este paquete; lanza TooLargeException como generate(). */
+    public Program compile(List<Stmt> statements) {
+        byte[] bytes = generate(statements);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (Program) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("No se pudo cargar el programa compilado: " + e.getMessage(), e);
+        }
+    }
+
+    // ======================
+    // SENTENCIAS
+    // ======================
+
+    private void statement(Stmt stmt) {
+        if (!(stmt instanceof Stmt.Block)) {
+            code.lload(COUNTER_SLOT).lconst_1().ladd().lstore(COUNTER_SLOT);
+        }
+
+        switch (stmt) {
+            case Stmt.Var s -> {
+                int index = symbols.index(s.depth, s.slot);
+                doubleVars[index] = s.typeToken.type == TokenType.DOUBLE;
+                storeZero(index);
+            }
+            case Stmt.Expression s -> {
+                int type = expression(s.expression);
+                if (type == STRING) code.pop();
+                else code.pop2();
+            }
+            case Stmt.Assign s -> assign(s);
+            case Stmt.Read s -> read(s);
+            case Stmt.Write s -> write(s);
+            case Stmt.Block s -> {
+                for (Stmt inner : s.statements) statement(inner);
+            }
+            case Stmt.If s -> ifStatement(s);
+            case Stmt.While s -> whileStatement(s);
+            case Stmt.Break s -> code.goto_(loopEnds.peek());
+            default -> throw new IllegalStateException("Sentencia no soportada: " + stmt);
+        }
+    }
+
+    private void assign(Stmt.Assign stmt) {
+        String name = stmt.name.lexeme;
+        int index = symbols.index(stmt.depth, stmt.slot);
+        int slot = local(index);
+        boolean isDouble = doubleVars[index];
+        TokenType op = stmt.operator.type;
+
+        if (op != TokenType.ASSIGN) {
+            if (isDouble) code.dload(slot);
+            else code.lload(slot);
+        }
+
+        int type = expression(stmt.value);
+        if (type == STRING) {
+            throw new RuntimeError(stmt.name.line, "No se puede asignar una cadena a '" + name + "'.");
+        }
+
+        if (isDouble) {
+            if (type == LONG) code.l2d();
+            switch (op) {
+                case PLUS_ASSIGN -> code.dadd();
+                case MINUS_ASSIGN -> code.dsub();
+                case MULT_ASSIGN -> code.dmul();
+                case DIV_ASSIGN -> code.ddiv();
+                default -> { }
+            }
+            code.dstore(slot);
+        } else {
+            if (type == DOUBLE) code.d2l();
+            switch (op) {
+                case PLUS_ASSIGN -> code.ladd();
+                case MINUS_ASSIGN -> code.lsub();
+                case MULT_ASSIGN -> code.lmul();
+                case DIV_ASSIGN -> divideLong(stmt.operator.line);
+                default -> { }
+            }
+            code.lstore(slot);
+        }
+    }
+
+    private void read(Stmt.Read stmt) {
+        String name = stmt.name.lexeme;
+        int index = symbols.index(stmt.depth, stmt.slot);
+        code.aload(IO_SLOT).loadConstant(stmt.name.line).loadConstant(name);
+        if (doubleVars[index]) {
+            code.invokevirtual(CD_PROGRAM_IO, "readDouble", MTD_READ_DOUBLE).dstore(local(index));
+        } else {
+            code.invokevirtual(CD_PROGRAM_IO, "readLong", MTD_READ_LONG).lstore(local(index));
+        }
+    }
+
+    private void write(Stmt.Write stmt) {
+        code.aload(IO_SLOT);
+        switch (expression(stmt.expression)) {
+            case LONG -> code.invokevirtual(CD_PROGRAM_IO, "writeLong", MTD_WRITE_LONG);
+            case DOUBLE -> code.invokevirtual(CD_PROGRAM_IO, "writeDouble", MTD_WRITE_DOUBLE);
+            default -> code.invokevirtual(CD_PROGRAM_IO, "writeString", MTD_WRITE_STRING);
+        }
+    }
+
+    private void ifStatement(Stmt.If stmt) {
+        Label elseLabel = code.newLabel();
+        Label end = code.newLabel();
+
+        branchIfFalse(stmt.condition, elseLabel);
+        statement(stmt.thenBranch);
+        code.goto_(end);
+        code.labelBinding(elseLabel);
+        if (stmt.elseBranch != null) {
+            statement(stmt.elseBranch);
+        }
+        code.labelBinding(end);
+    }
+
+    private void whileStatement(Stmt.While stmt) {
+        Label start = code.newLabel();
+        Label end = code.newLabel();
+
+        code.labelBinding(start);
+        branchIfFalse(stmt.condition, end);
+        loopEnds.push(end);
+        statement(stmt.body);
+        loopEnds.pop();
+        code.goto_(start);
+        code.labelBinding(end);
+    }
+
+    // ======================
+    // EXPRESIONES
+    // ======================
+
+    /** Deja el valor de la expresión en la pila y devuelve su tipo. */
+    private int expression(Expr expr) {
+        switch (expr) {
+            case Expr.Literal e -> {
+                Object value = e.value;
+                if (value instanceof Integer i) code.loadConstant((long) i);
+                else if (value instanceof Double d) code.loadConstant(d);
+                else if (value instanceof Boolean b) code.loadConstant(b ? 1L : 0L);
+                else code.loadConstant(String.valueOf(value));
+            }
+            case Expr.Variable e -> {
+                int index = symbols.index(e.depth, e.slot);
+                if (doubleVars[index]) code.dload(local(index));
+                else code.lload(local(index));
+            }
+            case Expr.Grouping e -> expression(e.expression);
+            case Expr.Unary e -> unary(e);
+            case Expr.Binary e -> binary(e);
+            default -> throw new IllegalStateException("Expresión no soportada: " + expr);
+        }
+        return typeOf(expr);
+    }
+
+    private void unary(Expr.Unary expr) {
+        if (expr.operator.type == TokenType.NOT) {
+            Label isFalse = code.newLabel();
+            Label end = code.newLabel();
+            branchIfFalse(expr.right, isFalse);
+            code.lconst_0().goto_(end);
+            code.labelBinding(isFalse);
+            code.lconst_1();
+            code.labelBinding(end);
+            return;
+        }
+
+        switch (expression(expr.right)) {
+            case LONG -> code.lneg();
+            case DOUBLE -> code.dneg();
+            default -> throw new RuntimeError(expr.operator.line, "No se puede negar una cadena.");
+        }
+    }
+
+    private void binary(Expr.Binary expr) {
+        Token op = expr.operator;
+
+        if (op.type == TokenType.AND || op.type == TokenType.OR) {
+            Label shortCircuit = code.newLabel();
+            Label end = code.newLabel();
+            if (op.type == TokenType.AND) {
+                branchIfFalse(expr.left, shortCircuit);
+                branchIfFalse(expr.right, shortCircuit);
+                code.lconst_1().goto_(end);
+                code.labelBinding(shortCircuit);
+                code.lconst_0();
+            } else {
+                branchIfTrue(expr.left, shortCircuit);
+                branchIfTrue(expr.right, shortCircuit);
+                code.lconst_0().goto_(end);
+                code.labelBinding(shortCircuit);
+                code.lconst_1();
+            }
+            code.labelBinding(end);
+            return;
+        }
+
+        int leftType = typeOf(expr.left);
+        int rightType = typeOf(expr.right);
+
+        if (leftType == STRING || rightType == STRING) {
+            if (leftType != rightType) {
+                throw new RuntimeError(op.line, "Operación incompatible con cadenas: '" + op.lexeme + "'.");
+            }
+            expression(expr.left);
+            expression(expr.right);
+            switch (op.type) {
+                case EQUAL -> code.invokevirtual(CD_String, "equals", MTD_EQUALS).i2l();
+                case NOT_EQUAL -> code.invokevirtual(CD_String, "equals", MTD_EQUALS).iconst_1().ixor().i2l();
+                case PLUS -> code.invokevirtual(CD_String, "concat", MTD_CONCAT);
+                default -> throw new RuntimeError(op.line, "Operación no soportada con cadenas: '" + op.lexeme + "'.");
+            }
+            return;
+        }
+
+        // Promoción a double si alguno de los operandos es double
+        boolean isDouble = leftType == DOUBLE || rightType == DOUBLE;
+        expression(expr.left);
+        if (isDouble && leftType == LONG) code.l2d();
+        expression(expr.right);
+        if (isDouble && rightType == LONG) code.l2d();
+
+        switch (op.type) {
+            case PLUS -> { if (isDouble) code.dadd(); else code.ladd(); }
+            case MINUS -> { if (isDouble) code.dsub(); else code.lsub(); }
+            case MULTIPLY -> { if (isDouble) code.dmul(); else code.lmul(); }
+            case DIVIDE -> { if (isDouble) code.ddiv(); else divideLong(op.line); }
+            case GREATER, GREATER_EQUAL, LESS, LESS_EQUAL, EQUAL, NOT_EQUAL -> compare(op.type, isDouble);
+            default -> throw new RuntimeError(op.line, "Operador no soportado: '" + op.lexeme + "'.");
+        }
+    }
+
+    // Compara los dos valores de la pila y deja 1L o 0L
+    private void compare(TokenType op, boolean isDouble) {
+        Label isTrue = code.newLabel();
+        Label end = code.newLabel();
+
+        if (!isDouble) {
+            code.lcmp();
+        } else if (op == TokenType.LESS || op == TokenType.LESS_EQUAL) {
+            code.dcmpg(); // NaN -> 1, la comparación da falso
+        } else {
+            code.dcmpl(); // NaN -> -1, la comparación da falso (salvo !=)
+        }
+
+        switch (op) {
+            case GREATER -> code.ifgt(isTrue);
+            case GREATER_EQUAL -> code.ifge(isTrue);
+            case LESS -> code.iflt(isTrue);
+            case LESS_EQUAL -> code.ifle(isTrue);
+            case EQUAL -> code.ifeq(isTrue);
+            default -> code.ifne(isTrue);
+        }
+        code.lconst_0().goto_(end);
+        code.labelBinding(isTrue);
+        code.lconst_1();
+        code.labelBinding(end);
+    }
+
+    // Las condiciones son verdaderas cuando su valor numérico es distinto de cero
+    private void branchIfFalse(Expr condition, Label target) {
+        pushComparisonWithZero(condition);
+        code.ifeq(target);
+    }
+
+    private void branchIfTrue(Expr condition, Label target) {
+        pushComparisonWithZero(condition);
+        code.ifne(target);
+    }
+
+    private void pushComparisonWithZero(Expr condition) {
+        switch (expression(condition)) {
+            case LONG -> code.lconst_0().lcmp();
+            case DOUBLE -> code.dconst_0().dcmpl();
+            default -> throw new RuntimeError(0, "Una cadena no puede usarse como condición.");
+        }
+    }
+
+    private void divideLong(int line) {
+        code.loadConstant(line).invokestatic(CD_PROGRAM_IO, "divide", MTD_DIVIDE);
+    }
+
+    private void storeZero(int index) {
+        if (doubleVars[index]) code.dconst_0().dstore(local(index));
+        else code.lconst_0().lstore(local(index));
+    }
+
+    private int local(int index) {
+        return FIRST_VAR_SLOT + 4 * index + (doubleVars[index] ? 2 : 0);
+    }
+
+    // ======================
+    // TIPOS
+    // ======================
+
+    // Mismas reglas que SemanticAnalyzer: promoción long -> double, comparaciones y lógicos dan long
+    private int typeOf(Expr expr) {
+        Integer cached = exprTypes.get(expr);
+        if (cached != null) return cached;
+
+        int type = switch (expr) {
+            case Expr.Literal e -> e.value instanceof Double ? DOUBLE
+                    : (e.value instanceof Integer || e.value instanceof Boolean) ? LONG : STRING;
+            case Expr.Variable e -> doubleVars[symbols.index(e.depth, e.slot)] ? DOUBLE : LONG;
+            case Expr.Grouping e -> typeOf(e.expression);
+            case Expr.Unary e -> e.operator.type == TokenType.NOT ? LONG : typeOf(e.right);
+            case Expr.Binary e -> switch (e.operator.type) {
+                case PLUS, MINUS, MULTIPLY, DIVIDE -> {
+                    int left = typeOf(e.left);
+                    int right = typeOf(e.right);
+                    if (left == STRING || right == STRING) yield STRING;
+                    yield (left == DOUBLE || right == DOUBLE) ? DOUBLE : LONG;
+                }
+                default -> LONG;
+            };
+            default -> throw new IllegalStateException("Expresión no soportada: " + expr);
+        };
+        exprTypes.put(expr, type);
+        return type;
+    }
+}
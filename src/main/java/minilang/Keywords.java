@@ -0,0 +1,57 @@
+//Reconocimiento de palabras reservadas por longitud y primeros caracteres, sin crear Strings.
+
+package minilang;
+
+public final class Keywords {
+    private static final String[] WORDS = {
+            "if", "long", "then", "true", "else", "read", "while", "write", "break", "false", "double"
+    };
+    private static final TokenType[] TYPES = {
+            TokenType.IF, TokenType.LONG, TokenType.THEN, TokenType.BOOLEAN_CONST, TokenType.ELSE, TokenType.READ,
+            TokenType.WHILE, TokenType.WRITE, TokenType.BREAK, TokenType.BOOLEAN_CONST, TokenType.DOUBLE
+    };
+
+    private Keywords() {}
+
+    /**
+     * Única palabra reservada que puede tener esa longitud y empezar con first y second (-1 si ninguna).
+     * Solo mira esos datos: quien llama compara el resto de los caracteres con text(índice).
+     */
+    public static int candidate(int length, int first, int second) {
+        return switch (length) {
+            case 2 -> first == 'i' ? 0 : -1;
+            case 4 -> switch (first) {
+                case 'l' -> 1;
+                case 't' -> second == 'h' ? 2 : 3;
+                case 'e' -> 4;
+                case 'r' -> 5;
+                default -> -1;
+            };
+            case 5 -> switch (first) {
+                case 'w' -> second == 'h' ? 6 : 7;
+                case 'b' -> 8;
+                case 'f' -> 9;
+                default -> -1;
+            };
+            case 6 -> first == 'd' ? 10 : -1;
+            default -> -1;
+        };
+    }
+
+    /** Índice de la palabra reservada que ocupa exactamente source[start, end), o -1. */
+    public static int match(String source, int start, int end) {
+        int length = end - start;
+        if (length < 2) return -1;
+        int index = candidate(length, source.charAt(start), source.charAt(start + 1));
+        if (index < 0 || !source.regionMatches(start, WORDS[index], 0, length)) return -1;
+        return index;
+    }
+
+    public static String text(int index) {
+        return WORDS[index];
+    }
+
+    public static TokenType type(int index) {
+        return TYPES[index];
+    }
+}
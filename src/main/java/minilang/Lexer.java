@@ -2,14 +2,23 @@
 
 package minilang;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Lexer {
 
-    private final String source;  // código fuente completo
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final String source;  // código fuente completo (null en modo streaming)
     private final List<Token> tokens = new ArrayList<>();
     private final List<LexError> errors = new ArrayList<>();
+    private List<Token> comments;      // canal aparte para los comentarios; null: se descartan
 
     private int position = 0;
     private int line = 1;
@@ -17,8 +26,64 @@ public class Lexer {
 
     private int currentTokenIndex = 0; // para ir devolviendo tokens uno a uno
 
+    private TokenBuffer buffer;        // destino de tokenizeToBuffer(): no se crean objetos Token
+    private final NamePool names;      // los identificadores repetidos comparten un único String
+
+    // ---- Modo streaming: el texto se lee de a partes en un buffer circular ----
+    private final Reader reader;
+    private char[] ring;           // posición absoluta p -> ring[p & (ring.length - 1)]
+    private int filled = 0;        // posiciones absolutas [.., filled) ya leídas
+    private boolean readerDone = false;
+    private int lexemeStart;       // inicio del lexema que se está capturando
+    private boolean capturing = false;
+    private Token pending;         // token recién escaneado, pendiente de entregar
+
     public Lexer(String source) {
+        this(source, new NamePool());
+    }
+
+    /** Lexer que usa un pool de nombres compartido (por ejemplo entre varios archivos). */
+    public Lexer(String source, NamePool names) {
+        this(source, names, 1, 1);
+    }
+
+    // Lexer sobre un fragmento de texto que empieza en la línea y columna dadas (lo usa IncrementalDocument)
+    Lexer(String source, NamePool names, int line, int column) {
         this.source = source;
+        this.reader = null;
+        this.names = names;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Lexer en modo streaming: lee el texto bajo demanda a través de un buffer circular de tamaño fijo
+     * y entrega los tokens de a uno con nextToken(), sin guardarlos. La memoria usada es la del buffer
+     * (solo crece si un único lexema no entra en él).
+     */
+    public Lexer(Reader reader, int bufferSize) {
+        this.source = null;
+        this.reader = reader;
+        this.names = new NamePool();
+        this.ring = new char[Integer.highestOneBit(Math.max(bufferSize, 16) - 1) << 1];
+    }
+
+    public Lexer(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    // Tamaño actual del buffer circular del modo streaming (para comprobar que no crece sin motivo)
+    int ringCapacity() {
+        return ring == null ? 0 : ring.length;
+    }
+
+    /** Lexer en modo streaming sobre un canal de bytes en UTF-8 (por ejemplo un FileChannel). */
+    public Lexer(ReadableByteChannel channel) {
+        this(Channels.newReader(channel, StandardCharsets.UTF_8), DEFAULT_BUFFER_SIZE);
+    }
+
+    public boolean isStreaming() {
+        return reader != null;
     }
 
     public List<Token> getTokens() {
@@ -29,31 +94,106 @@ public class Lexer {
         return errors;
     }
 
+    /**
+     * Guarda los comentarios (con su texto completo) en getComments() en lugar de descartarlos, para un
+     * formateador o una herramienta de documentación. Los tokens que ve el parser nunca incluyen comentarios.
+     */
+    public Lexer keepComments() {
+        comments = new ArrayList<>();
+        return this;
+    }
+
+    /** Comentarios en orden de aparición; vacía si no se llamó a keepComments(). */
+    public List<Token> getComments() {
+        return comments == null ? List.of() : comments;
+    }
+
     // Método principal para escanear todo el código
     public void tokenize() {
+        if (isStreaming()) {
+            // En modo streaming se junta todo lo que falta en la lista
+            Token token;
+            do {
+                token = getNextToken();
+                tokens.add(token);
+            } while (token.type != TokenType.EOF);
+            return;
+        }
+
         while (!isAtEnd()) {
-            char current = peek();
-
-            if (Character.isWhitespace(current)) {
-                handleWhitespace(current);
-            } else if (Character.isLetter(current) || current == '_') {
-                handleIdentifierOrKeyword();
-            } else if (Character.isDigit(current)) {
-                handleNumber();
-            } else if (current == '"') {
-                handleString();
-            } else if (current == '/' && peekNext() == '/') {
-                handleSingleLineComment();
-            } else if (current == '/' && peekNext() == '*') {
-                handleMultiLineComment();
-            } else {
-                handleSymbol();
-            }
+            scanToken();
         }
 
         tokens.add(new Token(TokenType.EOF, "", line, column));
     }
 
+    /**
+     * Tokeniza todo el código guardando los tokens en un TokenBuffer (arreglos paralelos) en lugar de
+     * crear un objeto Token por cada uno. Los errores quedan en getErrors(), como con tokenize().
+     */
+    public TokenBuffer tokenizeToBuffer() {
+        if (isStreaming()) {
+            throw new IllegalStateException("tokenizeToBuffer() necesita el código fuente completo.");
+        }
+        buffer = new TokenBuffer(source, names);
+        while (!isAtEnd()) {
+            scanToken();
+        }
+        buffer.add(TokenType.EOF, position, position, line, column);
+        buffer.trimToSize();
+
+        TokenBuffer result = buffer;
+        buffer = null;
+        return result;
+    }
+
+    // Escanea desde la posición actual: produce a lo sumo un token (espacios y errores no producen ninguno)
+    private void scanToken() {
+        char current = peek();
+
+        if (Character.isWhitespace(current)) {
+            handleWhitespace(current);
+        } else if (Character.isLetter(current) || current == '_') {
+            handleIdentifierOrKeyword();
+        } else if (Character.isDigit(current)) {
+            handleNumber();
+        } else if (current == '"') {
+            handleString();
+        } else if (current == '/' && peekNext() == '/') {
+            handleSingleLineComment();
+        } else if (current == '/' && peekNext() == '*') {
+            handleMultiLineComment();
+        } else {
+            handleSymbol();
+        }
+    }
+
+    // text puede ser null: el lexema se saca de [start, end) solo si hace falta crear el Token
+    private void addToken(TokenType type, String text, int start, int end, int line, int column) {
+        if (type == TokenType.COMMENT_SINGLE || type == TokenType.COMMENT_MULTI) {
+            if (comments != null) comments.add(new Token(type, lexeme(start, end), line, column));
+            capturing = false;
+            return;
+        }
+        if (buffer != null) {
+            capturing = false;
+            buffer.add(type, start, end, line, column);
+            return;
+        }
+
+        if (text == null) {
+            text = lexeme(start, end);
+        } else {
+            capturing = false; // el texto ya vino hecho (palabra reservada): no hay que conservar el lexema
+        }
+        Token token = new Token(type, text, line, column);
+        if (isStreaming()) {
+            pending = token;
+        } else {
+            tokens.add(token);
+        }
+    }
+
     // ==================== MANEJO DE TIPOS DE TOKENS ==================== //
 
     private void handleWhitespace(char c) {
@@ -67,32 +207,24 @@ public class Lexer {
     }
 
     private void handleIdentifierOrKeyword() {
-        int start = position;
+        int start = beginLexeme();
         while (!isAtEnd() && (Character.isLetterOrDigit(peek()) || peek() == '_')) {
             advance();
         }
-        String text = source.substring(start, position);
-
-        TokenType type = switch (text) {
-            case "long" -> TokenType.LONG;
-            case "double" -> TokenType.DOUBLE;
-            case "if" -> TokenType.IF;
-            case "then" -> TokenType.THEN;
-            case "else" -> TokenType.ELSE;
-            case "while" -> TokenType.WHILE;
-            case "break" -> TokenType.BREAK;
-            case "read" -> TokenType.READ;
-            case "write" -> TokenType.WRITE;
-            case "true", "false" -> TokenType.BOOLEAN_CONST;
-            default -> TokenType.IDENTIFIER;
-        };
+        int keyword = keyword(start, position);
+        TokenType type = keyword >= 0 ? Keywords.type(keyword) : TokenType.IDENTIFIER;
 
-        tokens.add(new Token(type, text, line, column));
-        column += text.length();
+        // Solo los identificadores crean un String (y pasan por el pool); con buffer no se crea ninguno
+        String text = null;
+        if (buffer == null) {
+            text = keyword >= 0 ? Keywords.text(keyword) : name(start, position);
+        }
+        addToken(type, text, start, position, line, column);
+        column += position - start;
     }
 
     private void handleNumber() {
-        int start = position;
+        int start = beginLexeme();
         boolean isReal = false;
 
         while (!isAtEnd() && Character.isDigit(peek())) {
@@ -107,15 +239,14 @@ public class Lexer {
             }
         }
 
-        String number = source.substring(start, position);
         TokenType type = isReal ? TokenType.REAL_CONST : TokenType.INTEGER_CONST;
-        tokens.add(new Token(type, number, line, column));
-        column += number.length();
+        addToken(type, null, start, position, line, column);
+        column += position - start;
     }
 
     private void handleString() {
         advance(); // saltar la comilla inicial
-        int start = position;
+        int start = beginLexeme();
 
         while (!isAtEnd() && peek() != '"') {
             if (peek() == '\n') line++;
@@ -123,24 +254,27 @@ public class Lexer {
         }
 
         if (isAtEnd()) {
+            capturing = false;
             errors.add(new LexError(line, column, "Cadena sin cierre de comillas"));
             return;
         }
 
-        String text = source.substring(start, position);
+        int end = position;
         advance(); // cerrar comillas
-        tokens.add(new Token(TokenType.STRING_CONST, text, line, column));
-        column += text.length() + 2;
+        addToken(TokenType.STRING_CONST, null, start, end, line, column);
+        column += end - start + 2;
     }
 
     private void handleSingleLineComment() {
+        int start = comments != null ? beginLexeme() : position; // en streaming el texto solo se conserva si se pide
         while (!isAtEnd() && peek() != '\n') {
             advance();
         }
-        tokens.add(new Token(TokenType.COMMENT_SINGLE, "//", line, column));
+        addToken(TokenType.COMMENT_SINGLE, null, start, position, line, column);
     }
 
     private void handleMultiLineComment() {
+        int start = comments != null ? beginLexeme() : position;
         advance(); // /
         advance(); // *
         int startLine = line;
@@ -149,7 +283,7 @@ public class Lexer {
             if (peek() == '*' && peekNext() == '/') {
                 advance();
                 advance();
-                tokens.add(new Token(TokenType.COMMENT_MULTI, "/*...*/", startLine, startColumn));
+                addToken(TokenType.COMMENT_MULTI, null, start, position, startLine, startColumn);
                 return;
             }
             if (peek() == '\n') {
@@ -160,10 +294,12 @@ public class Lexer {
         }
 
         // Si sale del bucle sin cerrar el comentario:
+        capturing = false;
         errors.add(new LexError(startLine, startColumn, "Comentario multilínea sin cierre"));
     }
 
     private void handleSymbol() {
+        int start = beginLexeme();
         char current = advance();
         TokenType type = switch (current) {
             case '+' -> TokenType.PLUS;
@@ -183,39 +319,138 @@ public class Lexer {
             default -> TokenType.UNKNOWN;
         };
 
-        tokens.add(new Token(type, String.valueOf(current), line, column));
+        addToken(type, null, start, start + 1, line, column); // el lexema es solo el primer carácter
         column++;
     }
 
     // ==================== FUNCIONES AUXILIARES ==================== //
 
     private boolean isAtEnd() {
-        return position >= source.length();
+        if (source != null) return position >= source.length();
+        return !available(position);
     }
 
     private char advance() {
         position++;
-        return source.charAt(position - 1);
+        return charAt(position - 1);
     }
 
     private char peek() {
-        return source.charAt(position);
+        return charAt(position);
     }
 
     private char peekNext() {
-        return (position + 1 >= source.length()) ? '\0' : source.charAt(position + 1);
+        if (source != null) return (position + 1 >= source.length()) ? '\0' : source.charAt(position + 1);
+        return available(position + 1) ? charAt(position + 1) : '\0';
     }
 
     private boolean match(char expected) {
-        if (isAtEnd() || source.charAt(position) != expected) return false;
+        if (isAtEnd() || charAt(position) != expected) return false;
         position++;
         return true;
     }
 
+    private char charAt(int pos) {
+        if (source != null) return source.charAt(pos);
+        return ring[pos & (ring.length - 1)];
+    }
+
+    // Marca el comienzo de un lexema: en modo streaming esos caracteres no se pisan hasta leerlo
+    private int beginLexeme() {
+        lexemeStart = position;
+        capturing = true;
+        return position;
+    }
+
+    // Compara los caracteres con la única palabra reservada candidata, sin crear Strings
+    private int keyword(int start, int end) {
+        int length = end - start;
+        if (length < 2) return -1;
+        int index = Keywords.candidate(length, charAt(start), charAt(start + 1));
+        if (index < 0) return -1;
+        String word = Keywords.text(index);
+        for (int i = 1; i < length; i++) {
+            if (charAt(start + i) != word.charAt(i)) return -1;
+        }
+        return index;
+    }
+
+    private String name(int start, int end) {
+        if (source != null) {
+            capturing = false;
+            return names.intern(source, start, end);
+        }
+        return names.intern(lexeme(start, end));
+    }
+
+    private String lexeme(int start, int end) {
+        capturing = false;
+        if (source != null) return source.substring(start, end);
+
+        int length = end - start;
+        int mask = ring.length - 1;
+        int from = start & mask;
+        if (from + length <= ring.length) {
+            return new String(ring, from, length);
+        }
+        int firstPart = ring.length - from;
+        return new String(ring, from, firstPart) + new String(ring, 0, length - firstPart);
+    }
+
+    // ==================== BUFFER CIRCULAR (MODO STREAMING) ==================== //
+    // Las posiciones son absolutas y se comparan por diferencia, así que siguen siendo
+    // válidas aunque el archivo tenga más de 2^31 caracteres.
+
+    // ¿Hay un carácter en la posición pos? Lee más texto del reader si hace falta.
+    private boolean available(int pos) {
+        while (pos - filled >= 0) {
+            if (readerDone || !fill()) return false;
+        }
+        return true;
+    }
+
+    private boolean fill() {
+        int keepFrom = capturing ? lexemeStart : position;
+        int used = filled - keepFrom;
+        if (used == ring.length) {
+            grow(keepFrom);
+        }
+
+        int mask = ring.length - 1;
+        int from = filled & mask;
+        int free = ring.length - (filled - keepFrom);
+        int length = Math.min(free, ring.length - from); // sin dar la vuelta en una sola lectura
+        int read;
+        try {
+            read = reader.read(ring, from, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (read < 0) {
+            readerDone = true;
+            return false;
+        }
+        filled += read;
+        return true;
+    }
+
+    // Un lexema ocupa todo el buffer: se duplica conservando las posiciones absolutas
+    private void grow(int keepFrom) {
+        char[] bigger = new char[ring.length * 2];
+        int mask = bigger.length - 1;
+        for (int pos = keepFrom; pos - filled < 0; pos++) {
+            bigger[pos & mask] = ring[pos & (ring.length - 1)];
+        }
+        ring = bigger;
+    }
+
     // ==================== NUEVO: MÉTODOS PÚBLICOS DE ACCESO ==================== //
 
     /** Devuelve el siguiente token sin volver a tokenizar todo. */
     public Token getNextToken() {
+        if (isStreaming()) {
+            return nextStreamedToken();
+        }
         if (tokens.isEmpty()) {
             tokenize();
         }
@@ -226,6 +461,19 @@ public class Lexer {
         }
     }
 
+    // Escanea hasta completar un token; al llegar al final devuelve EOF cada vez que se lo llama
+    private Token nextStreamedToken() {
+        while (pending == null) {
+            if (isAtEnd()) {
+                return new Token(TokenType.EOF, "", line, column);
+            }
+            scanToken();
+        }
+        Token token = pending;
+        pending = null;
+        return token;
+    }
+
     /** Método alias usado por Main o Parser */
     public Token nextToken() {
         return getNextToken();
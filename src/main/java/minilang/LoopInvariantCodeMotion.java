@@ -0,0 +1,117 @@
+//Movimiento de código invariante: en cada ciclo (un salto de vuelta hacia una cabecera que domina al bloque
+//que salta) las instrucciones puras cuyos argumentos se calculan fuera del ciclo se mueven al final del
+//bloque que entra al ciclo (el preencabezado que deja IrBuilder antes de cada while). Solo se mueven las
+//que no pueden fallar (Instr.isPure): si el ciclo no da ninguna vuelta, calcularlas de más no cambia nada.
+//Los ciclos internos se procesan primero, así lo que sale de uno puede seguir saliendo del que lo contiene.
+
+package minilang;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LoopInvariantCodeMotion implements IrPass {
+
+    private int hoisted = 0;
+
+    @Override
+    public String name() {
+        return "Movimiento de invariantes";
+    }
+
+    /** Instrucciones movidas fuera de algún ciclo (acumulado de todas las ejecuciones). */
+    public int getHoisted() {
+        return hoisted;
+    }
+
+    @Override
+    public boolean run(Ir.Function function) {
+        function.computeDominators();
+        List<Ir.Block> order = function.reversePostorder();
+
+        // Cuerpo de cada ciclo, por cabecera (un while puede tener varios saltos de vuelta)
+        Map<Ir.Block, boolean[]> loops = new LinkedHashMap<>();
+        int blockIds = 0;
+        for (Ir.Block b : order) blockIds = Math.max(blockIds, b.id + 1);
+        for (Ir.Block b : order) {
+            for (Ir.Block header : b.succs) {
+                if (function.dominates(header, b)) {
+                    boolean[] body = loops.get(header);
+                    if (body == null) loops.put(header, body = new boolean[blockIds]);
+                    collectBody(header, b, body);
+                }
+            }
+        }
+
+        List<Map.Entry<Ir.Block, boolean[]>> inner = new ArrayList<>(loops.entrySet());
+        inner.sort(Comparator.comparingInt(e -> count(e.getValue())));
+
+        boolean changed = false;
+        for (Map.Entry<Ir.Block, boolean[]> loop : inner) {
+            Ir.Block preheader = preheader(loop.getKey(), loop.getValue());
+            if (preheader == null) continue;
+            boolean[] body = loop.getValue();
+            // En postorden inverso las definiciones se ven antes que sus usos (salvo en los phi, que no se mueven)
+            for (Ir.Block b : order) {
+                if (!body[b.id]) continue;
+                for (Iterator<Ir.Instr> it = b.instrs.iterator(); it.hasNext(); ) {
+                    Ir.Instr instr = it.next();
+                    if (!instr.isPure() || !definedOutside(instr, body)) continue;
+                    it.remove();
+                    instr.block = preheader;
+                    preheader.instrs.add(instr);
+                    hoisted++;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    // Bloques desde los que se llega a "from" sin pasar por la cabecera
+    private static void collectBody(Ir.Block header, Ir.Block from, boolean[] body) {
+        body[header.id] = true;
+        Deque<Ir.Block> pending = new ArrayDeque<>();
+        if (!body[from.id]) {
+            body[from.id] = true;
+            pending.push(from);
+        }
+        while (!pending.isEmpty()) {
+            for (Ir.Block p : pending.pop().preds) {
+                if (!body[p.id]) {
+                    body[p.id] = true;
+                    pending.push(p);
+                }
+            }
+        }
+    }
+
+    // Único predecesor de la cabecera fuera del ciclo, si salta solo a la cabecera
+    private static Ir.Block preheader(Ir.Block header, boolean[] body) {
+        Ir.Block outside = null;
+        for (Ir.Block p : header.preds) {
+            if (body[p.id]) continue;
+            if (outside != null) return null;
+            outside = p;
+        }
+        return outside != null && outside.succs.length == 1 ? outside : null;
+    }
+
+    private static boolean definedOutside(Ir.Instr instr, boolean[] body) {
+        for (Ir.Instr arg : instr.args) {
+            if (body[arg.block.id]) return false;
+        }
+        return true;
+    }
+
+    private static int count(boolean[] body) {
+        int n = 0;
+        for (boolean b : body) if (b) n++;
+        return n;
+    }
+}
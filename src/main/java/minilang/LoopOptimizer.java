@@ -0,0 +1,537 @@
+//Optimización de los while sobre el AST ya verificado (después de ConstantFolder y DeadCodeEliminator):
+// - Movimiento de invariantes: las subexpresiones que solo usan variables que el ciclo no modifica (no
+//   aparecen en un Stmt.Assign, Stmt.Read ni Stmt.Var del cuerpo) se calculan una vez antes del while y se
+//   guardan en una variable temporal. Solo se mueven las que no pueden fallar (no las divisiones enteras
+//   por algo que no sea un literal distinto de cero).
+// - Reducción de fuerza: si el cuerpo incrementa una variable long una sola vez por vuelta (i = i + c,
+//   i += c, con c invariante), cada i * k (k invariante y long) pasa a ser una temporal que empieza en i * k
+//   y suma k * c justo después del incremento. Con long la suma da lo mismo que la multiplicación (también
+//   al desbordar); con double no se hace porque el redondeo cambiaría los resultados.
+//Las temporales son variables globales "$tN" declaradas en la SymbolTable (no pueden chocar con un
+//identificador del programa); el while queda dentro de un bloque sin ámbito propio junto con su preparación.
+
+package minilang;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+public class LoopOptimizer implements Stmt.Visitor<Stmt> {
+
+    private final SymbolTable symbols;
+    private final Map<Long, Type> varTypes = new HashMap<>(); // tipo de cada variable (depth, slot) según su última declaración
+    private int temps = 0;
+
+    private int loops = 0;
+    private int hoisted = 0;   // subexpresiones movidas fuera de un ciclo
+    private int reduced = 0;   // multiplicaciones reemplazadas por sumas
+
+    public LoopOptimizer(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public List<Stmt> optimize(List<Stmt> statements) {
+        return optimizeAll(statements);
+    }
+
+    public int getLoops() {
+        return loops;
+    }
+
+    public int getHoisted() {
+        return hoisted;
+    }
+
+    public int getReduced() {
+        return reduced;
+    }
+
+    public String report() {
+        return String.format(" Ciclos: %d while (%d invariantes movidas, %d multiplicaciones reducidas a sumas)",
+                loops, hoisted, reduced);
+    }
+
+    private List<Stmt> optimizeAll(List<Stmt> statements) {
+        List<Stmt> result = new ArrayList<>(statements.size());
+        boolean changed = false;
+        for (Stmt stmt : statements) {
+            Stmt o = stmt.accept(this);
+            result.add(o);
+            changed |= o != stmt;
+        }
+        return changed ? result : statements;
+    }
+
+    // ======================
+    // SENTENCIAS
+    // ======================
+
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        varTypes.put(key(stmt.depth, stmt.slot), Type.of(stmt.typeToken.type));
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitExpressionStmt(Stmt.Expression stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitAssignStmt(Stmt.Assign stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitReadStmt(Stmt.Read stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitWriteStmt(Stmt.Write stmt) {
+        return stmt;
+    }
+
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        List<Stmt> statements = optimizeAll(stmt.statements);
+        return statements == stmt.statements ? stmt : new Stmt.Block(statements, stmt.opensScope);
+    }
+
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        Stmt thenBranch = stmt.thenBranch.accept(this);
+        Stmt elseBranch = stmt.elseBranch != null ? stmt.elseBranch.accept(this) : null;
+        if (thenBranch == stmt.thenBranch && elseBranch == stmt.elseBranch) return stmt;
+        return new Stmt.If(stmt.condition, thenBranch, elseBranch);
+    }
+
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        loops++;
+        Stmt body = stmt.body.accept(this); // los ciclos internos primero
+        Loop loop = new Loop(stmt.condition, body, line(stmt.condition));
+        loop.collectWrites(body);
+
+        reduceStrength(loop);
+        hoistInvariants(loop);
+
+        if (loop.setup.isEmpty()) {
+            return body == stmt.body ? stmt : new Stmt.While(stmt.condition, body);
+        }
+        List<Stmt> statements = new ArrayList<>(loop.setup);
+        statements.add(new Stmt.While(loop.condition, loop.body));
+        return new Stmt.Block(statements, false);
+    }
+
+    @Override
+    public Stmt visitBreakStmt(Stmt.Break stmt) {
+        return stmt;
+    }
+
+    // Un while en transformación: condición, cuerpo y sentencias que van antes del ciclo
+    private final class Loop {
+        Expr condition;
+        Stmt body;
+        final int line;
+        final List<Stmt> setup = new ArrayList<>();
+        final Map<Long, Integer> writes = new HashMap<>(); // variables escritas en el ciclo y cuántas veces
+        final Set<Long> declared = new HashSet<>();         // variables declaradas dentro del ciclo
+
+        Loop(Expr condition, Stmt body, int line) {
+            this.condition = condition;
+            this.body = body;
+            this.line = line;
+        }
+
+        boolean isWritten(long var) {
+            return writes.containsKey(var);
+        }
+
+        void collectWrites(Stmt stmt) {
+            switch (stmt) {
+                case Stmt.Var s -> {
+                    writes.merge(key(s.depth, s.slot), 1, Integer::sum);
+                    declared.add(key(s.depth, s.slot));
+                }
+                case Stmt.Assign s -> writes.merge(key(s.depth, s.slot), 1, Integer::sum);
+                case Stmt.Read s -> writes.merge(key(s.depth, s.slot), 2, Integer::sum); // nunca es inducción
+                case Stmt.Block s -> s.statements.forEach(this::collectWrites);
+                case Stmt.If s -> {
+                    collectWrites(s.thenBranch);
+                    if (s.elseBranch != null) collectWrites(s.elseBranch);
+                }
+                case Stmt.While s -> collectWrites(s.body);
+                default -> { }
+            }
+        }
+
+        // Reescribe todas las expresiones del ciclo (condición y cuerpo, incluidos los ciclos internos)
+        void rewrite(UnaryOperator<Expr> f) {
+            condition = f.apply(condition);
+            body = rewrite(body, f);
+        }
+
+        Stmt rewrite(Stmt stmt, UnaryOperator<Expr> f) {
+            return switch (stmt) {
+                case Stmt.Assign s -> {
+                    Expr value = f.apply(s.value);
+                    yield value == s.value ? s : assign(s.name, s.operator, s.depth, s.slot, value);
+                }
+                case Stmt.Write s -> {
+                    Expr e = f.apply(s.expression);
+                    yield e == s.expression ? s : new Stmt.Write(e);
+                }
+                case Stmt.Expression s -> {
+                    Expr e = f.apply(s.expression);
+                    yield e == s.expression ? s : new Stmt.Expression(e);
+                }
+                case Stmt.Block s -> {
+                    List<Stmt> statements = new ArrayList<>(s.statements.size());
+                    boolean changed = false;
+                    for (Stmt inner : s.statements) {
+                        Stmt r = rewrite(inner, f);
+                        statements.add(r);
+                        changed |= r != inner;
+                    }
+                    yield changed ? new Stmt.Block(statements, s.opensScope) : s;
+                }
+                case Stmt.If s -> {
+                    Expr c = f.apply(s.condition);
+                    Stmt thenBranch = rewrite(s.thenBranch, f);
+                    Stmt elseBranch = s.elseBranch != null ? rewrite(s.elseBranch, f) : null;
+                    yield c == s.condition && thenBranch == s.thenBranch && elseBranch == s.elseBranch ? s
+                            : new Stmt.If(c, thenBranch, elseBranch);
+                }
+                case Stmt.While s -> {
+                    Expr c = f.apply(s.condition);
+                    Stmt b = rewrite(s.body, f);
+                    yield c == s.condition && b == s.body ? s : new Stmt.While(c, b);
+                }
+                default -> stmt;
+            };
+        }
+
+        // Expresión que no cambia durante el ciclo y no puede fallar
+        boolean isInvariant(Expr expr) {
+            return switch (expr) {
+                case Expr.Literal e -> true;
+                case Expr.Variable e -> !isWritten(key(e.depth, e.slot));
+                case Expr.Grouping e -> isInvariant(e.expression);
+                case Expr.Unary e -> isInvariant(e.right);
+                case Expr.Binary e -> isInvariant(e.left) && isInvariant(e.right)
+                        && (e.operator.type != TokenType.DIVIDE || typeOf(e) == Type.DOUBLE || isNonZeroInteger(e.right));
+                default -> false;
+            };
+        }
+    }
+
+    // ======================
+    // MOVIMIENTO DE INVARIANTES
+    // ======================
+
+    private void hoistInvariants(Loop loop) {
+        Map<String, Temp> hoistedExprs = new HashMap<>(); // la misma expresión usa la misma temporal
+        loop.rewrite(new UnaryOperator<>() {
+            @Override
+            public Expr apply(Expr expr) {
+                if (loop.isInvariant(expr)) {
+                    Expr inner = unwrap(expr);
+                    Type type = typeOf(inner);
+                    if (!(inner instanceof Expr.Binary || inner instanceof Expr.Unary) || type == Type.STRING) return expr;
+                    Temp temp = hoistedExprs.get(shape(inner));
+                    if (temp == null) {
+                        temp = newTemp(type, loop);
+                        loop.setup.add(temp.assign(inner));
+                        hoistedExprs.put(shape(inner), temp);
+                        hoisted++;
+                    }
+                    return temp.read();
+                }
+                return switch (expr) {
+                    case Expr.Binary e -> {
+                        Expr left = apply(e.left);
+                        Expr right = apply(e.right);
+                        yield left == e.left && right == e.right ? e : new Expr.Binary(left, e.operator, right);
+                    }
+                    case Expr.Unary e -> {
+                        Expr right = apply(e.right);
+                        yield right == e.right ? e : new Expr.Unary(e.operator, right);
+                    }
+                    case Expr.Grouping e -> apply(e.expression);
+                    default -> expr;
+                };
+            }
+        });
+    }
+
+    // ======================
+    // REDUCCIÓN DE FUERZA
+    // ======================
+
+    // i = i + c (o c + i, i - c, i += c, i -= c) en la lista principal del cuerpo: se ejecuta una vez por vuelta
+    private record Induction(long var, Stmt.Assign increment, Expr step, boolean negative) {}
+
+    private void reduceStrength(Loop loop) {
+        List<Stmt> top = loop.body instanceof Stmt.Block block ? block.statements : List.of(loop.body);
+        for (Stmt stmt : top) {
+            Induction induction = induction(stmt, loop);
+            if (induction != null) reduce(loop, induction);
+        }
+    }
+
+    private Induction induction(Stmt stmt, Loop loop) {
+        if (!(stmt instanceof Stmt.Assign s)) return null;
+        long var = key(s.depth, s.slot);
+        if (varTypes.get(var) != Type.LONG || loop.declared.contains(var) || loop.writes.getOrDefault(var, 0) != 1) return null;
+
+        Expr step = null;
+        boolean negative = false;
+        switch (s.operator.type) {
+            case PLUS_ASSIGN -> step = s.value;
+            case MINUS_ASSIGN -> {
+                step = s.value;
+                negative = true;
+            }
+            case ASSIGN -> {
+                if (unwrap(s.value) instanceof Expr.Binary b) {
+                    if (isVariable(b.left, var) && (b.operator.type == TokenType.PLUS || b.operator.type == TokenType.MINUS)) {
+                        step = b.right;
+                        negative = b.operator.type == TokenType.MINUS;
+                    } else if (isVariable(b.right, var) && b.operator.type == TokenType.PLUS) {
+                        step = b.left;
+                    }
+                }
+            }
+            default -> { }
+        }
+        if (step == null || !isLongOperand(step, loop)) return null;
+        return new Induction(var, s, step, negative);
+    }
+
+    private void reduce(Loop loop, Induction induction) {
+        // Multiplicaciones i * k del ciclo, agrupadas por k
+        Map<String, Expr> factors = new LinkedHashMap<>();
+        Map<String, Temp> products = new HashMap<>();
+        loop.rewrite(new UnaryOperator<>() {
+            @Override
+            public Expr apply(Expr expr) {
+                return switch (expr) {
+                    case Expr.Binary e -> {
+                        Expr factor = factor(e, induction.var(), loop);
+                        if (factor != null) {
+                            factors.putIfAbsent(shape(factor), factor);
+                            yield productTemp(products, shape(factor), loop).read();
+                        }
+                        Expr left = apply(e.left);
+                        Expr right = apply(e.right);
+                        yield left == e.left && right == e.right ? e : new Expr.Binary(left, e.operator, right);
+                    }
+                    case Expr.Unary e -> {
+                        Expr right = apply(e.right);
+                        yield right == e.right ? e : new Expr.Unary(e.operator, right);
+                    }
+                    case Expr.Grouping e -> {
+                        Expr inner = apply(e.expression);
+                        yield inner == e.expression ? e : new Expr.Grouping(inner);
+                    }
+                    default -> expr;
+                };
+            }
+        });
+        if (factors.isEmpty()) return;
+
+        // Antes del ciclo: t = i * k. Después del incremento: t = t + k * c (o t - k * c).
+        Stmt.Assign increment = induction.increment();
+        Token operatorToken = increment.operator;
+        Expr iRead = variable(increment.name, increment.depth, increment.slot);
+        List<Stmt> updates = new ArrayList<>();
+        for (Map.Entry<String, Expr> f : factors.entrySet()) {
+            Temp t = products.get(f.getKey());
+            Expr k = f.getValue();
+            loop.setup.add(t.assign(new Expr.Binary(iRead, token(TokenType.MULTIPLY, "*", operatorToken.line), k)));
+            Expr delta = multiply(k, induction.step(), loop);
+            TokenType op = induction.negative() ? TokenType.MINUS : TokenType.PLUS;
+            updates.add(t.assign(new Expr.Binary(t.read(), token(op, induction.negative() ? "-" : "+", operatorToken.line), delta)));
+            loop.writes.merge(key(t.depth, t.slot), 2, Integer::sum); // ya no es invariante
+            reduced++;
+        }
+        loop.body = insertAfter(loop.body, increment, updates);
+    }
+
+    // k si e es i * k o k * i con k invariante y long
+    private Expr factor(Expr.Binary e, long var, Loop loop) {
+        if (e.operator.type != TokenType.MULTIPLY) return null;
+        if (isVariable(e.left, var) && isLongOperand(e.right, loop)) return e.right;
+        if (isVariable(e.right, var) && isLongOperand(e.left, loop)) return e.left;
+        return null;
+    }
+
+    private Temp productTemp(Map<String, Temp> products, String factor, Loop loop) {
+        return products.computeIfAbsent(factor, f -> newTemp(Type.LONG, loop));
+    }
+
+    // k * c plegado si los dos son literales (y el resultado entra en un Integer), si no otra temporal
+    private Expr multiply(Expr k, Expr c, Loop loop) {
+        if (unwrap(k) instanceof Expr.Literal a && a.value instanceof Integer x
+                && unwrap(c) instanceof Expr.Literal b && b.value instanceof Integer y) {
+            long product = (long) x * y;
+            if (product == (int) product) return new Expr.Literal((int) product);
+        }
+        Temp step = newTemp(Type.LONG, loop);
+        loop.setup.add(step.assign(new Expr.Binary(k, token(TokenType.MULTIPLY, "*", loop.line), c)));
+        return step.read();
+    }
+
+    // Inserta las sentencias justo después de target en la lista principal del cuerpo
+    private static Stmt insertAfter(Stmt body, Stmt target, List<Stmt> inserted) {
+        if (!(body instanceof Stmt.Block block)) {
+            List<Stmt> statements = new ArrayList<>();
+            statements.add(body);
+            statements.addAll(inserted);
+            return new Stmt.Block(statements, false);
+        }
+        List<Stmt> statements = new ArrayList<>(block.statements.size() + inserted.size());
+        boolean found = false;
+        for (Stmt s : block.statements) {
+            statements.add(s);
+            if (s == target) {
+                statements.addAll(inserted);
+                found = true;
+            }
+        }
+        if (!found) throw new IllegalStateException("El incremento no está en el cuerpo del ciclo.");
+        return new Stmt.Block(statements, block.opensScope);
+    }
+
+    // Literal entero o variable long que el ciclo no modifica
+    private boolean isLongOperand(Expr expr, Loop loop) {
+        Expr e = unwrap(expr);
+        if (e instanceof Expr.Literal literal) return literal.value instanceof Integer;
+        return e instanceof Expr.Variable v && !loop.isWritten(key(v.depth, v.slot))
+                && varTypes.get(key(v.depth, v.slot)) == Type.LONG;
+    }
+
+    private static boolean isVariable(Expr expr, long var) {
+        return unwrap(expr) instanceof Expr.Variable v && key(v.depth, v.slot) == var;
+    }
+
+    // ======================
+    // TEMPORALES
+    // ======================
+
+    private final class Temp {
+        final Token name;
+        final int depth;
+        final int slot;
+
+        Temp(Token name, int depth, int slot) {
+            this.name = name;
+            this.depth = depth;
+            this.slot = slot;
+        }
+
+        Stmt.Assign assign(Expr value) {
+            return LoopOptimizer.assign(name, token(TokenType.ASSIGN, "=", name.line), depth, slot, value);
+        }
+
+        Expr read() {
+            return variable(name, depth, slot);
+        }
+    }
+
+    // Variable global nueva; su declaración va antes del ciclo
+    private Temp newTemp(Type type, Loop loop) {
+        Type stored = type == Type.DOUBLE ? Type.DOUBLE : Type.LONG; // un boolean se guarda como long (1/0)
+        String name = "$t" + temps++;
+        Symbol sym = symbols.declare(name, stored, null, loop.line);
+        Token nameToken = new Token(TokenType.IDENTIFIER, name, loop.line, 0);
+        Token typeToken = stored == Type.DOUBLE ? token(TokenType.DOUBLE, "double", loop.line) : token(TokenType.LONG, "long", loop.line);
+        Stmt.Var var = new Stmt.Var(typeToken, nameToken);
+        var.depth = sym.getDepth();
+        var.slot = sym.getSlot();
+        varTypes.put(key(var.depth, var.slot), stored);
+        loop.setup.add(var);
+        return new Temp(nameToken, var.depth, var.slot);
+    }
+
+    private static Stmt.Assign assign(Token name, Token operator, int depth, int slot, Expr value) {
+        Stmt.Assign assign = new Stmt.Assign(name, operator, value);
+        assign.depth = depth;
+        assign.slot = slot;
+        return assign;
+    }
+
+    private static Expr.Variable variable(Token name, int depth, int slot) {
+        Expr.Variable variable = new Expr.Variable(name);
+        variable.depth = depth;
+        variable.slot = slot;
+        return variable;
+    }
+
+    private static Token token(TokenType type, String lexeme, int line) {
+        return new Token(type, lexeme, line, 0);
+    }
+
+    // ======================
+    // AUXILIARES
+    // ======================
+
+    // Las variables se identifican por (depth, slot): los índices planos cambian al declarar temporales
+    private static long key(int depth, int slot) {
+        return ((long) depth << 32) | slot;
+    }
+
+    private static Expr unwrap(Expr expr) {
+        while (expr instanceof Expr.Grouping g) expr = g.expression;
+        return expr;
+    }
+
+    private static boolean isNonZeroInteger(Expr expr) {
+        return unwrap(expr) instanceof Expr.Literal literal && literal.value instanceof Integer i && i != 0;
+    }
+
+    // Tipo estático de una expresión (ya verificada) con los tipos de las declaraciones vistas
+    private Type typeOf(Expr expr) {
+        return switch (expr) {
+            case Expr.Literal e -> switch (e.value) {
+                case Integer i -> Type.LONG;
+                case Double d -> Type.DOUBLE;
+                case Boolean b -> Type.BOOLEAN;
+                default -> Type.STRING;
+            };
+            case Expr.Variable e -> varTypes.getOrDefault(key(e.depth, e.slot), Type.LONG);
+            case Expr.Grouping e -> typeOf(e.expression);
+            case Expr.Unary e -> Type.unary(e.operator.type, typeOf(e.right));
+            case Expr.Binary e -> Type.binary(e.operator.type, typeOf(e.left), typeOf(e.right));
+            default -> Type.ERROR;
+        };
+    }
+
+    // Texto que identifica la expresión: variables por (depth, slot), literales con su clase
+    private static String shape(Expr expr) {
+        return switch (expr) {
+            case Expr.Literal e -> e.value.getClass().getSimpleName() + ":" + e.value;
+            case Expr.Variable e -> "v" + e.depth + "." + e.slot;
+            case Expr.Grouping e -> shape(e.expression);
+            case Expr.Unary e -> "(" + e.operator.type + " " + shape(e.right) + ")";
+            case Expr.Binary e -> "(" + shape(e.left) + " " + e.operator.type + " " + shape(e.right) + ")";
+            default -> "?";
+        };
+    }
+
+    private static int line(Expr expr) {
+        return switch (expr) {
+            case Expr.Variable e -> e.name.line;
+            case Expr.Binary e -> e.operator.line;
+            case Expr.Unary e -> e.operator.line;
+            case Expr.Grouping e -> line(e.expression);
+            default -> 0;
+        };
+    }
+}
@@ -1,28 +1,129 @@
 package minilang;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
     public static void main(String[] args) {
-        if (args.length == 0) {
-            System.out.println("Uso: java minilang.Main <ruta_del_archivo.min>");
+        String engine = null; // null: solo análisis
+        boolean stream = false;
+        boolean parallel = false;
+        boolean batch = false;
+        boolean showIr = false;
+        int jobs = 4 * Runtime.getRuntime().availableProcessors();
+        String summaryPath = null;
+        int maxErrors = Integer.MAX_VALUE; // por fase (sintáctica y semántica)
+        PhaseMetrics metrics = PhaseMetrics.DISABLED;
+        String metricsPath = null; // null: el reporte de --metrics va a la consola
+        String cachePath = null;
+        long cacheBytes = 256L << 20;
+        String filePath = null;
+        List<String> paths = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--batch")) {
+                batch = true;
+            } else if (arg.startsWith("--jobs=")) {
+                jobs = Integer.parseInt(arg.substring("--jobs=".length()));
+            } else if (arg.startsWith("--max-errors=")) {
+                maxErrors = Integer.parseInt(arg.substring("--max-errors=".length()));
+            } else if (arg.equals("--fail-fast")) {
+                maxErrors = 1;
+            } else if (arg.startsWith("--summary=")) {
+                summaryPath = arg.substring("--summary=".length());
+            } else if (arg.equals("--metrics")) {
+                metrics = PhaseMetrics.create();
+            } else if (arg.startsWith("--metrics=")) {
+                metrics = PhaseMetrics.create();
+                metricsPath = arg.substring("--metrics=".length());
+            } else if (arg.startsWith("--cache=")) {
+                cachePath = arg.substring("--cache=".length());
+            } else if (arg.startsWith("--cache-size=")) {
+                cacheBytes = Long.parseLong(arg.substring("--cache-size=".length())) << 20;
+            } else if (arg.equals("--ir")) {
+                showIr = true;
+            } else if (arg.equals("--stream")) {
+                stream = true;
+            } else if (arg.equals("--parallel")) {
+                parallel = true;
+            } else if (arg.equals("--run")) {
+                engine = "interp";
+            } else if (arg.startsWith("--run=")) {
+                engine = arg.substring("--run=".length());
+            } else {
+                filePath = arg;
+                paths.add(arg);
+            }
+        }
+
+        if (filePath == null) {
+            System.out.println("Uso: java minilang.Main [--run[=interp|vm|jvm|ssa] | --stream | --parallel] [--ir] [--max-errors=N | --fail-fast] [--metrics[=<archivo.json>]] [--cache=<dir> [--cache-size=MB]] <ruta_del_archivo.min>");
+            System.out.println("     java minilang.Main --batch [--jobs=N] [--max-errors=N | --fail-fast] [--summary=<archivo>] [--cache=<dir> [--cache-size=MB]] <archivo.min | directorio>...");
+            return;
+        }
+
+        CompilationCache cache = null;
+        if (cachePath != null) {
+            try {
+                cache = CompilationCache.open(Path.of(cachePath), cacheBytes);
+            } catch (IOException e) {
+                System.err.println(" No se pudo abrir la caché (se sigue sin ella): " + e.getMessage());
+            }
+        }
+
+        if (batch) {
+            batchCompile(paths, jobs, maxErrors, summaryPath, cache);
+            return;
+        }
+
+        if (stream) {
+            streamLex(filePath);
+            return;
+        }
+        if (parallel) {
+            parallelLex(filePath);
             return;
         }
 
-        String filePath = args[0];
         System.out.println(" Analizando archivo: " + filePath);
 
         try {
             // === Lectura del archivo fuente ===
-            String source = Files.readString(Path.of(filePath));
+            byte[] bytes = Files.readAllBytes(Path.of(filePath));
+
+            // === Caché === (solo el análisis: para ejecutar o mostrar la SSA hace falta el AST)
+            String cacheKey = null;
+            if (cache != null && engine == null && !showIr && !metrics.isEnabled()) {
+                cacheKey = CompilationCache.key(bytes, "main --max-errors=" + maxErrors);
+                CompilationCache.Entry cached = cache.get(cacheKey);
+                if (cached != null) {
+                    printCached(cached, maxErrors);
+                    return;
+                }
+            }
+            // Como Files.readString: un archivo que no es UTF-8 válido es un error de lectura
+            String source = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
 
             // === Análisis Léxico ===
-            Lexer lexer = new Lexer(source);
+            Lexer lexer = new Lexer(source).keepComments(); // el parser no los ve; se muestran aparte
+            metrics.begin(PhaseMetrics.Phase.LEXER);
             lexer.tokenize();
             List<Token> tokens = lexer.getTokens();
+            metrics.end(tokens.size(), 0, lexer.getErrors().size());
 
             System.out.println("\n === ANÁLISIS LÉXICO ===");
             if (tokens.isEmpty()) {
@@ -32,59 +133,345 @@ public class Main {
                     System.out.println(token);
                 }
             }
-
-            // Mostrar errores léxicos
-            System.out.println("\n === ERRORES LÉXICOS ===");
-            if (lexer.getErrors().isEmpty()) {
-                System.out.println(" No se encontraron errores léxicos.");
-            } else {
-                for (LexError e : lexer.getErrors()) {
-                    System.out.println(e);
+            if (!lexer.getComments().isEmpty()) {
+                System.out.println("\n === COMENTARIOS ===");
+                for (Token comment : lexer.getComments()) {
+                    System.out.println(comment);
                 }
-                // Si hay errores léxicos graves, no seguir
-                System.out.println("\n Se detiene el análisis por errores léxicos.");
+            }
+
+            // Mostrar errores léxicos; si los hay, no seguir
+            if (printLexErrors(lexer.getErrors())) {
+                store(cache, cacheKey, new CompilationCache.Entry(tokens.size(), lexer.getErrors(), List.of(), List.of(),
+                        List.of(), List.of()));
                 return;
             }
 
             // === Análisis Sintáctico ===
-            Parser parser = new Parser(tokens);
+            Parser parser = new Parser(tokens).setMaxErrors(maxErrors);
+            metrics.begin(PhaseMetrics.Phase.PARSER);
             List<Stmt> statements = parser.parse();
+            metrics.end(tokens.size(), metrics.isEnabled() ? PhaseMetrics.countNodes(statements) : 0, parser.getErrors().size());
 
-            System.out.println("\n === ANÁLISIS SINTÁCTICO ===");
-            if (parser.getErrors().isEmpty()) {
-                System.out.println(" Estructura sintáctica correcta. No se encontraron errores.");
-            } else {
-                for (SyntaxError e : parser.getErrors()) {
-                    System.out.println(e);
-                }
-                System.out.println("\n Se detiene el análisis por errores sintácticos.");
+            if (printSyntaxErrors(parser.getErrors(), maxErrors)) {
+                store(cache, cacheKey, new CompilationCache.Entry(tokens.size(), List.of(), parser.getErrors(), List.of(),
+                        List.of(), List.of()));
                 return;
             }
 
             // === Análisis Semántico ===
-            SemanticAnalyzer semantic = new SemanticAnalyzer();
-            semantic.analyze(statements);
+            SemanticAnalyzer semantic = new SemanticAnalyzer().setMaxErrors(maxErrors);
+            metrics.begin(PhaseMetrics.Phase.SEMANTIC);
+            semantic.analyzeParallel(statements, ForkJoinPool.commonPool());
+            metrics.end(0, 0, semantic.getErrors().size());
 
-            System.out.println("\n === ANÁLISIS SEMÁNTICO ===");
+            // === Optimización === (solo con un programa válido; también produce las advertencias)
+            ConstantFolder folder = new ConstantFolder();
+            DeadCodeEliminator eliminator = new DeadCodeEliminator(semantic.getSymbolTable());
             if (semantic.getErrors().isEmpty()) {
-                System.out.println(" No se encontraron errores semánticos.");
-            } else {
-                for (SemanticError e : semantic.getErrors()) {
-                    System.out.println(e);
-                }
+                metrics.begin(PhaseMetrics.Phase.OPTIMIZER);
+                statements = eliminator.eliminate(folder.fold(statements));
+                metrics.end(0, metrics.isEnabled() ? PhaseMetrics.countNodes(statements) : 0, 0);
             }
 
+            printSemantic(semantic.getErrors(), eliminator.getWarnings(), maxErrors);
+
             // === Tabla de Símbolos ===
             System.out.println("\n === TABLA DE SÍMBOLOS ===");
             semantic.getSymbolTable().printTable();
 
             System.out.println("\n Análisis completo finalizado con éxito.");
+            store(cache, cacheKey, new CompilationCache.Entry(tokens.size(), List.of(), List.of(), semantic.getErrors(),
+                    eliminator.getWarnings(), semantic.getSymbolTable().getSymbols()));
+
+            // === Optimización de ciclos === (declara temporales: va después de mostrar la tabla de símbolos)
+            LoopOptimizer loops = new LoopOptimizer(semantic.getSymbolTable());
+            if ((engine != null || showIr) && semantic.getErrors().isEmpty()) {
+                metrics.begin(PhaseMetrics.Phase.OPTIMIZER);
+                statements = loops.optimize(statements);
+                metrics.end(0, metrics.isEnabled() ? PhaseMetrics.countNodes(statements) : 0, 0);
+            }
+
+            // === Representación intermedia (SSA) ===
+            Ir.Function ir = null;
+            if ((showIr || "ssa".equals(engine)) && semantic.getErrors().isEmpty()) {
+                ir = new IrBuilder(semantic.getSymbolTable()).build(statements);
+                PassManager passes = PassManager.standard();
+                passes.run(ir);
+                System.out.println("\n === REPRESENTACIÓN INTERMEDIA (SSA) ===");
+                if (showIr) System.out.print(ir);
+                System.out.println(passes.report());
+            }
+
+            // === Ejecución ===
+            if (engine != null) {
+                if (!semantic.getErrors().isEmpty()) {
+                    System.out.println("\n No se ejecuta el programa por errores semánticos.");
+                    return;
+                }
+
+                System.out.println("\n === OPTIMIZACIÓN ===");
+                System.out.println(folder.report());
+                System.out.println(eliminator.report());
+                System.out.println(loops.report());
+
+                execute(statements, ir, semantic.getSymbolTable(), engine);
+            }
 
         } catch (IOException e) {
             System.err.println(" Error al leer el archivo: " + e.getMessage());
         } catch (Exception e) {
             System.err.println(" Error general: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            // También se informa cuando el análisis se detuvo por errores
+            if (metrics.isEnabled()) writeMetrics(metrics, metricsPath);
+        }
+    }
+
+    // Las secciones de errores, iguales para un análisis nuevo y para uno tomado de la caché. Las de léxico y
+    // sintaxis devuelven true si hubo errores: el análisis se detiene ahí.
+    private static boolean printLexErrors(List<LexError> errors) {
+        System.out.println("\n === ERRORES LÉXICOS ===");
+        if (errors.isEmpty()) {
+            System.out.println(" No se encontraron errores léxicos.");
+            return false;
+        }
+        for (LexError e : errors) {
+            System.out.println(e);
+        }
+        System.out.println("\n Se detiene el análisis por errores léxicos.");
+        return true;
+    }
+
+    private static boolean printSyntaxErrors(List<SyntaxError> errors, int maxErrors) {
+        System.out.println("\n === ANÁLISIS SINTÁCTICO ===");
+        if (errors.isEmpty()) {
+            System.out.println(" Estructura sintáctica correcta. No se encontraron errores.");
+            return false;
+        }
+        for (SyntaxError e : errors) {
+            System.out.println(e);
+        }
+        if (errors.size() >= maxErrors) printErrorLimit(maxErrors);
+        System.out.println("\n Se detiene el análisis por errores sintácticos.");
+        return true;
+    }
+
+    private static void printSemantic(List<SemanticError> errors, List<SemanticWarning> warnings, int maxErrors) {
+        System.out.println("\n === ANÁLISIS SEMÁNTICO ===");
+        if (errors.isEmpty()) {
+            System.out.println(" No se encontraron errores semánticos.");
+        } else {
+            for (SemanticError e : errors) {
+                System.out.println(e);
+            }
+            if (errors.size() >= maxErrors) printErrorLimit(maxErrors);
+        }
+        for (SemanticWarning w : warnings) {
+            System.out.println(w);
+        }
+    }
+
+    // Resultado guardado: las mismas secciones, sin la lista de tokens ni los comentarios
+    private static void printCached(CompilationCache.Entry entry, int maxErrors) {
+        System.out.println("\n === CACHÉ ===");
+        System.out.println(" El archivo no cambió (" + entry.tokens() + " tokens): se usa el resultado guardado, sin repetir"
+                + " los análisis léxico, sintáctico y semántico.");
+        if (printLexErrors(entry.lexErrors())) return;
+        if (printSyntaxErrors(entry.syntaxErrors(), maxErrors)) return;
+        printSemantic(entry.semanticErrors(), entry.warnings(), maxErrors);
+
+        System.out.println("\n === TABLA DE SÍMBOLOS ===");
+        SymbolTable.printTable(entry.symbols());
+
+        System.out.println("\n Análisis completo finalizado con éxito.");
+    }
+
+    // Un error al escribir la caché no cambia el resultado del análisis
+    private static void store(CompilationCache cache, String key, CompilationCache.Entry entry) {
+        if (key == null) return;
+        try {
+            cache.put(key, entry);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println(" No se pudo guardar en la caché: " + e.getMessage());
         }
     }
+
+    private static void printErrorLimit(int maxErrors) {
+        System.out.println(" Se alcanzó el límite de " + maxErrors + (maxErrors == 1 ? " error" : " errores")
+                + "; el resto del archivo no se analizó.");
+    }
+
+    private static void writeMetrics(PhaseMetrics metrics, String metricsPath) {
+        if (metricsPath == null) {
+            System.out.println("\n === MÉTRICAS POR FASE ===");
+            metrics.writeJson(System.out);
+            return;
+        }
+        try (PrintStream out = new PrintStream(new FileOutputStream(metricsPath), false, StandardCharsets.UTF_8)) {
+            metrics.writeJson(out);
+        } catch (IOException e) {
+            System.err.println(" Error al escribir las métricas: " + e.getMessage());
+        }
+    }
+
+    // Solo análisis léxico, leyendo el archivo de a partes: la memoria no depende del tamaño del archivo
+    private static void streamLex(String filePath) {
+        System.out.println(" Analizando archivo (léxico en streaming): " + filePath);
+        System.out.println("\n === ANÁLISIS LÉXICO ===");
+
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            Lexer lexer = new Lexer(channel);
+            Token token;
+            do {
+                token = lexer.nextToken();
+                System.out.println(token);
+                count++;
+            } while (token.type != TokenType.EOF);
+
+            System.out.println("\n === ERRORES LÉXICOS ===");
+            if (lexer.getErrors().isEmpty()) {
+                System.out.println(" No se encontraron errores léxicos.");
+            } else {
+                for (LexError e : lexer.getErrors()) {
+                    System.out.println(e);
+                }
+            }
+            System.out.println("\n Tokens: " + count);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println(" Error al leer el archivo: " + e.getMessage());
+        }
+    }
+
+    // Léxico, sintáctico y semántico de muchos archivos a la vez; imprime (o guarda) un resumen
+    private static void batchCompile(List<String> paths, int jobs, int maxErrors, String summaryPath, CompilationCache cache) {
+        try {
+            List<Path> roots = new ArrayList<>();
+            for (String path : paths) roots.add(Path.of(path));
+            List<Path> files = BatchCompiler.collect(roots);
+            System.out.println(" Compilando " + files.size() + " archivos (hasta " + jobs + " a la vez)");
+
+            long start = System.nanoTime();
+            List<BatchCompiler.FileResult> results = new BatchCompiler(jobs, maxErrors, cache).compile(files);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            if (summaryPath == null) {
+                BatchCompiler.writeSummary(results, seconds, System.out);
+            } else {
+                try (PrintStream out = new PrintStream(new FileOutputStream(summaryPath), false, StandardCharsets.UTF_8)) {
+                    BatchCompiler.writeSummary(results, seconds, out);
+                }
+                long failed = results.stream().filter(r -> r.status() != BatchCompiler.Status.OK).count();
+                System.out.printf(" %d archivos, %d con errores, %.3f s. Resumen en %s%n", results.size(), failed, seconds, summaryPath);
+            }
+            if (cache != null) System.out.println(cache.report());
+        } catch (IOException e) {
+            System.err.println(" Error al leer los archivos: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Solo análisis léxico en paralelo sobre el archivo mapeado en memoria; informa errores y cantidad de tokens
+    private static void parallelLex(String filePath) {
+        System.out.println(" Analizando archivo (léxico en paralelo): " + filePath);
+
+        try {
+            long start = System.nanoTime();
+            ParallelLexer lexer = ParallelLexer.open(Path.of(filePath), ForkJoinPool.commonPool());
+            lexer.tokenize();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.println("\n === ERRORES LÉXICOS ===");
+            if (lexer.getErrors().isEmpty()) {
+                System.out.println(" No se encontraron errores léxicos.");
+            } else {
+                for (LexError e : lexer.getErrors()) {
+                    System.out.println(e);
+                }
+            }
+            System.out.printf("%n Tokens: %d en %.3f s (%d trozos, %d reparados, %d hilos)%n",
+                    lexer.getTokens().size(), seconds, lexer.getChunks(), lexer.getRepairs(),
+                    ForkJoinPool.commonPool().getParallelism());
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println(" Error al leer el archivo: " + e.getMessage());
+        }
+    }
+
+    private static void execute(List<Stmt> statements, Ir.Function ir, SymbolTable symbols, String engine) {
+        System.out.println("\n === EJECUCIÓN (" + engine + ") ===");
+        System.out.flush();
+
+        // Salida con buffer: System.out vacía el buffer en cada println
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        ProgramIO io = new ProgramIO(in, out);
+
+        long start = System.nanoTime();
+        long executed = 0;
+        try {
+            String selected = engine;
+            JvmCompiler.Program jvmProgram = null;
+            if (engine.equals("jvm")) {
+                try {
+                    jvmProgram = new JvmCompiler(symbols).compile(statements);
+                } catch (JvmCompiler.TooLargeException e) {
+                    // La VM no tiene esos límites y ejecuta el mismo programa
+                    System.out.println(" " + e.getMessage());
+                    System.out.println(" Se ejecuta con la VM (--run=vm).");
+                    System.out.flush();
+                    selected = "vm";
+                }
+            }
+            switch (selected) {
+                case "jvm" -> {
+                    try {
+                        jvmProgram.run(io);
+                    } finally {
+                        executed = jvmProgram.getExecutedStatements();
+                    }
+                }
+                case "vm" -> {
+                    VmProgram program = new VmCompiler(symbols).compile(statements);
+                    VirtualMachine vm = new VirtualMachine(io);
+                    try {
+                        vm.run(program);
+                    } finally {
+                        executed = vm.getExecutedStatements();
+                    }
+                }
+                case "ssa" -> {
+                    IrInterpreter interpreter = new IrInterpreter(io);
+                    try {
+                        interpreter.run(ir);
+                    } finally {
+                        executed = interpreter.getExecutedStatements();
+                    }
+                }
+                case "interp" -> {
+                    Interpreter interpreter = new Interpreter(symbols, io);
+                    try {
+                        interpreter.interpret(statements);
+                    } finally {
+                        executed = interpreter.getExecutedStatements();
+                    }
+                }
+                default -> {
+                    System.out.println(" Motor de ejecución desconocido: " + engine);
+                    return;
+                }
+            }
+        } catch (RuntimeError e) {
+            io.flush();
+            System.out.println(e);
+        }
+        long elapsed = System.nanoTime() - start;
+        io.flush();
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("%n Sentencias ejecutadas: %d en %.3f s (%.0f sentencias/s)%n",
+                executed, seconds, seconds > 0 ? executed / seconds : 0.0);
+    }
 }
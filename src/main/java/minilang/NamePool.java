@@ -0,0 +1,95 @@
+//Pool de nombres: cada identificador distinto se guarda una sola vez y los tokens comparten ese String.
+//La búsqueda se hace sobre el texto original (offsets), así que solo se crea un String la primera vez.
+
+package minilang;
+
+import java.nio.ByteBuffer;
+
+public class NamePool {
+    private String[] names = new String[256]; // tabla de direccionamiento abierto (sondeo lineal)
+    private int[] hashes = new int[256];
+    private int size = 0;
+
+    /** Devuelve el String compartido para source[start, end). */
+    public String intern(String source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        int length = end - start;
+        int mask = names.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            String name = names[slot];
+            if (name == null) {
+                return insert(slot, hash, source.substring(start, end));
+            }
+            if (hashes[slot] == hash && name.length() == length && source.regionMatches(start, name, 0, length)) {
+                return name;
+            }
+        }
+    }
+
+    /** Igual que intern(String, int, int) para texto ASCII guardado en bytes (un byte por carácter). */
+    public String intern(ByteBuffer source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.get(i);
+        }
+        int length = end - start;
+        int mask = names.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            String name = names[slot];
+            if (name == null) {
+                char[] chars = new char[length];
+                for (int i = 0; i < length; i++) chars[i] = (char) source.get(start + i);
+                return insert(slot, hash, new String(chars));
+            }
+            if (hashes[slot] == hash && name.length() == length && asciiEquals(source, start, name)) {
+                return name;
+            }
+        }
+    }
+
+    public String intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    /** Cantidad de nombres distintos guardados. */
+    public int size() {
+        return size;
+    }
+
+    private static boolean asciiEquals(ByteBuffer source, int start, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (source.get(start + i) != name.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // El hash de String tiene poca variación en los bits bajos para nombres cortos
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private String insert(int slot, int hash, String name) {
+        names[slot] = name;
+        hashes[slot] = hash;
+        if (++size * 2 > names.length) rehash();
+        return name;
+    }
+
+    private void rehash() {
+        String[] oldNames = names;
+        int[] oldHashes = hashes;
+        names = new String[oldNames.length * 2];
+        hashes = new int[oldNames.length * 2];
+        int mask = names.length - 1;
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] == null) continue;
+            int slot = spread(oldHashes[i]) & mask;
+            while (names[slot] != null) slot = (slot + 1) & mask;
+            names[slot] = oldNames[i];
+            hashes[slot] = oldHashes[i];
+        }
+    }
+}
@@ -0,0 +1,236 @@
+//Destino de los nodos que arma Parser. La gramática es una sola: Parser le pasa a un NodeBuilder índices de token
+//del TokenSource y los nodos hijos ya armados, y el NodeBuilder crea el nodo y devuelve un int que lo representa.
+//Tree arma el árbol de objetos Stmt/Expr y Flat llena un FlatAst.
+//
+//Los nodos se piden en postorden (los hijos antes que el padre) y cada hijo lo usa un solo padre, así que los nodos
+//vivos siempre son los últimos creados. Tree aprovecha eso para guardarlos en una pila que no crece con el programa.
+
+package minilang;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+interface NodeBuilder {
+    int var(int typeToken, int name);
+    int expression(int expression);
+    int assign(int name, int operator, int value);
+    int read(int name);
+    int write(int expression);
+    int ifStmt(int condition, int thenBranch, int elseBranch); // elseBranch -1 si no hay
+    int whileStmt(int condition, int body);
+    int breakStmt(int keyword);
+    int binary(int left, int operator, int right);
+    int unary(int operator, int right);
+    int literal(int constant);
+    int variable(int name);
+    int grouping(int expression);
+
+    /** Lista de sentencias vacía (para un bloque o el nivel superior). */
+    int list();
+
+    void append(int list, int stmt);
+
+    /** Bloque con las sentencias de la lista; opensScope es false para el grupo de "long a, b;". */
+    int block(int list, boolean opensScope);
+
+    /** Árbol de objetos: el int es la posición del nodo en una pila de nodos pendientes. */
+    final class Tree implements NodeBuilder {
+        private final TokenSource tokens;
+        private Object[] stack = new Object[64];
+        private int top = 0;
+
+        Tree(TokenSource tokens) {
+            this.tokens = tokens;
+        }
+
+        /** Las sentencias de una lista armada con list()/append(). */
+        @SuppressWarnings("unchecked")
+        List<Stmt> statements(int list) {
+            return (List<Stmt>) stack[list];
+        }
+
+        Stmt stmt(int node) {
+            return (Stmt) stack[node];
+        }
+
+        /** Descarta los nodos pendientes, para armar otra sentencia suelta desde cero. */
+        void reset() {
+            top = 0;
+        }
+
+        private Expr expr(int node) {
+            return (Expr) stack[node];
+        }
+
+        private int push(Object node) {
+            if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+            stack[top] = node;
+            return top++;
+        }
+
+        // El nodo ocupa el lugar de su primer hijo; los hijos (y lo que dejó encima un error) ya no se usan
+        private int replace(int firstChild, Object node) {
+            stack[firstChild] = node;
+            top = firstChild + 1;
+            return firstChild;
+        }
+
+        @Override
+        public int var(int typeToken, int name) {
+            return push(new Stmt.Var(tokens.token(typeToken), tokens.token(name)));
+        }
+
+        @Override
+        public int expression(int expression) {
+            return replace(expression, new Stmt.Expression(expr(expression)));
+        }
+
+        @Override public int read(int name) { return push(new Stmt.Read(tokens.token(name))); }
+        @Override public int write(int expression) { return replace(expression, new Stmt.Write(expr(expression))); }
+        @Override public int breakStmt(int keyword) { return push(new Stmt.Break(tokens.token(keyword))); }
+        @Override public int variable(int name) { return push(new Expr.Variable(tokens.token(name))); }
+
+        @Override
+        public int grouping(int expression) {
+            return replace(expression, new Expr.Grouping(expr(expression)));
+        }
+
+        @Override
+        public int unary(int operator, int right) {
+            return replace(right, new Expr.Unary(tokens.token(operator), expr(right)));
+        }
+
+        @Override
+        public int assign(int name, int operator, int value) {
+            return replace(value, new Stmt.Assign(tokens.token(name), tokens.token(operator), expr(value)));
+        }
+
+        @Override
+        public int ifStmt(int condition, int thenBranch, int elseBranch) {
+            Stmt elseStmt = elseBranch < 0 ? null : stmt(elseBranch);
+            return replace(condition, new Stmt.If(expr(condition), stmt(thenBranch), elseStmt));
+        }
+
+        @Override
+        public int whileStmt(int condition, int body) {
+            return replace(condition, new Stmt.While(expr(condition), stmt(body)));
+        }
+
+        @Override
+        public int binary(int left, int operator, int right) {
+            return replace(left, new Expr.Binary(expr(left), tokens.token(operator), expr(right)));
+        }
+
+        @Override
+        public int literal(int constant) {
+            return push(new Expr.Literal(switch (tokens.type(constant)) {
+                case INTEGER_CONST -> Integer.parseInt(tokens.lexeme(constant));
+                case REAL_CONST -> Double.parseDouble(tokens.lexeme(constant));
+                case BOOLEAN_CONST -> Boolean.parseBoolean(tokens.lexeme(constant));
+                default -> tokens.lexeme(constant);
+            }));
+        }
+
+        @Override
+        public int list() {
+            return push(new ArrayList<Stmt>());
+        }
+
+        @Override
+        public void append(int list, int stmt) {
+            statements(list).add(stmt(stmt));
+            top = list + 1;
+        }
+
+        @Override
+        public int block(int list, boolean opensScope) {
+            return replace(list, new Stmt.Block(statements(list), opensScope));
+        }
+    }
+
+    /** AST plano: el int es el índice del nodo en el FlatAst. */
+    final class Flat implements NodeBuilder {
+        private final FlatAst ast;
+        // Listas abiertas (también forman una pila): primera y última sentencia de cada una
+        private int[] heads = new int[16];
+        private int[] tails = new int[16];
+        private int lists = 0;
+
+        Flat(FlatAst ast) {
+            this.ast = ast;
+        }
+
+        /** Primera sentencia de una lista armada con list()/append() (-1 si quedó vacía). */
+        int first(int list) {
+            return heads[list];
+        }
+
+        @Override public int var(int typeToken, int name) { return ast.add(FlatAst.Kind.VAR, name, typeToken, -1, -1); }
+
+        @Override
+        public int expression(int expression) {
+            return ast.add(FlatAst.Kind.EXPRESSION, -1, expression, -1, -1);
+        }
+
+        @Override
+        public int assign(int name, int operator, int value) {
+            return ast.add(FlatAst.Kind.ASSIGN, name, value, -1, -1);
+        }
+
+        @Override public int read(int name) { return ast.add(FlatAst.Kind.READ, name, -1, -1, -1); }
+        @Override public int write(int expression) { return ast.add(FlatAst.Kind.WRITE, -1, expression, -1, -1); }
+
+        @Override
+        public int whileStmt(int condition, int body) {
+            return ast.add(FlatAst.Kind.WHILE, -1, condition, body, -1);
+        }
+
+        @Override public int breakStmt(int keyword) { return ast.add(FlatAst.Kind.BREAK, keyword, -1, -1, -1); }
+
+        @Override
+        public int binary(int left, int operator, int right) {
+            return ast.add(FlatAst.Kind.BINARY, operator, left, right, -1);
+        }
+
+        @Override
+        public int unary(int operator, int right) {
+            return ast.add(FlatAst.Kind.UNARY, operator, right, -1, -1);
+        }
+
+        @Override public int literal(int constant) { return ast.add(FlatAst.Kind.LITERAL, constant, -1, -1, -1); }
+        @Override public int variable(int name) { return ast.add(FlatAst.Kind.VARIABLE, name, -1, -1, -1); }
+        @Override public int grouping(int expression) { return ast.add(FlatAst.Kind.GROUPING, -1, expression, -1, -1); }
+
+        @Override
+        public int ifStmt(int condition, int thenBranch, int elseBranch) {
+            return ast.add(FlatAst.Kind.IF, -1, condition, thenBranch, elseBranch);
+        }
+
+        // Una lista que un error dejó sin cerrar se descarta cuando se cierra (o se usa) una de más abajo
+        @Override
+        public int list() {
+            if (lists == heads.length) {
+                heads = Arrays.copyOf(heads, lists * 2);
+                tails = Arrays.copyOf(tails, lists * 2);
+            }
+            heads[lists] = -1;
+            tails[lists] = -1;
+            return lists++;
+        }
+
+        @Override
+        public void append(int list, int stmt) {
+            if (heads[list] < 0) heads[list] = stmt;
+            else ast.setNext(tails[list], stmt);
+            tails[list] = stmt;
+            lists = list + 1;
+        }
+
+        @Override
+        public int block(int list, boolean opensScope) {
+            lists = list;
+            return ast.add(FlatAst.Kind.BLOCK, -1, heads[list], opensScope ? 1 : 0, -1);
+        }
+    }
+}
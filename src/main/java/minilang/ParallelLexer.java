@@ -0,0 +1,160 @@
+//Análisis léxico en paralelo para archivos grandes: el texto se corta en trozos en los saltos de línea y cada
+//trozo se tokeniza con un ByteLexer en un ForkJoinPool. El resultado es idéntico al de Lexer.tokenize().
+//
+//Cada trozo se analiza suponiendo que empieza fuera de una cadena o comentario (especulación). Si el trozo
+//anterior termina dentro de una cadena o un comentario /* sin cerrar, la suposición era falsa: se descarta el
+//resultado del trozo y se vuelve a analizar desde el comienzo de esa cadena o comentario (reparación).
+
+package minilang;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class ParallelLexer {
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;   // más trozos que hilos para repartir mejor la carga
+
+    private final ByteBuffer buffer;
+    private final ForkJoinPool pool;
+    private final int minChunkSize;
+    private final List<Token> tokens = new ArrayList<>();
+    private final List<LexError> errors = new ArrayList<>();
+    private int chunks = 0;
+    private int repairs = 0;
+
+    public ParallelLexer(ByteBuffer buffer, ForkJoinPool pool) {
+        this(buffer, pool, MIN_CHUNK_SIZE);
+    }
+
+    public ParallelLexer(ByteBuffer buffer) {
+        this(buffer, ForkJoinPool.commonPool());
+    }
+
+    ParallelLexer(ByteBuffer buffer, ForkJoinPool pool, int minChunkSize) {
+        this.buffer = buffer;
+        this.pool = pool;
+        this.minChunkSize = minChunkSize;
+    }
+
+    /** Mapea el archivo en memoria (solo lectura). */
+    public static ParallelLexer open(Path path, ForkJoinPool pool) throws IOException {
+        return new ParallelLexer(ByteLexer.map(path), pool);
+    }
+
+    public List<Token> getTokens() {
+        return tokens;
+    }
+
+    public List<LexError> getErrors() {
+        return errors;
+    }
+
+    /** Cantidad de trozos en que se dividió el texto. */
+    public int getChunks() {
+        return chunks;
+    }
+
+    /** Cantidad de trozos que hubo que volver a analizar porque empezaban dentro de una cadena o comentario. */
+    public int getRepairs() {
+        return repairs;
+    }
+
+    public void tokenize() {
+        int[] bounds = split();
+        chunks = bounds.length - 1;
+
+        // 1) Saltos de línea de cada trozo: con eso se sabe en qué línea empieza cada uno
+        List<ForkJoinTask<Integer>> counts = new ArrayList<>(chunks);
+        for (int k = 0; k < chunks; k++) {
+            int from = bounds[k];
+            int to = bounds[k + 1];
+            counts.add(pool.submit(() -> countNewlines(from, to)));
+        }
+        int[] lines = new int[chunks];
+        int line = 1;
+        for (int k = 0; k < chunks; k++) {
+            lines[k] = line;
+            line += counts.get(k).join();
+        }
+
+        // 2) Análisis especulativo de todos los trozos (cada uno empieza en una línea nueva: columna 1)
+        List<ForkJoinTask<ByteLexer>> lexers = new ArrayList<>(chunks);
+        for (int k = 0; k < chunks; k++) {
+            ByteLexer lexer = new ByteLexer(buffer, new NamePool(), bounds[k], bounds[k + 1], lines[k], 1);
+            lexers.add(pool.submit(() -> {
+                lexer.scan();
+                return lexer;
+            }));
+        }
+
+        // 3) Unión en orden, reparando los trozos cuya especulación falló
+        ByteLexer previous = null;
+        for (int k = 0; k < chunks; k++) {
+            ByteLexer lexer;
+            if (previous != null && previous.unterminated) {
+                lexers.get(k).quietlyJoin(); // el resultado (o el error) de la especulación no sirve
+                lexer = repair(previous, bounds[k + 1]);
+            } else {
+                lexer = lexers.get(k).join();
+            }
+            tokens.addAll(lexer.getTokens());
+            errors.addAll(lexer.getErrors());
+            previous = lexer;
+        }
+
+        if (previous == null) {
+            tokens.add(new Token(TokenType.EOF, "", 1, 1));
+        } else {
+            tokens.add(new Token(TokenType.EOF, "", previous.getLine(), previous.getColumn()));
+        }
+    }
+
+    // El trozo anterior quedó dentro de una cadena o comentario: se analiza de nuevo desde su comienzo hasta el
+    // final del trozo actual. Si vuelve a quedar sin cerrar, el siguiente trozo también se repara.
+    private ByteLexer repair(ByteLexer previous, int limit) {
+        repairs++;
+        errors.remove(errors.size() - 1); // el error "sin cierre" no era tal
+        ByteLexer lexer = new ByteLexer(buffer, new NamePool(), previous.unterminatedPosition, limit,
+                previous.unterminatedLine, previous.unterminatedColumn);
+        lexer.scan();
+        return lexer;
+    }
+
+    // Límites de los trozos: cada corte queda justo después de un '\n', así que nunca parte un token
+    // (fuera de cadenas y comentarios) ni un carácter UTF-8
+    private int[] split() {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        int wanted = pool.getParallelism() * CHUNKS_PER_THREAD;
+        int chunkSize = Math.max(minChunkSize, (limit - start) / wanted);
+
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(start);
+        int position = start;
+        while (limit - position > chunkSize) {
+            int cut = position + chunkSize;
+            while (cut < limit && buffer.get(cut - 1) != '\n') cut++;
+            if (cut >= limit) break;
+            bounds.add(cut);
+            position = cut;
+        }
+        if (limit > start) bounds.add(limit);
+
+        int[] result = new int[bounds.size()];
+        for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+        return result;
+    }
+
+    private int countNewlines(int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n') count++;
+        }
+        return count;
+    }
+}
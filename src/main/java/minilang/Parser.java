@@ -5,58 +5,133 @@ import java.util.Arrays;
 import java.util.List;
 
 public class Parser {
-    private final List<Token> tokens;
+    // Los tipos se leen del buffer; solo se crean objetos Token para los que quedan en el AST
+    private final TokenSource tokens;
+    private NodeBuilder nodes;         // arma el árbol de objetos (parse) o el FlatAst (parseFlat)
+    private NodeBuilder.Tree topLevel; // el de parseTopLevel(), que se reutiliza entre sentencias
     private int current = 0;
     private final List<SyntaxError> errors = new ArrayList<>();
+    private int maxErrors = Integer.MAX_VALUE;
+    private boolean truncated = false; // se alcanzó maxErrors y se dejó de analizar
+    private int depth = 0;             // bloques { } abiertos en la posición actual
+
+    // Tokens donde puede empezar una sentencia: la recuperación de errores retoma el análisis en ellos
+    private static final boolean[] STATEMENT_START = new boolean[TokenType.values().length];
+    static {
+        for (TokenType t : new TokenType[] {TokenType.LONG, TokenType.DOUBLE, TokenType.IF, TokenType.WHILE,
+                TokenType.READ, TokenType.WRITE, TokenType.BREAK}) {
+            STATEMENT_START[t.ordinal()] = true;
+        }
+    }
 
-    public Parser(List<Token> tokens) { this.tokens = tokens; }
+    public Parser(List<Token> tokens) { this(new TokenSource.OfList(tokens)); }
+
+    public Parser(TokenSource tokens) { this.tokens = tokens; }
 
     public List<SyntaxError> getErrors() { return errors; }
 
+    /**
+     * Cantidad máxima de errores a informar; al llegar a ella se deja de analizar el resto de los tokens
+     * (con 1 el análisis se detiene en el primer error).
+     */
+    public Parser setMaxErrors(int maxErrors) {
+        if (maxErrors < 1) throw new IllegalArgumentException("maxErrors debe ser >= 1");
+        this.maxErrors = maxErrors;
+        return this;
+    }
+
+    /** true si el análisis se cortó por alcanzar el máximo de errores. */
+    public boolean isTruncated() { return truncated; }
+
     public List<Stmt> parse() {
-        List<Stmt> statements = new ArrayList<>();
-        while (!isAtEnd()) {
+        NodeBuilder.Tree tree = new NodeBuilder.Tree(tokens);
+        nodes = tree;
+        return tree.statements(statements());
+    }
+
+    /** Como parse(), pero arma un FlatAst: mismos errores, sin un objeto por nodo ni por token. */
+    public FlatAst parseFlat() {
+        FlatAst ast = new FlatAst(tokens);
+        NodeBuilder.Flat flat = new NodeBuilder.Flat(ast);
+        nodes = flat;
+        ast.setFirstStatement(flat.first(statements()));
+        ast.trimToSize();
+        return ast;
+    }
+
+    // Sentencias de nivel superior hasta el EOF; las que tienen errores no se agregan
+    private int statements() {
+        int list = nodes.list();
+        while (hasMore()) {
             try {
-                Stmt decl = declaration();
-                if (decl != null) statements.add(decl);
+                nodes.append(list, declaration());
             } catch (ParseError e) {
                 synchronize();
             }
         }
-        return statements;
+        return list;
+    }
+
+    // Una declaración o sentencia de nivel superior; null si hubo un error (ya registrado y sincronizado).
+    // La usa IncrementalDocument para analizar de a una sentencia.
+    Stmt parseTopLevel() {
+        if (topLevel == null) {
+            topLevel = new NodeBuilder.Tree(tokens);
+            nodes = topLevel;
+        }
+        topLevel.reset();
+        try {
+            return topLevel.stmt(declaration());
+        } catch (ParseError e) {
+            synchronize();
+            return null;
+        }
+    }
+
+    boolean hasMore() {
+        return !isAtEnd();
+    }
+
+    // Índice del próximo token; ninguna decisión tomada hasta ahora miró más allá de él
+    int position() {
+        return current;
     }
 
     // ---------- Declarations ----------
-    private Stmt declaration() {
+    // Las reglas devuelven el nodo que armó nodes; los tokens se pasan por su índice en el buffer
+    private int declaration() {
         if (match(TokenType.LONG, TokenType.DOUBLE)) {
-            Token typeToken = previous();
-            return varDeclaration(typeToken);
+            return varDeclaration(current - 1);
         }
         return statement();
     }
 
-    private Stmt varDeclaration(Token typeToken) {
-        List<Stmt> vars = new ArrayList<>();
-        Token name = consume(TokenType.IDENTIFIER, "Se esperaba un identificador en la declaración.");
-        vars.add(new Stmt.Var(typeToken, name));
+    private int varDeclaration(int typeToken) {
+        int name = consume(TokenType.IDENTIFIER, "Se esperaba un identificador en la declaración.");
+        if (!check(TokenType.COMMA)) {
+            expect(TokenType.SEMICOLON, "Se esperaba ';' al final de la declaración de variables.");
+            return nodes.var(typeToken, name);
+        }
+        int vars = nodes.list();
+        nodes.append(vars, nodes.var(typeToken, name));
         while (match(TokenType.COMMA)) {
-            Token n = consume(TokenType.IDENTIFIER, "Se esperaba un identificador después de ','.");
-            vars.add(new Stmt.Var(typeToken, n));
+            int n = consume(TokenType.IDENTIFIER, "Se esperaba un identificador después de ','.");
+            nodes.append(vars, nodes.var(typeToken, n));
         }
-        consume(TokenType.SEMICOLON, "Se esperaba ';' al final de la declaración de variables.");
-        if (vars.size() == 1) return vars.get(0);
-        return new Stmt.Block(vars); // grupo de declaraciones var
+        expect(TokenType.SEMICOLON, "Se esperaba ';' al final de la declaración de variables.");
+        return nodes.block(vars, false); // grupo de declaraciones var
     }
 
     // ---------- Statements ----------
-    private Stmt statement() {
+    private int statement() {
         if (match(TokenType.READ)) return readStatement();
         if (match(TokenType.WRITE)) return writeStatement();
         if (match(TokenType.IF)) return ifStatement();
         if (match(TokenType.WHILE)) return whileStatement();
-        if (match(TokenType.LBRACE)) return new Stmt.Block(block());
+        if (match(TokenType.BREAK)) return breakStatement();
+        if (match(TokenType.LBRACE)) return block();
 
-        if (check(TokenType.IDENTIFIER) && isAssignmentOperator(peekNext().type)) {
+        if (check(TokenType.IDENTIFIER) && isAssignmentOperator(peekNextType())) {
             return assignStatement();
         }
 
@@ -64,173 +139,147 @@ public class Parser {
         return expressionStatement();
     }
 
-    private Stmt expressionStatement() {
-        Expr expr = expression();
-        consume(TokenType.SEMICOLON, "Se esperaba ';' después de la expresión.");
-        return new Stmt.Expression(expr);
+    private int expressionStatement() {
+        int expr = expression();
+        expect(TokenType.SEMICOLON, "Se esperaba ';' después de la expresión.");
+        return nodes.expression(expr);
     }
 
-    private Stmt assignStatement() {
-        Token name = consume(TokenType.IDENTIFIER, "Se esperaba identificador en la asignación.");
+    private int assignStatement() {
+        int name = consume(TokenType.IDENTIFIER, "Se esperaba identificador en la asignación.");
         if (!match(TokenType.ASSIGN, TokenType.PLUS_ASSIGN, TokenType.MINUS_ASSIGN, TokenType.MULT_ASSIGN, TokenType.DIV_ASSIGN)) {
-            throw error(peek(), "Se esperaba un operador de asignación después del identificador.");
-        }
-        Token operator = previous();
-        Expr value = expression();
-        consume(TokenType.SEMICOLON, "Se esperaba ';' después de la asignación.");
-        return new Stmt.Assign(name, operator, value);
-    }
-
-    private Stmt readStatement() {
-        consume(TokenType.LPAREN, "Se esperaba '(' después de read.");
-        Token name = consume(TokenType.IDENTIFIER, "Se esperaba un identificador dentro de read().");
-        consume(TokenType.RPAREN, "Se esperaba ')' después de read(identifier).");
-        consume(TokenType.SEMICOLON, "Se esperaba ';' después de read(...).");
-        return new Stmt.Read(name);
-    }
-
-    private Stmt writeStatement() {
-        consume(TokenType.LPAREN, "Se esperaba '(' después de write.");
-        Expr expr = expression();
-        consume(TokenType.RPAREN, "Se esperaba ')' después de write(expression).");
-        consume(TokenType.SEMICOLON, "Se esperaba ';' después de write(...).");
-        return new Stmt.Write(expr);
-    }
-
-    private Stmt ifStatement() {
-        consume(TokenType.LPAREN, "Se esperaba '(' después de if.");
-        Expr condition = expression();
-        consume(TokenType.RPAREN, "Se esperaba ')' después de la condición del if.");
-        consume(TokenType.THEN, "Se esperaba 'then' después de if(...).");
-        Stmt thenBranch = statement();
-        Stmt elseBranch = null;
-        if (match(TokenType.ELSE)) {
-            elseBranch = statement();
+            throw error(current, "Se esperaba un operador de asignación después del identificador.");
         }
-        return new Stmt.If(condition, thenBranch, elseBranch);
+        int operator = current - 1;
+        int value = expression();
+        expect(TokenType.SEMICOLON, "Se esperaba ';' después de la asignación.");
+        return nodes.assign(name, operator, value);
     }
 
-    private Stmt whileStatement() {
-        consume(TokenType.LPAREN, "Se esperaba '(' después de while.");
-        Expr condition = expression();
-        consume(TokenType.RPAREN, "Se esperaba ')' después de la condición del while.");
-        Stmt body = statement();
-        return new Stmt.While(condition, body);
+    private int readStatement() {
+        expect(TokenType.LPAREN, "Se esperaba '(' después de read.");
+        int name = consume(TokenType.IDENTIFIER, "Se esperaba un identificador dentro de read().");
+        expect(TokenType.RPAREN, "Se esperaba ')' después de read(identifier).");
+        expect(TokenType.SEMICOLON, "Se esperaba ';' después de read(...).");
+        return nodes.read(name);
     }
 
-    private List<Stmt> block() {
-        List<Stmt> statements = new ArrayList<>();
-        while (!check(TokenType.RBRACE) && !isAtEnd()) {
-            try {
-                Stmt d = declaration();
-                if (d != null) statements.add(d);
-            } catch (ParseError e) {
-                synchronize();
-            }
-        }
-        consume(TokenType.RBRACE, "Se esperaba '}' al final del bloque.");
-        return statements;
+    private int writeStatement() {
+        expect(TokenType.LPAREN, "Se esperaba '(' después de write.");
+        int expr = expression();
+        expect(TokenType.RPAREN, "Se esperaba ')' después de write(expression).");
+        expect(TokenType.SEMICOLON, "Se esperaba ';' después de write(...).");
+        return nodes.write(expr);
     }
 
-    // ---------- Expressions (precedence climbing with recursive descent structure) ----------
-    private Expr expression() { return logicalOr(); }
-
-    private Expr logicalOr() {
-        Expr expr = logicalAnd();
-        while (match(TokenType.OR)) {
-            Token op = previous();
-            Expr right = logicalAnd();
-            expr = new Expr.Binary(expr, op, right);
+    private int ifStatement() {
+        expect(TokenType.LPAREN, "Se esperaba '(' después de if.");
+        int condition = expression();
+        expect(TokenType.RPAREN, "Se esperaba ')' después de la condición del if.");
+        expect(TokenType.THEN, "Se esperaba 'then' después de if(...).");
+        int thenBranch = statement();
+        int elseBranch = -1;
+        if (match(TokenType.ELSE)) {
+            elseBranch = statement();
         }
-        return expr;
+        return nodes.ifStmt(condition, thenBranch, elseBranch);
     }
 
-    private Expr logicalAnd() {
-        Expr expr = equality();
-        while (match(TokenType.AND)) {
-            Token op = previous();
-            Expr right = equality();
-            expr = new Expr.Binary(expr, op, right);
-        }
-        return expr;
+    private int whileStatement() {
+        expect(TokenType.LPAREN, "Se esperaba '(' después de while.");
+        int condition = expression();
+        expect(TokenType.RPAREN, "Se esperaba ')' después de la condición del while.");
+        int body = statement();
+        return nodes.whileStmt(condition, body);
     }
 
-    private Expr equality() {
-        Expr expr = relational();
-        while (match(TokenType.EQUAL, TokenType.NOT_EQUAL)) {
-            Token op = previous();
-            Expr right = relational();
-            expr = new Expr.Binary(expr, op, right);
-        }
-        return expr;
+    private int breakStatement() {
+        int keyword = current - 1;
+        expect(TokenType.SEMICOLON, "Se esperaba ';' después de break.");
+        return nodes.breakStmt(keyword);
     }
 
-    private Expr relational() {
-        Expr expr = additive();
-        while (match(TokenType.GREATER, TokenType.GREATER_EQUAL, TokenType.LESS, TokenType.LESS_EQUAL)) {
-            Token op = previous();
-            Expr right = additive();
-            expr = new Expr.Binary(expr, op, right);
+    private int block() {
+        int statements = nodes.list();
+        depth++;
+        try {
+            while (!check(TokenType.RBRACE) && !isAtEnd()) {
+                try {
+                    nodes.append(statements, declaration());
+                } catch (ParseError e) {
+                    synchronize();
+                }
+            }
+        } finally {
+            depth--;
         }
-        return expr;
+        expect(TokenType.RBRACE, "Se esperaba '}' al final del bloque.");
+        return nodes.block(statements, true);
     }
 
-    private Expr additive() {
-        Expr expr = multiplicative();
-        while (match(TokenType.PLUS, TokenType.MINUS)) {
-            Token op = previous();
-            Expr right = multiplicative();
-            expr = new Expr.Binary(expr, op, right);
-        }
-        return expr;
+    // ---------- Expressions (Pratt: precedencia por tabla en lugar de un método por nivel) ----------
+    // Precedencia de cada operador binario, indexada por TokenType.ordinal(); 0 si el token no es uno.
+    // De menor a mayor: OR, AND, igualdad, relacionales, suma/resta, producto/división. Todos asocian a izquierda.
+    private static final int[] PRECEDENCE = new int[TokenType.values().length];
+    static {
+        PRECEDENCE[TokenType.OR.ordinal()] = 1;
+        PRECEDENCE[TokenType.AND.ordinal()] = 2;
+        PRECEDENCE[TokenType.EQUAL.ordinal()] = 3;
+        PRECEDENCE[TokenType.NOT_EQUAL.ordinal()] = 3;
+        PRECEDENCE[TokenType.GREATER.ordinal()] = 4;
+        PRECEDENCE[TokenType.GREATER_EQUAL.ordinal()] = 4;
+        PRECEDENCE[TokenType.LESS.ordinal()] = 4;
+        PRECEDENCE[TokenType.LESS_EQUAL.ordinal()] = 4;
+        PRECEDENCE[TokenType.PLUS.ordinal()] = 5;
+        PRECEDENCE[TokenType.MINUS.ordinal()] = 5;
+        PRECEDENCE[TokenType.MULTIPLY.ordinal()] = 6;
+        PRECEDENCE[TokenType.DIVIDE.ordinal()] = 6;
     }
 
-    private Expr multiplicative() {
-        Expr expr = unary();
-        while (match(TokenType.MULTIPLY, TokenType.DIVIDE)) {
-            Token op = previous();
-            Expr right = unary();
-            expr = new Expr.Binary(expr, op, right);
+    private int expression() { return binary(1); }
+
+    // Expresión cuyos operadores binarios tienen al menos la precedencia dada
+    private int binary(int minPrecedence) {
+        int expr = unary();
+        while (true) {
+            int precedence = PRECEDENCE[tokens.type(current).ordinal()];
+            if (precedence < minPrecedence) return expr; // también corta en EOF y en todo lo que no es operador
+            int op = current++;
+            int right = binary(precedence + 1);
+            expr = nodes.binary(expr, op, right);
         }
-        return expr;
     }
 
-    private Expr unary() {
-        if (match(TokenType.NOT, TokenType.MINUS)) {
-            Token op = previous();
-            Expr right = unary();
-            return new Expr.Unary(op, right);
+    private int unary() {
+        TokenType t = tokens.type(current);
+        if (t == TokenType.NOT || t == TokenType.MINUS) {
+            int op = current++;
+            int right = unary();
+            return nodes.unary(op, right);
         }
         return primary();
     }
 
-    private Expr primary() {
-        if (match(TokenType.INTEGER_CONST)) {
-            Object v = Integer.parseInt(previous().getLexeme());
-            return new Expr.Literal(v);
-        }
-        if (match(TokenType.REAL_CONST)) {
-            Object v = Double.parseDouble(previous().getLexeme());
-            return new Expr.Literal(v);
-        }
-        if (match(TokenType.STRING_CONST)) {
-            return new Expr.Literal(previous().getLexeme());
-        }
-        if (match(TokenType.BOOLEAN_CONST)) {
-            return new Expr.Literal(Boolean.parseBoolean(previous().getLexeme()));
-        }
-        if (match(TokenType.IDENTIFIER)) {
-            return new Expr.Variable(previous());
-        }
-        if (match(TokenType.LPAREN)) {
-            Expr expr = expression();
-            consume(TokenType.RPAREN, "Se esperaba ')' después de la expresión.");
-            return new Expr.Grouping(expr);
-        }
-        throw error(peek(), "Se esperaba una expresión.");
+    private int primary() {
+        return switch (tokens.type(current)) {
+            case INTEGER_CONST, REAL_CONST, STRING_CONST, BOOLEAN_CONST -> nodes.literal(current++);
+            case IDENTIFIER -> nodes.variable(current++);
+            case LPAREN -> {
+                current++;
+                int expr = expression();
+                expect(TokenType.RPAREN, "Se esperaba ')' después de la expresión.");
+                yield nodes.grouping(expr);
+            }
+            default -> throw error(current, "Se esperaba una expresión.");
+        };
     }
 
     // ---------- Helpers ----------
+    private boolean match(TokenType type) {
+        if (check(type)) { advance(); return true; }
+        return false;
+    }
+
     private boolean match(TokenType... types) {
         for (TokenType t : types) {
             if (check(t)) { advance(); return true; }
@@ -238,54 +287,72 @@ public class Parser {
         return false;
     }
 
-    private Token consume(TokenType type, String message) {
-        if (check(type)) return advance();
-        throw error(peek(), message);
+    // Devuelve el índice del token consumido
+    private int consume(TokenType type, String message) {
+        if (check(type)) return current++;
+        throw error(current, message);
     }
 
-    private ParseError error(Token token, String message) {
-        errors.add(new SyntaxError(token.line, token.column, message + " (token: '" + token.lexeme + "')"));
+    // Como consume, para los signos de puntuación que no van al AST
+    private void expect(TokenType type, String message) {
+        if (check(type)) { advance(); return; }
+        throw error(current, message);
+    }
+
+    private ParseError error(int token, String message) {
+        if (errors.size() < maxErrors) {
+            errors.add(new SyntaxError(tokens.line(token), tokens.column(token),
+                    message + " (token: '" + tokens.lexeme(token) + "')"));
+            if (errors.size() == maxErrors) {
+                // Límite alcanzado: se salta al EOF y todos los niveles terminan sin registrar más errores
+                truncated = true;
+                current = tokens.size() - 1;
+            }
+        }
         return new ParseError();
     }
 
+    // Descarta tokens hasta un punto seguro para seguir: después de un ';' o antes del comienzo de una sentencia.
+    // Los bloques { } que empiezan en la parte descartada se saltan completos y la '}' que cierra el bloque
+    // actual no se descarta (la consume block()), así un error no se propaga a las sentencias de afuera.
     private void synchronize() {
-        advance();
+        int nested = 0;
+        boolean first = true;
         while (!isAtEnd()) {
-            if (previous().type == TokenType.SEMICOLON) return;
-            TokenType t = peek().type;
-            if (t == TokenType.LONG || t == TokenType.DOUBLE || t == TokenType.IF ||
-                    t == TokenType.WHILE || t == TokenType.READ || t == TokenType.WRITE) {
+            TokenType t = tokens.type(current);
+            if (t == TokenType.RBRACE) {
+                if (nested == 0 && depth > 0) return;
+                if (nested > 0 && --nested == 0) {
+                    advance(); // un bloque completo también termina una sentencia
+                    return;
+                }
+            } else if (t == TokenType.LBRACE) {
+                nested++;
+            } else if (!first && nested == 0 && STATEMENT_START[t.ordinal()]) {
                 return;
             }
             advance();
+            first = false;
+            if (t == TokenType.SEMICOLON && nested == 0) return;
         }
     }
 
     private boolean check(TokenType type) {
         if (isAtEnd()) return false;
-        return peek().type == type;
+        return tokens.type(current) == type;
     }
 
-    private Token advance() {
+    private void advance() {
         if (!isAtEnd()) current++;
-        return previous();
     }
 
     private boolean isAtEnd() {
-        return peek().type == TokenType.EOF;
+        return tokens.type(current) == TokenType.EOF;
     }
 
-    private Token peek() {
-        return tokens.get(current);
-    }
-
-    private Token peekNext() {
-        if (current + 1 >= tokens.size()) return tokens.get(tokens.size() - 1);
-        return tokens.get(current + 1);
-    }
-
-    private Token previous() {
-        return tokens.get(current - 1);
+    private TokenType peekNextType() {
+        if (current + 1 >= tokens.size()) return tokens.type(tokens.size() - 1);
+        return tokens.type(current + 1);
     }
 
     private boolean isAssignmentOperator(TokenType t) {
@@ -293,6 +360,12 @@ public class Parser {
                 || t == TokenType.MULT_ASSIGN || t == TokenType.DIV_ASSIGN;
     }
 
-    // exception used for control flow on parse errors
-    private static class ParseError extends RuntimeException {}
+    // exception used for control flow on parse errors (sin stack trace: solo se usa para volver a un punto seguro)
+    private static class ParseError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ParseError() {
+            super(null, null, false, false);
+        }
+    }
 }
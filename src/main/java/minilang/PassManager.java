@@ -0,0 +1,79 @@
+//Ejecuta una secuencia configurable de pases (IrPass) sobre la representación SSA y mide cada ejecución
+//por separado: tiempo, instrucciones antes y después, y si el pase cambió algo. Con verify activado
+//comprueba las invariantes de la SSA después de cada pase (para probar pases nuevos).
+
+package minilang;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PassManager {
+
+    /** Una ejecución de un pase. */
+    public record PassTiming(String pass, long nanos, int instructionsBefore, int instructionsAfter, boolean changed) {}
+
+    private final List<IrPass> passes = new ArrayList<>();
+    private final List<PassTiming> timings = new ArrayList<>();
+    private boolean verify = false;
+
+    /** Pases de la optimización por defecto: las copias se quitan antes de numerar valores y mover código. */
+    public static PassManager standard() {
+        return new PassManager()
+                .add(new CopyPropagation())
+                .add(new GlobalValueNumbering())
+                .add(new LoopInvariantCodeMotion())
+                .add(new CopyPropagation())
+                .add(new DeadValueElimination());
+    }
+
+    public PassManager add(IrPass pass) {
+        passes.add(pass);
+        return this;
+    }
+
+    public PassManager setVerify(boolean verify) {
+        this.verify = verify;
+        return this;
+    }
+
+    /** Ejecuta los pases en el orden en que se agregaron; devuelve true si alguno cambió la función. */
+    public boolean run(Ir.Function function) {
+        boolean changed = false;
+        for (IrPass pass : passes) {
+            int before = function.instructionCount();
+            long start = System.nanoTime();
+            boolean passChanged = pass.run(function);
+            long nanos = System.nanoTime() - start;
+            timings.add(new PassTiming(pass.name(), nanos, before, function.instructionCount(), passChanged));
+            if (verify) {
+                try {
+                    function.verify();
+                } catch (IllegalStateException e) {
+                    throw new IllegalStateException("Después de " + pass.name() + ": " + e.getMessage(), e);
+                }
+            }
+            changed |= passChanged;
+        }
+        return changed;
+    }
+
+    public List<PassTiming> getTimings() {
+        return timings;
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (PassTiming t : timings) total += t.nanos();
+        return total;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (PassTiming t : timings) {
+            sb.append(String.format(" %-32s %9.3f ms  instrucciones %d -> %d%s%n", t.pass(), t.nanos() / 1e6,
+                    t.instructionsBefore(), t.instructionsAfter(), t.changed() ? "" : "  (sin cambios)"));
+        }
+        sb.append(String.format(" %-32s %9.3f ms", "Total", getTotalNanos() / 1e6));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,33 @@
+//Evento JFR de una fase del compilador; lo emite PhaseMetrics. Se ve en una grabación con
+//java -XX:StartFlightRecording=filename=rec.jfr ... y jfr print --events minilang.Phase rec.jfr
+
+package minilang;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("minilang.Phase")
+@Label("Fase del compilador")
+@Category("MiniLang")
+@Description("Duración, tokens, nodos del AST, memoria asignada y errores de una fase")
+class PhaseEvent extends Event {
+    @Label("Fase")
+    String phase;
+
+    @Label("Tokens")
+    int tokens;
+
+    @Label("Nodos del AST")
+    int nodes;
+
+    @Label("Errores")
+    int errors;
+
+    @Label("Memoria asignada")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,175 @@
+//Medición de las fases del compilador (léxico, sintáctico, semántico, optimización): tiempo, tokens por
+//segundo, nodos del AST, bytes asignados y cantidad de errores. Se reporta en JSON y como eventos JFR (minilang.Phase).
+//Desactivada (PhaseMetrics.DISABLED) no mide nada: begin() y end() vuelven en la primera instrucción.
+
+package minilang;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class PhaseMetrics {
+
+    public enum Phase { LEXER, PARSER, SEMANTIC, OPTIMIZER }
+
+    /**
+     * Resultado de una fase. allocatedBytes suma lo asignado por todos los hilos de la JVM durante la fase (así
+     * incluye a los del pool de SemanticAnalyzer.analyzeParallel); es -1 si la JVM no permite medirlo.
+     */
+    public record Measurement(Phase phase, long nanos, long allocatedBytes, int tokens, int nodes, int errors) {
+        public double tokensPerSecond() {
+            return nanos > 0 ? tokens * 1e9 / nanos : 0.0;
+        }
+    }
+
+    public static final PhaseMetrics DISABLED = new PhaseMetrics(false);
+
+    private final boolean enabled;
+    private final com.sun.management.ThreadMXBean threads; // null si no hay medición de memoria
+    private final List<Measurement> measurements = new ArrayList<>();
+
+    private Phase current;
+    private long startNanos;
+    private long startBytes;
+    private PhaseEvent event;
+
+    private PhaseMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.threads = enabled ? allocationCounter() : null;
+    }
+
+    /** Instrumentación activa; el tiempo se mide entre begin() y end(), que se llaman desde un mismo hilo. */
+    public static PhaseMetrics create() {
+        return new PhaseMetrics(true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void begin(Phase phase) {
+        if (!enabled) return;
+        if (current != null) {
+            throw new IllegalStateException("La fase " + current + " no terminó.");
+        }
+        current = phase;
+        event = new PhaseEvent();
+        event.begin();
+        startBytes = threads != null ? threads.getTotalThreadAllocatedBytes() : -1;
+        startNanos = System.nanoTime();
+    }
+
+    /** Cierra la fase abierta con begin(). tokens y nodes son 0 cuando no corresponden a la fase. */
+    public void end(int tokens, int nodes, int errors) {
+        if (!enabled) return;
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = threads != null ? threads.getTotalThreadAllocatedBytes() - startBytes : -1;
+        if (current == null) {
+            throw new IllegalStateException("end() sin begin().");
+        }
+        measurements.add(new Measurement(current, nanos, bytes, tokens, nodes, errors));
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = current.name();
+            event.tokens = tokens;
+            event.nodes = nodes;
+            event.errors = errors;
+            event.allocatedBytes = bytes;
+            event.commit();
+        }
+        event = null;
+        current = null;
+    }
+
+    public List<Measurement> getMeasurements() {
+        return measurements;
+    }
+
+    /** Cantidad de nodos (sentencias y expresiones) del AST. Recorre el árbol completo. */
+    public static int countNodes(List<Stmt> statements) {
+        NodeCounter counter = new NodeCounter();
+        for (Stmt stmt : statements) {
+            if (stmt != null) stmt.accept(counter);
+        }
+        return counter.count;
+    }
+
+    /** Escribe las mediciones como un objeto JSON {"phases": [...], "totalNanos": n}. */
+    public void writeJson(PrintStream out) {
+        long total = 0;
+        out.println("{");
+        out.println("  \"phases\": [");
+        for (int i = 0; i < measurements.size(); i++) {
+            Measurement m = measurements.get(i);
+            total += m.nanos();
+            out.printf(Locale.ROOT,
+                    "    {\"phase\": \"%s\", \"nanos\": %d, \"tokens\": %d, \"tokensPerSecond\": %.1f, \"nodes\": %d, \"allocatedBytes\": %d, \"errors\": %d}%s%n",
+                    m.phase().name().toLowerCase(Locale.ROOT), m.nanos(), m.tokens(), m.tokensPerSecond(), m.nodes(),
+                    m.allocatedBytes(), m.errors(), i + 1 < measurements.size() ? "," : "");
+        }
+        out.println("  ],");
+        out.println("  \"totalNanos\": " + total);
+        out.println("}");
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            if (!threads.isThreadAllocatedMemoryEnabled()) threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+
+    private static final class NodeCounter implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
+        int count = 0;
+
+        private void count(Expr expr) {
+            if (expr != null) expr.accept(this);
+        }
+
+        private void count(Stmt stmt) {
+            if (stmt != null) stmt.accept(this);
+        }
+
+        @Override public Void visitVarStmt(Stmt.Var stmt) { count++; return null; }
+        @Override public Void visitExpressionStmt(Stmt.Expression stmt) { count++; count(stmt.expression); return null; }
+        @Override public Void visitAssignStmt(Stmt.Assign stmt) { count++; count(stmt.value); return null; }
+        @Override public Void visitReadStmt(Stmt.Read stmt) { count++; return null; }
+        @Override public Void visitWriteStmt(Stmt.Write stmt) { count++; count(stmt.expression); return null; }
+        @Override public Void visitBreakStmt(Stmt.Break stmt) { count++; return null; }
+
+        @Override
+        public Void visitBlockStmt(Stmt.Block stmt) {
+            count++;
+            for (Stmt s : stmt.statements) count(s);
+            return null;
+        }
+
+        @Override
+        public Void visitIfStmt(Stmt.If stmt) {
+            count++;
+            count(stmt.condition);
+            count(stmt.thenBranch);
+            count(stmt.elseBranch);
+            return null;
+        }
+
+        @Override
+        public Void visitWhileStmt(Stmt.While stmt) {
+            count++;
+            count(stmt.condition);
+            count(stmt.body);
+            return null;
+        }
+
+        @Override public Void visitBinaryExpr(Expr.Binary expr) { count++; count(expr.left); count(expr.right); return null; }
+        @Override public Void visitLiteralExpr(Expr.Literal expr) { count++; return null; }
+        @Override public Void visitUnaryExpr(Expr.Unary expr) { count++; count(expr.right); return null; }
+        @Override public Void visitVariableExpr(Expr.Variable expr) { count++; return null; }
+        @Override public Void visitGroupingExpr(Expr.Grouping expr) { count++; count(expr.expression); return null; }
+    }
+}
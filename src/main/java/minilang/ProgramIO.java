@@ -0,0 +1,78 @@
+//Entrada/salida de un programa MiniLang en ejecución. La comparten el intérprete y el código compilado.
+
+package minilang;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+
+public class ProgramIO {
+    private final BufferedReader in;
+    private final PrintStream out;
+
+    public ProgramIO(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    // ==================== WRITE ==================== //
+
+    public void writeLong(long value) {
+        out.println(value);
+    }
+
+    public void writeDouble(double value) {
+        out.println(value);
+    }
+
+    public void writeString(String value) {
+        out.println(value);
+    }
+
+    public void flush() {
+        out.flush();
+    }
+
+    // ==================== READ ==================== //
+
+    public long readLong(int line, String name) {
+        String text = readLine(line, name);
+        try {
+            return Long.parseLong(text.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeError(line, "Valor inválido para '" + name + "': " + text);
+        }
+    }
+
+    public double readDouble(int line, String name) {
+        String text = readLine(line, name);
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeError(line, "Valor inválido para '" + name + "': " + text);
+        }
+    }
+
+    private String readLine(int line, String name) {
+        String text;
+        try {
+            text = in.readLine();
+        } catch (IOException e) {
+            throw new RuntimeError(line, "No se pudo leer la entrada: " + e.getMessage());
+        }
+        if (text == null) {
+            throw new RuntimeError(line, "Fin de la entrada al leer '" + name + "'.");
+        }
+        return text;
+    }
+
+    // ==================== OPERACIONES ==================== //
+
+    /** División entera con el mismo error que reporta el intérprete. */
+    public static long divide(long a, long b, int line) {
+        if (b == 0) {
+            throw new RuntimeError(line, "División por cero.");
+        }
+        return a / b;
+    }
+}
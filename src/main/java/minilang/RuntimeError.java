@@ -0,0 +1,23 @@
+//Error producido durante la ejecución del programa (ej. "división por cero", "entrada inválida en read").
+
+package minilang;
+
+public class RuntimeError extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+
+    public RuntimeError(int line, String message) {
+        super(message);
+        this.line = line;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Error de ejecución [línea %d]: %s", line, getMessage());
+    }
+}
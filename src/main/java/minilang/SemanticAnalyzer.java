@@ -2,12 +2,26 @@ package minilang;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-public class SemanticAnalyzer implements Stmt.Visitor<Void>, Expr.Visitor<String> {
+public class SemanticAnalyzer implements Stmt.Visitor<Void>, Expr.Visitor<Type> {
+    private static final int PARALLEL_MIN_STATEMENTS = 4096; // con menos, repartir no compensa
+    private static final int MIN_CHUNK_STATEMENTS = 256;
+    private static final int CHUNKS_PER_THREAD = 4;         // más trozos que hilos para repartir mejor la carga
 
-    private final SymbolTable symbols = new SymbolTable();
+    private SymbolTable symbols;
     private final List<SemanticError> errors = new ArrayList<>();
-    private final String currentScope = "global";
+    private int loopDepth = 0; // cantidad de while que encierran la sentencia actual
+    private int maxErrors = Integer.MAX_VALUE;
+
+    public SemanticAnalyzer() {
+        this(new SymbolTable());
+    }
+
+    private SemanticAnalyzer(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
 
     public List<SemanticError> getErrors() {
         return errors;
@@ -17,45 +31,196 @@ public class SemanticAnalyzer implements Stmt.Visitor<Void>, Expr.Visitor<String
         return symbols;
     }
 
+    /** Cantidad máxima de errores a informar; al llegar a ella no se analizan las sentencias que siguen. */
+    public SemanticAnalyzer setMaxErrors(int maxErrors) {
+        if (maxErrors < 1) throw new IllegalArgumentException("maxErrors debe ser >= 1");
+        this.maxErrors = maxErrors;
+        return this;
+    }
+
+    /** true si el análisis se cortó por alcanzar el máximo de errores. */
+    public boolean isTruncated() {
+        return errors.size() >= maxErrors;
+    }
+
     public void analyze(List<Stmt> statements) {
         for (Stmt stmt : statements) {
+            if (isTruncated()) return;
             stmt.accept(this);
         }
     }
 
+    /**
+     * Como analyze(statements), repartiendo las sentencias de nivel superior entre los hilos del pool; el
+     * resultado (errores, tabla de símbolos, profundidad y slot de cada nodo) es idéntico.
+     *
+     * Primero se declaran en orden las variables globales ("long x;" de nivel superior), que es lo único que una
+     * sentencia le deja a las siguientes. Después cada trozo de sentencias se chequea contra esa tabla, que ya no
+     * cambia: cada sentencia solo ve los globales declarados antes que ella, y lo que declara en sus bloques queda
+     * en la vista del trozo. Por último se unen los errores y las declaraciones en el orden del código. Si se
+     * alcanza el máximo de errores se borran la profundidad y el slot que quedaron en el AST y se repite el
+     * análisis en secuencia, que se corta en el mismo punto que antes (en ese caso el trabajo se hace dos veces).
+     */
+    public void analyzeParallel(List<Stmt> statements, ForkJoinPool pool) {
+        int n = statements.size();
+        if (n < PARALLEL_MIN_STATEMENTS || pool.getParallelism() < 2) {
+            analyze(statements);
+            return;
+        }
+
+        // 1) Globales, en orden; globalsBefore[i] y errorsBefore[i] es lo acumulado antes de la sentencia i
+        int[] globalsBefore = new int[n + 1];
+        int[] errorsBefore = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            globalsBefore[i] = symbols.getSymbols().size();
+            errorsBefore[i] = errors.size();
+            Stmt stmt = statements.get(i);
+            if (isDeclaration(stmt)) stmt.accept(this);
+        }
+        globalsBefore[n] = symbols.getSymbols().size();
+        errorsBefore[n] = errors.size();
+        Declarations declarations = new Declarations(List.copyOf(symbols.getSymbols()), globalsBefore,
+                List.copyOf(errors), errorsBefore);
+
+        // 2) Chequeo de los trozos contra la tabla global
+        int chunkSize = Math.max(MIN_CHUNK_STATEMENTS, n / (pool.getParallelism() * CHUNKS_PER_THREAD) + 1);
+        List<ForkJoinTask<Chunk>> chunks = new ArrayList<>();
+        for (int from = 0; from < n; from += chunkSize) {
+            int start = from;
+            int end = Math.min(n, from + chunkSize);
+            chunks.add(pool.submit(() -> checkChunk(statements, start, end, declarations)));
+        }
+
+        // 3) Unión en orden
+        errors.clear();
+        List<Symbol> ordered = new ArrayList<>(declarations.globals().size());
+        List<SymbolTable> views = new ArrayList<>(chunks.size());
+        for (ForkJoinTask<Chunk> task : chunks) {
+            Chunk chunk = task.join();
+            errors.addAll(chunk.errors());
+            ordered.addAll(chunk.declared());
+            views.add(chunk.view());
+        }
+        symbols.merge(ordered, views);
+
+        if (isTruncated()) {
+            // Las sentencias que quedan después del corte no deben conservar lo que resolvió el paso en paralelo
+            AnnotationReset reset = new AnnotationReset();
+            for (Stmt stmt : statements) stmt.accept(reset);
+            errors.clear();
+            symbols = new SymbolTable();
+            analyze(statements);
+        }
+    }
+
+    // Lo que dejó el paso de declaraciones: los globales y sus errores, y cuántos había antes de cada sentencia
+    private record Declarations(List<Symbol> globals, int[] globalsBefore,
+                                List<SemanticError> errors, int[] errorsBefore) {}
+
+    // Resultado de un trozo: errores y declaraciones (globales incluidos) en orden, y la vista con sus ámbitos
+    private record Chunk(List<SemanticError> errors, List<Symbol> declared, SymbolTable view) {}
+
+    // "long x;" o el grupo de "long a, b;" en el nivel superior
+    private static boolean isDeclaration(Stmt stmt) {
+        if (stmt instanceof Stmt.Var) return true;
+        if (!(stmt instanceof Stmt.Block block) || block.opensScope) return false;
+        for (Stmt s : block.statements) {
+            if (!(s instanceof Stmt.Var)) return false;
+        }
+        return true;
+    }
+
+    private Chunk checkChunk(List<Stmt> statements, int start, int end, Declarations declarations) {
+        SymbolTable view = new SymbolTable(symbols);
+        SemanticAnalyzer worker = new SemanticAnalyzer(view);
+        worker.maxErrors = maxErrors;
+        List<Symbol> declared = new ArrayList<>();
+        for (int i = start; i < end && !worker.isTruncated(); i++) {
+            Stmt stmt = statements.get(i);
+            if (isDeclaration(stmt)) {
+                declared.addAll(declarations.globals().subList(declarations.globalsBefore()[i], declarations.globalsBefore()[i + 1]));
+                worker.errors.addAll(declarations.errors().subList(declarations.errorsBefore()[i], declarations.errorsBefore()[i + 1]));
+                continue;
+            }
+            int before = view.getSymbols().size();
+            view.visibleGlobals = declarations.globalsBefore()[i];
+            stmt.accept(worker);
+            declared.addAll(view.getSymbols().subList(before, view.getSymbols().size()));
+        }
+        return new Chunk(worker.errors, declared, view);
+    }
+
+    // Devuelve depth y slot a -1 (sin resolver) en todos los nodos
+    private static final class AnnotationReset implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
+        @Override public Void visitVarStmt(Stmt.Var stmt) { stmt.depth = stmt.slot = -1; return null; }
+        @Override public Void visitExpressionStmt(Stmt.Expression stmt) { return stmt.expression.accept(this); }
+        @Override public Void visitAssignStmt(Stmt.Assign stmt) { stmt.depth = stmt.slot = -1; return stmt.value.accept(this); }
+        @Override public Void visitReadStmt(Stmt.Read stmt) { stmt.depth = stmt.slot = -1; return null; }
+        @Override public Void visitWriteStmt(Stmt.Write stmt) { return stmt.expression.accept(this); }
+        @Override public Void visitBreakStmt(Stmt.Break stmt) { return null; }
+
+        @Override
+        public Void visitBlockStmt(Stmt.Block stmt) {
+            for (Stmt s : stmt.statements) s.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitIfStmt(Stmt.If stmt) {
+            stmt.condition.accept(this);
+            stmt.thenBranch.accept(this);
+            if (stmt.elseBranch != null) stmt.elseBranch.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitWhileStmt(Stmt.While stmt) {
+            stmt.condition.accept(this);
+            return stmt.body.accept(this);
+        }
+
+        @Override public Void visitBinaryExpr(Expr.Binary expr) { expr.left.accept(this); return expr.right.accept(this); }
+        @Override public Void visitLiteralExpr(Expr.Literal expr) { return null; }
+        @Override public Void visitUnaryExpr(Expr.Unary expr) { return expr.right.accept(this); }
+        @Override public Void visitVariableExpr(Expr.Variable expr) { expr.depth = expr.slot = -1; return null; }
+        @Override public Void visitGroupingExpr(Expr.Grouping expr) { return expr.expression.accept(this); }
+    }
+
+    /** Analiza un AST plano con las mismas reglas y errores; la profundidad y el slot quedan en el FlatAst. */
+    public void analyze(FlatAst ast) {
+        FlatChecker checker = new FlatChecker(ast);
+        for (int node = ast.firstStatement(); node >= 0 && !isTruncated(); node = ast.next(node)) {
+            ast.accept(node, checker);
+        }
+    }
+
+    // Los errores que pasan del máximo (de la misma sentencia) se descartan
+    private void error(SemanticError error) {
+        if (errors.size() < maxErrors) errors.add(error);
+    }
+
     // ======================
     // VISITORS PARA STMTs
     // ======================
 
     @Override
     public Void visitVarStmt(Stmt.Var stmt) {
-        String varName = stmt.name.lexeme;
-        String varType = stmt.typeToken.lexeme;
-
-        if (symbols.isDeclared(varName)) {
-            errors.add(new SemanticError("Variable '" + varName + "' redeclarada.", stmt.name.line));
-        } else {
-            symbols.declare(varName, varType, currentScope, null, stmt.name.line);
+        Symbol sym = declare(stmt.name.lexeme, Type.of(stmt.typeToken.type), stmt.name.line);
+        if (sym != null) {
+            stmt.depth = sym.getDepth();
+            stmt.slot = sym.getSlot();
         }
         return null;
     }
 
     @Override
     public Void visitAssignStmt(Stmt.Assign stmt) {
-        String varName = stmt.name.lexeme;
-
-        if (!symbols.isDeclared(varName)) {
-            errors.add(new SemanticError("Variable '" + varName + "' no declarada.", stmt.name.line));
-            return null;
-        }
-
-        String leftType = symbols.getType(varName);
-        String rightType = stmt.value.accept(this);
-
-        if (rightType != null && !isCompatible(leftType, rightType)) {
-            errors.add(new SemanticError("Asignación incompatible: " + leftType + " = " + rightType, stmt.name.line));
-        }
+        Symbol sym = resolve(stmt.name.lexeme, stmt.name.line, "no declarada.");
+        if (sym == null) return null;
+        stmt.depth = sym.getDepth();
+        stmt.slot = sym.getSlot();
 
+        checkAssign(sym.getType(), stmt.value.accept(this), stmt.name.line);
         return null;
     }
 
@@ -67,9 +232,10 @@ public class SemanticAnalyzer implements Stmt.Visitor<Void>, Expr.Visitor<String
 
     @Override
     public Void visitReadStmt(Stmt.Read stmt) {
-        String varName = stmt.name.lexeme;
-        if (!symbols.isDeclared(varName)) {
-            errors.add(new SemanticError("Variable '" + varName + "' no declarada antes del read.", stmt.name.line));
+        Symbol sym = resolve(stmt.name.lexeme, stmt.name.line, "no declarada antes del read.");
+        if (sym != null) {
+            stmt.depth = sym.getDepth();
+            stmt.slot = sym.getSlot();
         }
         return null;
     }
@@ -82,9 +248,13 @@ public class SemanticAnalyzer implements Stmt.Visitor<Void>, Expr.Visitor<String
 
     @Override
     public Void visitBlockStmt(Stmt.Block stmt) {
+        // Lo declarado dentro del bloque deja de ser visible al cerrarlo
+        if (stmt.opensScope) symbols.enterScope();
         for (Stmt s : stmt.statements) {
+            if (isTruncated()) break;
             s.accept(this);
         }
+        if (stmt.opensScope) symbols.exitScope();
         return null;
     }
 
@@ -100,7 +270,15 @@ public class SemanticAnalyzer implements Stmt.Visitor<Void>, Expr.Visitor<String
     @Override
     public Void visitWhileStmt(Stmt.While stmt) {
         stmt.condition.accept(this);
+        loopDepth++;
         stmt.body.accept(this);
+        loopDepth--;
+        return null;
+    }
+
+    @Override
+    public Void visitBreakStmt(Stmt.Break stmt) {
+        checkBreak(stmt.keyword.line);
         return null;
     }
 
@@ -109,72 +287,222 @@ public class SemanticAnalyzer implements Stmt.Visitor<Void>, Expr.Visitor<String
     // ======================
 
     @Override
-    public String visitBinaryExpr(Expr.Binary expr) {
-        String leftType = expr.left.accept(this);
-        String rightType = expr.right.accept(this);
-
-        if (leftType == null || rightType == null) return null;
-
-        // Si ambos son numéricos, aplicar promoción de tipos
-        if (isNumeric(leftType) && isNumeric(rightType)) {
-            if (leftType.equals("double") || rightType.equals("double")) {
-                return "double"; // promoción a double
-            }
-            return "long";
-        }
-
-        // Si no son compatibles, reportar error
-        if (!leftType.equals(rightType)) {
-            errors.add(new SemanticError("Operación incompatible: " + leftType + " " + expr.operator.lexeme + " " + rightType, expr.operator.line));
-            return null;
-        }
-
-        return leftType;
+    public Type visitBinaryExpr(Expr.Binary expr) {
+        Type leftType = expr.left.accept(this);
+        Type rightType = expr.right.accept(this);
+        Type result = binary(expr.operator.type, leftType, rightType);
+        if (result != null) return result;
+        error(new SemanticError("Operación incompatible: " + leftType + " " + expr.operator.lexeme + " " + rightType, expr.operator.line));
+        return Type.ERROR;
     }
 
     @Override
-    public String visitLiteralExpr(Expr.Literal expr) {
+    public Type visitLiteralExpr(Expr.Literal expr) {
         Object value = expr.value;
-        if (value instanceof Integer) return "long";
-        if (value instanceof Double) return "double";
-        return null;
+        if (value instanceof Integer) return Type.LONG;
+        if (value instanceof Double) return Type.DOUBLE;
+        if (value instanceof Boolean) return Type.BOOLEAN;
+        return Type.STRING;
     }
 
     @Override
-    public String visitVariableExpr(Expr.Variable expr) {
-        String varName = expr.name.lexeme;
-        if (!symbols.isDeclared(varName)) {
-            errors.add(new SemanticError("Variable '" + varName + "' usada sin declarar.", expr.name.line));
-            return null;
-        }
-        return symbols.getType(varName);
+    public Type visitVariableExpr(Expr.Variable expr) {
+        Symbol sym = resolve(expr.name.lexeme, expr.name.line, "usada sin declarar.");
+        if (sym == null) return Type.ERROR;
+        expr.depth = sym.getDepth();
+        expr.slot = sym.getSlot();
+        return sym.getType();
     }
 
     @Override
-    public String visitGroupingExpr(Expr.Grouping expr) {
+    public Type visitGroupingExpr(Expr.Grouping expr) {
         return expr.expression.accept(this);
     }
 
     @Override
-    public String visitUnaryExpr(Expr.Unary expr) {
-        return expr.right.accept(this);
+    public Type visitUnaryExpr(Expr.Unary expr) {
+        Type operand = expr.right.accept(this);
+        Type result = unary(expr.operator.type, operand);
+        if (result != null) return result;
+        error(new SemanticError("Operación incompatible: " + expr.operator.lexeme + operand, expr.operator.line));
+        return Type.ERROR;
     }
 
     // ======================
-    // FUNCIONES AUXILIARES
+    // REGLAS (comunes a los dos AST)
     // ======================
 
-    private boolean isNumeric(String type) {
-        return type.equals("long") || type.equals("double");
+    // null si ya estaba declarada en el mismo ámbito
+    private Symbol declare(String varName, Type varType, int line) {
+        Symbol sym = symbols.declare(varName, varType, null, line);
+        if (sym == null) {
+            error(new SemanticError("Variable '" + varName + "' redeclarada.", line));
+        }
+        return sym;
+    }
+
+    // null si no está declarada; missing completa el mensaje de error
+    private Symbol resolve(String varName, int line, String missing) {
+        Symbol sym = symbols.resolve(varName);
+        if (sym == null) {
+            error(new SemanticError("Variable '" + varName + "' " + missing, line));
+        }
+        return sym;
+    }
+
+    private void checkAssign(Type leftType, Type rightType, int line) {
+        if (rightType != Type.ERROR && !leftType.accepts(rightType)) {
+            error(new SemanticError("Asignación incompatible: " + leftType + " = " + rightType, line));
+        }
+    }
+
+    private void checkBreak(int line) {
+        if (loopDepth == 0) {
+            error(new SemanticError("'break' fuera de un ciclo while.", line));
+        }
+    }
+
+    // Tipo del resultado, o null si los tipos no admiten la operación (el que llama informa el error con el
+    // lexema del operador: así el AST plano solo lo pide cuando hace falta)
+    private static Type binary(TokenType operator, Type leftType, Type rightType) {
+        // Un operando con error ya informado no genera otro error
+        if (leftType == Type.ERROR || rightType == Type.ERROR) return Type.ERROR;
+
+        // Promoción long -> double, comparaciones -> boolean, + entre cadenas -> string
+        Type result = Type.binary(operator, leftType, rightType);
+        return result == Type.ERROR ? null : result;
+    }
+
+    private static Type unary(TokenType operator, Type operand) {
+        if (operand == Type.ERROR) return Type.ERROR;
+
+        Type result = Type.unary(operator, operand);
+        return result == Type.ERROR ? null : result;
     }
 
-    private boolean isCompatible(String leftType, String rightType) {
-        // Si son iguales, es compatible
-        if (leftType.equals(rightType)) return true;
+    // ======================
+    // ADAPTADOR PARA EL AST PLANO
+    // ======================
+
+    // Recorre un FlatAst aplicando las mismas reglas; los nombres y operadores salen del TokenSource
+    private final class FlatChecker implements FlatAst.Visitor<Type> {
+        private final FlatAst ast;
+        private final TokenSource tokens;
+
+        FlatChecker(FlatAst ast) {
+            this.ast = ast;
+            this.tokens = ast.getTokens();
+        }
+
+        @Override
+        public Type visitVar(int node) {
+            Symbol sym = declare(ast.lexeme(node), Type.of(tokens.type(ast.first(node))), ast.line(node));
+            if (sym != null) ast.resolve(node, sym.getDepth(), sym.getSlot());
+            return null;
+        }
+
+        @Override
+        public Type visitAssign(int node) {
+            Symbol sym = resolve(ast.lexeme(node), ast.line(node), "no declarada.");
+            if (sym == null) return null;
+            ast.resolve(node, sym.getDepth(), sym.getSlot());
+            checkAssign(sym.getType(), ast.accept(ast.first(node), this), ast.line(node));
+            return null;
+        }
+
+        @Override
+        public Type visitExpression(int node) {
+            ast.accept(ast.first(node), this);
+            return null;
+        }
+
+        @Override
+        public Type visitRead(int node) {
+            Symbol sym = resolve(ast.lexeme(node), ast.line(node), "no declarada antes del read.");
+            if (sym != null) ast.resolve(node, sym.getDepth(), sym.getSlot());
+            return null;
+        }
+
+        @Override
+        public Type visitWrite(int node) {
+            ast.accept(ast.first(node), this);
+            return null;
+        }
+
+        @Override
+        public Type visitBlock(int node) {
+            boolean opensScope = ast.second(node) != 0;
+            if (opensScope) symbols.enterScope();
+            for (int s = ast.first(node); s >= 0 && !isTruncated(); s = ast.next(s)) {
+                ast.accept(s, this);
+            }
+            if (opensScope) symbols.exitScope();
+            return null;
+        }
+
+        @Override
+        public Type visitIf(int node) {
+            ast.accept(ast.first(node), this);
+            ast.accept(ast.second(node), this);
+            if (ast.third(node) >= 0) ast.accept(ast.third(node), this);
+            return null;
+        }
+
+        @Override
+        public Type visitWhile(int node) {
+            ast.accept(ast.first(node), this);
+            loopDepth++;
+            ast.accept(ast.second(node), this);
+            loopDepth--;
+            return null;
+        }
+
+        @Override
+        public Type visitBreak(int node) {
+            checkBreak(ast.line(node));
+            return null;
+        }
 
-        // Si ambos son numéricos, permitir conversión implícita
-        if (isNumeric(leftType) && isNumeric(rightType)) return true;
+        @Override
+        public Type visitBinary(int node) {
+            Type leftType = ast.accept(ast.first(node), this);
+            Type rightType = ast.accept(ast.second(node), this);
+            Type result = binary(tokens.type(ast.token(node)), leftType, rightType);
+            if (result != null) return result;
+            error(new SemanticError("Operación incompatible: " + leftType + " " + ast.lexeme(node) + " " + rightType, ast.line(node)));
+            return Type.ERROR;
+        }
 
-        return false;
+        @Override
+        public Type visitLiteral(int node) {
+            return switch (tokens.type(ast.token(node))) {
+                case INTEGER_CONST -> Type.LONG;
+                case REAL_CONST -> Type.DOUBLE;
+                case BOOLEAN_CONST -> Type.BOOLEAN;
+                default -> Type.STRING;
+            };
+        }
+
+        @Override
+        public Type visitUnary(int node) {
+            Type operand = ast.accept(ast.first(node), this);
+            Type result = unary(tokens.type(ast.token(node)), operand);
+            if (result != null) return result;
+            error(new SemanticError("Operación incompatible: " + ast.lexeme(node) + operand, ast.line(node)));
+            return Type.ERROR;
+        }
+
+        @Override
+        public Type visitVariable(int node) {
+            Symbol sym = resolve(ast.lexeme(node), ast.line(node), "usada sin declarar.");
+            if (sym == null) return Type.ERROR;
+            ast.resolve(node, sym.getDepth(), sym.getSlot());
+            return sym.getType();
+        }
+
+        @Override
+        public Type visitGrouping(int node) {
+            return ast.accept(ast.first(node), this);
+        }
     }
 }
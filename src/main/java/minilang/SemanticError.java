@@ -9,6 +9,14 @@ public class SemanticError {
         this.line = line;
     }
 
+    public int getLine() {
+        return line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
     @Override
     public String toString() {
         return "Semantic Error (line " + line + "): " + message;
@@ -0,0 +1,24 @@
+package minilang;
+
+public class SemanticWarning {
+    private final String message;
+    private final int line;
+
+    public SemanticWarning(String message, int line) {
+        this.message = message;
+        this.line = line;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "Semantic Warning (line " + line + "): " + message;
+    }
+}
@@ -12,11 +12,13 @@ public abstract class Stmt {
         R visitBlockStmt(Block stmt);
         R visitIfStmt(If stmt);
         R visitWhileStmt(While stmt);
+        R visitBreakStmt(Break stmt);
     }
 
     public static class Var extends Stmt {
         public final Token typeToken; // LONG or DOUBLE
         public final Token name;
+        public int depth = -1, slot = -1; // declaración a la que se resolvió (la completa SemanticAnalyzer)
         public Var(Token typeToken, Token name) { this.typeToken = typeToken; this.name = name; }
         @Override public <R> R accept(Visitor<R> v) { return v.visitVarStmt(this); }
         @Override public String toString() { return String.format("VarDecl(%s %s)", typeToken.lexeme, name.lexeme); }
@@ -33,6 +35,7 @@ public abstract class Stmt {
         public final Token name;
         public final Token operator; // ASSIGN, PLUS_ASSIGN, etc.
         public final Expr value;
+        public int depth = -1, slot = -1; // declaración a la que se resolvió (la completa SemanticAnalyzer)
         public Assign(Token name, Token operator, Expr value) { this.name = name; this.operator = operator; this.value = value; }
         @Override public <R> R accept(Visitor<R> v) { return v.visitAssignStmt(this); }
         @Override public String toString() { return "Assign(" + name.lexeme + " " + operator.lexeme + " " + value + ")"; }
@@ -40,6 +43,7 @@ public abstract class Stmt {
 
     public static class Read extends Stmt {
         public final Token name;
+        public int depth = -1, slot = -1; // declaración a la que se resolvió (la completa SemanticAnalyzer)
         public Read(Token name) { this.name = name; }
         @Override public <R> R accept(Visitor<R> v) { return v.visitReadStmt(this); }
         @Override public String toString() { return "Read(" + name.lexeme + ")"; }
@@ -54,7 +58,9 @@ public abstract class Stmt {
 
     public static class Block extends Stmt {
         public final List<Stmt> statements;
-        public Block(List<Stmt> statements) { this.statements = statements; }
+        public final boolean opensScope; // false para el grupo de "long a, b;", que declara en el ámbito actual
+        public Block(List<Stmt> statements) { this(statements, true); }
+        public Block(List<Stmt> statements, boolean opensScope) { this.statements = statements; this.opensScope = opensScope; }
         @Override public <R> R accept(Visitor<R> v) { return v.visitBlockStmt(this); }
         @Override public String toString() { return "Block(" + statements + ")"; }
     }
@@ -76,5 +82,12 @@ public abstract class Stmt {
         @Override public String toString() { return "While(" + condition + ", " + body + ")"; }
     }
 
+    public static class Break extends Stmt {
+        public final Token keyword;
+        public Break(Token keyword) { this.keyword = keyword; }
+        @Override public <R> R accept(Visitor<R> v) { return v.visitBreakStmt(this); }
+        @Override public String toString() { return "Break"; }
+    }
+
     public abstract <R> R accept(Visitor<R> visitor);
 }
@@ -2,24 +2,28 @@ package minilang;
 
 public class Symbol {
     private final String name;
-    private final String type;
+    private final Type type;
     private final String scope;
     private Object value;
     private final int line;
+    private final int depth; // profundidad del ámbito (0 = global)
+    private final int slot;  // posición dentro de su ámbito
 
-    public Symbol(String name, String type, String scope, Object value, int line) {
+    public Symbol(String name, Type type, String scope, Object value, int line, int depth, int slot) {
         this.name = name;
         this.type = type;
         this.scope = scope;
         this.value = value;
         this.line = line;
+        this.depth = depth;
+        this.slot = slot;
     }
 
     public String getName() {
         return name;
     }
 
-    public String getType() {
+    public Type getType() {
         return type;
     }
 
@@ -31,6 +35,14 @@ public class Symbol {
         return line;
     }
 
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
 
     @Override
     public String toString() {
@@ -1,32 +1,162 @@
 package minilang;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Tabla de símbolos con ámbitos anidados: el global (profundidad 0) y uno por cada bloque { }.
+ * Cada ámbito abierto es un arreglo de símbolos; una declaración ocupa el siguiente slot de su ámbito,
+ * así que cada variable queda identificada por (profundidad, slot). Un nombre visible no puede
+ * volver a declararse en un ámbito interno, pero dos bloques hermanos sí pueden usar el mismo nombre.
+ */
 public class SymbolTable {
-    private final Map<String, Symbol> symbols = new HashMap<>();
+    private final Map<String, Symbol> visible = new HashMap<>(); // nombre -> declaración visible ahora
+    private final List<Symbol> symbols = new ArrayList<>();      // todas las declaraciones, en orden
 
-    public void declare(String name, String type, String scope, Object initialValue, int line) {
-        symbols.put(name, new Symbol(name, type, scope, initialValue, line));
+    private Symbol[][] scopes = new Symbol[8][];  // scopes[d] = slots del ámbito abierto a profundidad d
+    private int[] sizes = new int[8];             // slots usados en cada ámbito abierto
+    private int[] maxSlots = new int[8];          // máximo de slots que usó algún ámbito de cada profundidad
+    private int depth = 0;
+    private int[] offsets;                        // ver index(); se calcula al pedirlo
+
+    private final SymbolTable globals;            // tabla compartida de una vista (ver abajo), o null
+    int visibleGlobals;                           // cuántas declaraciones globales ve la vista
+
+    public SymbolTable() {
+        this(null);
+    }
+
+    /**
+     * Vista para analizar una sentencia de nivel superior en paralelo con otras: los nombres globales se buscan
+     * en la tabla compartida (solo lectura), pero solo se ven los primeros visibleGlobals slots, es decir los
+     * declarados antes de la sentencia. Lo que se declara en los bloques queda en la vista.
+     */
+    SymbolTable(SymbolTable globals) {
+        this.globals = globals;
+        scopes[0] = new Symbol[8];
+    }
+
+    public void enterScope() {
+        depth++;
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+            sizes = Arrays.copyOf(sizes, depth * 2);
+            maxSlots = Arrays.copyOf(maxSlots, depth * 2);
+        }
+        if (scopes[depth] == null) scopes[depth] = new Symbol[8];
+        sizes[depth] = 0;
+    }
+
+    /** Cierra el ámbito actual: sus nombres dejan de ser visibles. */
+    public void exitScope() {
+        if (depth == 0) throw new IllegalStateException("No hay ámbito abierto para cerrar.");
+        Symbol[] scope = scopes[depth];
+        for (int i = 0; i < sizes[depth]; i++) {
+            visible.remove(scope[i].getName());
+            scope[i] = null;
+        }
+        depth--;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /** Declara el nombre en el ámbito actual; devuelve null si ya había una declaración visible. */
+    public Symbol declare(String name, Type type, Object initialValue, int line) {
+        if (resolve(name) != null) return null;
+        int slot = sizes[depth]++;
+        if (slot == scopes[depth].length) scopes[depth] = Arrays.copyOf(scopes[depth], slot * 2);
+        maxSlots[depth] = Math.max(maxSlots[depth], slot + 1);
+        offsets = null;
+
+        Symbol sym = new Symbol(name, type, depth == 0 ? "global" : "bloque " + depth, initialValue, line, depth, slot);
+        scopes[depth][slot] = sym;
+        visible.put(name, sym);
+        symbols.add(sym);
+        return sym;
+    }
+
+    /** Declaración visible para el nombre (una sola búsqueda), o null si no está declarado. */
+    public Symbol resolve(String name) {
+        Symbol sym = visible.get(name);
+        if (sym != null || globals == null) return sym;
+        sym = globals.visible.get(name);
+        return sym != null && sym.getSlot() < visibleGlobals ? sym : null;
+    }
+
+    /** Símbolo en (profundidad, slot) entre los ámbitos abiertos. */
+    public Symbol get(int depth, int slot) {
+        return scopes[depth][slot];
     }
 
     public boolean isDeclared(String name) {
-        return symbols.containsKey(name);
+        return resolve(name) != null;
     }
 
-    public String getType(String name) {
-        Symbol sym = symbols.get(name);
+    public Type getType(String name) {
+        Symbol sym = resolve(name);
         return (sym != null) ? sym.getType() : null;
     }
 
-    public Map<String, Symbol> getSymbols() {
+    /**
+     * Posición de (profundidad, slot) en un almacenamiento plano: cada profundidad tiene reservados tantos
+     * lugares como el ámbito más grande de esa profundidad. Los ámbitos de una misma profundidad nunca están
+     * abiertos a la vez, así que pueden compartir lugares.
+     */
+    public int index(int depth, int slot) {
+        if (offsets == null) computeOffsets();
+        return offsets[depth] + slot;
+    }
+
+    /** Cantidad de lugares del almacenamiento plano (ver index()). */
+    public int storageSize() {
+        if (offsets == null) computeOffsets();
+        return offsets[offsets.length - 1];
+    }
+
+    private void computeOffsets() {
+        offsets = new int[maxSlots.length + 1];
+        for (int d = 0; d < maxSlots.length; d++) {
+            offsets[d + 1] = offsets[d] + maxSlots[d];
+        }
+    }
+
+    /**
+     * Une el resultado de un análisis en paralelo: ordered reemplaza la lista de declaraciones (globales y de
+     * bloques, en orden de aparición) y los ámbitos internos toman el tamaño máximo que usó cada vista.
+     */
+    void merge(List<Symbol> ordered, List<SymbolTable> views) {
+        symbols.clear();
+        symbols.addAll(ordered);
+        for (SymbolTable view : views) {
+            if (view.maxSlots.length > maxSlots.length) {
+                maxSlots = Arrays.copyOf(maxSlots, view.maxSlots.length);
+            }
+            for (int d = 1; d < view.maxSlots.length; d++) {
+                maxSlots[d] = Math.max(maxSlots[d], view.maxSlots[d]);
+            }
+        }
+        offsets = null;
+    }
+
+    /** Todas las declaraciones aceptadas, en orden (incluye las de ámbitos ya cerrados). */
+    public List<Symbol> getSymbols() {
         return symbols;
     }
 
     public void printTable() {
-        System.out.println("Nombre\t\tTipo");
-        System.out.println("----------------------");
-        for (Map.Entry<String, Symbol> entry : symbols.entrySet()) {
-            System.out.println(entry.getKey() + "\t\t" + entry.getValue().getType());
+        printTable(symbols);
+    }
+
+    /** Imprime una lista de declaraciones como printTable() (por ejemplo la guardada en CompilationCache). */
+    public static void printTable(List<Symbol> symbols) {
+        System.out.println("Nombre\t\tTipo\t\tÁmbito");
+        System.out.println("--------------------------------------");
+        for (Symbol sym : symbols) {
+            System.out.println(sym.getName() + "\t\t" + sym.getType() + "\t\t" + sym.getScope());
         }
     }
 }
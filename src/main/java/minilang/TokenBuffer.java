@@ -0,0 +1,103 @@
+//Almacenamiento compacto de tokens en arreglos paralelos (un byte de tipo y unos pocos ints por token),
+//sin un objeto Token por cada uno. Los lexemas se obtienen del código fuente recién cuando se piden.
+
+package minilang;
+
+import java.util.Arrays;
+
+public class TokenBuffer implements TokenSource {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final String source;          // texto del que salen los lexemas
+    private final NamePool names;         // los lexemas de identificadores se comparten
+
+    private byte[] types;
+    private int[] starts;                 // rango [start, end) del lexema en source
+    private int[] ends;
+    private long[] positions;             // línea en los 32 bits altos, columna en los bajos
+    private int size = 0;
+
+    public TokenBuffer(String source) {
+        this(source, new NamePool());
+    }
+
+    public TokenBuffer(String source, NamePool names) {
+        this.source = source;
+        this.names = names;
+        this.types = new byte[1024];
+        this.starts = new int[1024];
+        this.ends = new int[1024];
+        this.positions = new long[1024];
+    }
+
+    public void add(TokenType type, int start, int end, int line, int column) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        ends[size] = end;
+        positions[size] = (long) line << 32 | column;
+        size++;
+    }
+
+    /** Libera la capacidad sobrante una vez que no se van a agregar más tokens. */
+    public void trimToSize() {
+        if (size == types.length) return;
+        types = Arrays.copyOf(types, size);
+        starts = Arrays.copyOf(starts, size);
+        ends = Arrays.copyOf(ends, size);
+        positions = Arrays.copyOf(positions, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public TokenType type(int index) {
+        return TYPES[types[index]];
+    }
+
+    @Override
+    public int line(int index) {
+        return (int) (positions[index] >>> 32);
+    }
+
+    @Override
+    public int column(int index) {
+        return (int) positions[index];
+    }
+
+    /** Comienzo del lexema en el código fuente. */
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int end(int index) {
+        return ends[index];
+    }
+
+    /** Lexema del token; se crea en este momento a partir del código fuente. */
+    @Override
+    public String lexeme(int index) {
+        return switch (type(index)) {
+            case EOF -> "";
+            case IDENTIFIER -> names.intern(source, starts[index], ends[index]);
+            case LONG, DOUBLE, IF, THEN, ELSE, WHILE, BREAK, READ, WRITE, BOOLEAN_CONST ->
+                    Keywords.text(Keywords.match(source, starts[index], ends[index]));
+            default -> source.substring(starts[index], ends[index]);
+        };
+    }
+
+    /** Crea un objeto Token nuevo para la posición indicada (no se guardan: cada llamada crea otro). */
+    @Override
+    public Token token(int index) {
+        return new Token(type(index), lexeme(index), line(index), column(index));
+    }
+}
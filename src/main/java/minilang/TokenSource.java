@@ -0,0 +1,34 @@
+//Tokens tal como los lee el parser: tipo, posición, lexema y, para los que quedan en el AST, el objeto Token.
+//TokenBuffer los guarda en arreglos paralelos; OfList envuelve una lista de Token ya creada (la de
+//Lexer.getTokens()) sin copiarla. Cada implementación tiene su propio camino, sin preguntar en qué modo está.
+
+package minilang;
+
+import java.util.List;
+
+public interface TokenSource {
+    int size();
+    TokenType type(int index);
+    int line(int index);
+    int column(int index);
+    String lexeme(int index);
+
+    /** Objeto Token de la posición indicada, para los nodos del AST. */
+    Token token(int index);
+
+    /** Lista de tokens ya creada: todo se lee de los mismos objetos Token. */
+    final class OfList implements TokenSource {
+        private final List<Token> tokens;
+
+        OfList(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        @Override public int size() { return tokens.size(); }
+        @Override public TokenType type(int index) { return tokens.get(index).type; }
+        @Override public int line(int index) { return tokens.get(index).line; }
+        @Override public int column(int index) { return tokens.get(index).column; }
+        @Override public String lexeme(int index) { return tokens.get(index).lexeme; }
+        @Override public Token token(int index) { return tokens.get(index); }
+    }
+}
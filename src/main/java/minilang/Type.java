@@ -0,0 +1,107 @@
+//Tipos del análisis semántico. Son constantes del enum, así que se comparan con == y las reglas de los
+//operadores binarios se resuelven con una tabla precalculada [clase de operador][izquierdo][derecho].
+
+package minilang;
+
+import java.util.Arrays;
+
+public enum Type {
+    LONG("long"),
+    DOUBLE("double"),
+    BOOLEAN("boolean"),   // resultado de comparaciones y de true/false; en ejecución es un long 1/0
+    STRING("string"),     // solo literales y concatenaciones: no hay variables string
+    ERROR("error");       // expresión con un error ya informado; no genera más errores
+
+    private static final Type[] TYPES = values();
+
+    // Clases de operadores binarios (índice de RESULTS)
+    private static final int ARITHMETIC = 0; // - * /
+    private static final int PLUS = 1;       // + (también concatena cadenas)
+    private static final int RELATIONAL = 2; // > >= < <=
+    private static final int EQUALITY = 3;   // == !=
+    private static final int LOGICAL = 4;    // && ||
+    private static final int NONE = -1;
+
+    private static final byte[] OPERATOR_CLASS = new byte[TokenType.values().length];
+    private static final Type[][][] RESULTS = new Type[5][TYPES.length][TYPES.length];
+
+    static {
+        Arrays.fill(OPERATOR_CLASS, (byte) NONE);
+        OPERATOR_CLASS[TokenType.MINUS.ordinal()] = ARITHMETIC;
+        OPERATOR_CLASS[TokenType.MULTIPLY.ordinal()] = ARITHMETIC;
+        OPERATOR_CLASS[TokenType.DIVIDE.ordinal()] = ARITHMETIC;
+        OPERATOR_CLASS[TokenType.PLUS.ordinal()] = PLUS;
+        OPERATOR_CLASS[TokenType.GREATER.ordinal()] = RELATIONAL;
+        OPERATOR_CLASS[TokenType.GREATER_EQUAL.ordinal()] = RELATIONAL;
+        OPERATOR_CLASS[TokenType.LESS.ordinal()] = RELATIONAL;
+        OPERATOR_CLASS[TokenType.LESS_EQUAL.ordinal()] = RELATIONAL;
+        OPERATOR_CLASS[TokenType.EQUAL.ordinal()] = EQUALITY;
+        OPERATOR_CLASS[TokenType.NOT_EQUAL.ordinal()] = EQUALITY;
+        OPERATOR_CLASS[TokenType.AND.ordinal()] = LOGICAL;
+        OPERATOR_CLASS[TokenType.OR.ordinal()] = LOGICAL;
+
+        for (Type left : TYPES) {
+            for (Type right : TYPES) {
+                RESULTS[ARITHMETIC][left.ordinal()][right.ordinal()] = arithmetic(left, right);
+                RESULTS[PLUS][left.ordinal()][right.ordinal()] =
+                        left == STRING && right == STRING ? STRING : arithmetic(left, right);
+                RESULTS[RELATIONAL][left.ordinal()][right.ordinal()] =
+                        left.isNumeric() && right.isNumeric() ? BOOLEAN : ERROR;
+                RESULTS[EQUALITY][left.ordinal()][right.ordinal()] =
+                        (left.isNumeric() && right.isNumeric()) || (left == STRING && right == STRING) ? BOOLEAN : ERROR;
+                RESULTS[LOGICAL][left.ordinal()][right.ordinal()] =
+                        left.isNumeric() && right.isNumeric() ? BOOLEAN : ERROR;
+            }
+        }
+    }
+
+    private final String name;
+
+    Type(String name) {
+        this.name = name;
+    }
+
+    // Promoción: double si alguno es double; boolean cuenta como long
+    private static Type arithmetic(Type left, Type right) {
+        if (!left.isNumeric() || !right.isNumeric()) return ERROR;
+        return left == DOUBLE || right == DOUBLE ? DOUBLE : LONG;
+    }
+
+    /** long, double y boolean (que en ejecución es un long) admiten aritmética y comparaciones. */
+    public boolean isNumeric() {
+        return this == LONG || this == DOUBLE || this == BOOLEAN;
+    }
+
+    /** Tipo de "left op right", o ERROR si la combinación no es válida. */
+    public static Type binary(TokenType operator, Type left, Type right) {
+        int operatorClass = OPERATOR_CLASS[operator.ordinal()];
+        if (operatorClass == NONE) return ERROR;
+        return RESULTS[operatorClass][left.ordinal()][right.ordinal()];
+    }
+
+    /** Tipo de "-operand" o "!operand", o ERROR si no es válido. */
+    public static Type unary(TokenType operator, Type operand) {
+        if (!operand.isNumeric()) return ERROR;
+        if (operator == TokenType.NOT) return BOOLEAN;
+        return operand == DOUBLE ? DOUBLE : LONG;
+    }
+
+    /** Si un valor de tipo value puede guardarse en una variable de este tipo (con conversión implícita). */
+    public boolean accepts(Type value) {
+        return this == value || (isNumeric() && value.isNumeric());
+    }
+
+    /** Tipo declarado por la palabra reservada long o double. */
+    public static Type of(TokenType keyword) {
+        return switch (keyword) {
+            case LONG -> LONG;
+            case DOUBLE -> DOUBLE;
+            default -> throw new IllegalArgumentException("No es un tipo: " + keyword);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,110 @@
+//Máquina virtual de registros: ejecuta un VmProgram con un ciclo de despacho que no reserva memoria.
+
+package minilang;
+
+import static minilang.VmProgram.*;
+
+public class VirtualMachine {
+    private final ProgramIO io;
+    private long executed = 0;
+
+    public VirtualMachine(ProgramIO io) {
+        this.io = io;
+    }
+
+    /** Cantidad de sentencias ejecutadas (sin contar los bloques). */
+    public long getExecutedStatements() {
+        return executed;
+    }
+
+    public void run(VmProgram program) {
+        final int[] code = program.code;
+        final long[] l = new long[program.longRegisters];
+        final double[] d = new double[program.doubleRegisters];
+        final String[] s = new String[program.stringRegisters];
+
+        for (int i = 0; i < program.longConstRegs.length; i++) l[program.longConstRegs[i]] = program.longConstValues[i];
+        for (int i = 0; i < program.doubleConstRegs.length; i++) d[program.doubleConstRegs[i]] = program.doubleConstValues[i];
+        for (int i = 0; i < program.stringConstRegs.length; i++) s[program.stringConstRegs[i]] = program.stringConstValues[i];
+
+        long count = 0;
+        int pc = 0;
+        try {
+            while (true) {
+                switch (code[pc]) {
+                    case HALT -> {
+                        return;
+                    }
+                    case COUNT -> { count += code[pc + 1]; pc += 2; }
+
+                    case MOV_L -> { l[code[pc + 1]] = l[code[pc + 2]]; pc += 3; }
+                    case MOV_D -> { d[code[pc + 1]] = d[code[pc + 2]]; pc += 3; }
+                    case MOV_S -> { s[code[pc + 1]] = s[code[pc + 2]]; pc += 3; }
+                    case L2D -> { d[code[pc + 1]] = l[code[pc + 2]]; pc += 3; }
+                    case D2L -> { l[code[pc + 1]] = (long) d[code[pc + 2]]; pc += 3; }
+
+                    case ADD_L -> { l[code[pc + 1]] = l[code[pc + 2]] + l[code[pc + 3]]; pc += 4; }
+                    case SUB_L -> { l[code[pc + 1]] = l[code[pc + 2]] - l[code[pc + 3]]; pc += 4; }
+                    case MUL_L -> { l[code[pc + 1]] = l[code[pc + 2]] * l[code[pc + 3]]; pc += 4; }
+                    case DIV_L -> { l[code[pc + 1]] = ProgramIO.divide(l[code[pc + 2]], l[code[pc + 3]], code[pc + 4]); pc += 5; }
+                    case NEG_L -> { l[code[pc + 1]] = -l[code[pc + 2]]; pc += 3; }
+
+                    case ADD_D -> { d[code[pc + 1]] = d[code[pc + 2]] + d[code[pc + 3]]; pc += 4; }
+                    case SUB_D -> { d[code[pc + 1]] = d[code[pc + 2]] - d[code[pc + 3]]; pc += 4; }
+                    case MUL_D -> { d[code[pc + 1]] = d[code[pc + 2]] * d[code[pc + 3]]; pc += 4; }
+                    case DIV_D -> { d[code[pc + 1]] = d[code[pc + 2]] / d[code[pc + 3]]; pc += 4; }
+                    case NEG_D -> { d[code[pc + 1]] = -d[code[pc + 2]]; pc += 3; }
+
+                    case LT_L -> { l[code[pc + 1]] = l[code[pc + 2]] < l[code[pc + 3]] ? 1 : 0; pc += 4; }
+                    case LE_L -> { l[code[pc + 1]] = l[code[pc + 2]] <= l[code[pc + 3]] ? 1 : 0; pc += 4; }
+                    case GT_L -> { l[code[pc + 1]] = l[code[pc + 2]] > l[code[pc + 3]] ? 1 : 0; pc += 4; }
+                    case GE_L -> { l[code[pc + 1]] = l[code[pc + 2]] >= l[code[pc + 3]] ? 1 : 0; pc += 4; }
+                    case EQ_L -> { l[code[pc + 1]] = l[code[pc + 2]] == l[code[pc + 3]] ? 1 : 0; pc += 4; }
+                    case NE_L -> { l[code[pc + 1]] = l[code[pc + 2]] != l[code[pc + 3]] ? 1 : 0; pc += 4; }
+
+                    case LT_D -> { l[code[pc + 1]] = d[code[pc + 2]] < d[code[pc + 3]] ? 1 : 0; pc += 4; }
+                    case LE_D -> { l[code[pc + 1]] = d[code[pc + 2]] <= d[code[pc + 3]] ? 1 : 0; pc += 4; }
+                    case GT_D -> { l[code[pc + 1]] = d[code[pc + 2]] > d[code[pc + 3]] ? 1 : 0; pc += 4; }
+                    case GE_D -> { l[code[pc + 1]] = d[code[pc + 2]] >= d[code[pc + 3]] ? 1 : 0; pc += 4; }
+                    case EQ_D -> { l[code[pc + 1]] = d[code[pc + 2]] == d[code[pc + 3]] ? 1 : 0; pc += 4; }
+                    case NE_D -> { l[code[pc + 1]] = d[code[pc + 2]] != d[code[pc + 3]] ? 1 : 0; pc += 4; }
+
+                    case EQ_S -> { l[code[pc + 1]] = s[code[pc + 2]].equals(s[code[pc + 3]]) ? 1 : 0; pc += 4; }
+                    case NE_S -> { l[code[pc + 1]] = s[code[pc + 2]].equals(s[code[pc + 3]]) ? 0 : 1; pc += 4; }
+                    case CONCAT_S -> { s[code[pc + 1]] = s[code[pc + 2]] + s[code[pc + 3]]; pc += 4; }
+
+                    case TRUTH_L -> { l[code[pc + 1]] = l[code[pc + 2]] != 0 ? 1 : 0; pc += 3; }
+                    case TRUTH_D -> { l[code[pc + 1]] = d[code[pc + 2]] != 0.0 ? 1 : 0; pc += 3; }
+                    case NOT_L -> { l[code[pc + 1]] = l[code[pc + 2]] == 0 ? 1 : 0; pc += 3; }
+                    case NOT_D -> { l[code[pc + 1]] = d[code[pc + 2]] == 0.0 ? 1 : 0; pc += 3; }
+
+                    case JMP -> pc = code[pc + 1];
+                    case JZ_L -> pc = l[code[pc + 1]] == 0 ? code[pc + 2] : pc + 3;
+                    case JNZ_L -> pc = l[code[pc + 1]] != 0 ? code[pc + 2] : pc + 3;
+                    case JZ_D -> pc = d[code[pc + 1]] == 0.0 ? code[pc + 2] : pc + 3;
+
+                    case JGE_L -> pc = l[code[pc + 1]] >= l[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    case JGT_L -> pc = l[code[pc + 1]] > l[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    case JLE_L -> pc = l[code[pc + 1]] <= l[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    case JLT_L -> pc = l[code[pc + 1]] < l[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    case JNE_L -> pc = l[code[pc + 1]] != l[code[pc + 2]] ? code[pc + 3] : pc + 4;
+                    case JEQ_L -> pc = l[code[pc + 1]] == l[code[pc + 2]] ? code[pc + 3] : pc + 4;
+
+                    case WRITE_L -> { io.writeLong(l[code[pc + 1]]); pc += 2; }
+                    case WRITE_D -> { io.writeDouble(d[code[pc + 1]]); pc += 2; }
+                    case WRITE_S -> { io.writeString(s[code[pc + 1]]); pc += 2; }
+                    case READ_L -> { l[code[pc + 1]] = io.readLong(code[pc + 2], s[code[pc + 3]]); pc += 4; }
+                    case READ_D -> { d[code[pc + 1]] = io.readDouble(code[pc + 2], s[code[pc + 3]]); pc += 4; }
+
+                    case ZERO_L -> { l[code[pc + 1]] = 0L; pc += 2; }
+                    case ZERO_D -> { d[code[pc + 1]] = 0.0; pc += 2; }
+
+                    default -> throw new IllegalStateException("Opcode desconocido " + code[pc] + " en " + pc);
+                }
+            }
+        } finally {
+            executed = count;
+            io.flush();
+        }
+    }
+}
@@ -0,0 +1,585 @@
+//Traduce el AST verificado a instrucciones de la VM de registros (VmProgram).
+
+package minilang;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class VmCompiler implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
+
+    // Tipo del registro que dejó la última expresión traducida
+    private static final int LONG = 0;
+    private static final int DOUBLE = 1;
+    private static final int STRING = 2;
+
+    private int[] code = new int[256];
+    private int size = 0;
+
+    // Registros: primero las variables, después las constantes y al final los temporales
+    // La variable (depth, slot) usa el registro symbols.index(depth, slot) del banco de su tipo. Bloques
+    // hermanos comparten registros, así que el tipo se toma de la última declaración traducida.
+    private final SymbolTable symbols;
+    private final boolean[] doubleVars;
+    private final Map<Long, Integer> longConsts = new HashMap<>();
+    private final Map<Double, Integer> doubleConsts = new HashMap<>();
+    private final Map<String, Integer> stringConsts = new HashMap<>();
+    private final List<Long> longConstValues = new ArrayList<>();
+    private final List<Double> doubleConstValues = new ArrayList<>();
+    private final List<String> stringConstValues = new ArrayList<>();
+    private final List<Integer> longConstRegs = new ArrayList<>();
+    private final List<Integer> doubleConstRegs = new ArrayList<>();
+    private final List<Integer> stringConstRegs = new ArrayList<>();
+
+    private int nextLong = 0;
+    private int nextDouble = 0;
+    private int nextString = 0;
+    private int maxLong, maxDouble, maxString;
+    private int tempLongBase, tempDoubleBase, tempStringBase;
+
+    // Resultado de la última expresión
+    private int resultKind;
+    private int resultReg;
+    private boolean resultIsTemp;
+
+    // Última instrucción emitida: su destino puede redirigirse a la variable asignada
+    private int lastInstr = -1;
+
+    private int pendingCount = 0;                           // sentencias aún no contadas
+    private final Deque<List<Integer>> breakSites = new ArrayDeque<>(); // saltos de break del while actual
+
+    public VmCompiler(SymbolTable symbols) {
+        this.symbols = symbols;
+        this.doubleVars = new boolean[symbols.storageSize()];
+        nextLong = nextDouble = doubleVars.length;
+    }
+
+    public VmProgram compile(List<Stmt> statements) {
+        // Las constantes se asignan en una pasada previa para que los temporales queden al final
+        ConstantCollector collector = new ConstantCollector();
+        for (Stmt stmt : statements) stmt.accept(collector);
+        longConst(0L);
+        longConst(1L);
+
+        tempLongBase = maxLong = nextLong;
+        tempDoubleBase = maxDouble = nextDouble;
+        tempStringBase = maxString = nextString;
+
+        for (Stmt stmt : statements) {
+            stmt.accept(this);
+        }
+        flushCount();
+        emit(VmProgram.HALT);
+
+        return new VmProgram(Arrays.copyOf(code, size), maxLong, maxDouble, maxString,
+                toIntArray(longConstRegs), longConstValues.stream().mapToLong(Long::longValue).toArray(),
+                toIntArray(doubleConstRegs), doubleConstValues.stream().mapToDouble(Double::doubleValue).toArray(),
+                toIntArray(stringConstRegs), stringConstValues.toArray(new String[0]));
+    }
+
+    // ======================
+    // VISITORS PARA STMTs
+    // ======================
+
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        pendingCount++;
+        int slot = symbols.index(stmt.depth, stmt.slot);
+        doubleVars[slot] = stmt.typeToken.type == TokenType.DOUBLE;
+        emit(doubleVars[slot] ? VmProgram.ZERO_D : VmProgram.ZERO_L, slot);
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        pendingCount++;
+        stmt.expression.accept(this);
+        releaseTemps();
+        return null;
+    }
+
+    @Override
+    public Void visitAssignStmt(Stmt.Assign stmt) {
+        pendingCount++;
+        String name = stmt.name.lexeme;
+        int slot = symbols.index(stmt.depth, stmt.slot);
+        boolean isDouble = doubleVars[slot];
+        TokenType op = stmt.operator.type;
+
+        stmt.value.accept(this);
+        if (resultKind == STRING) {
+            throw new RuntimeError(stmt.name.line, "No se puede asignar una cadena a '" + name + "'.");
+        }
+
+        if (op == TokenType.ASSIGN) {
+            if (isDouble == (resultKind == DOUBLE)) {
+                // x = a + b: la suma escribe directamente en x, sin MOV intermedio
+                if (!retargetLast(slot)) {
+                    emit(isDouble ? VmProgram.MOV_D : VmProgram.MOV_L, slot, resultReg);
+                }
+            } else {
+                emit(isDouble ? VmProgram.L2D : VmProgram.D2L, slot, resultReg);
+            }
+        } else {
+            int value = isDouble ? toDouble() : toLong();
+            int opcode = switch (op) {
+                case PLUS_ASSIGN -> isDouble ? VmProgram.ADD_D : VmProgram.ADD_L;
+                case MINUS_ASSIGN -> isDouble ? VmProgram.SUB_D : VmProgram.SUB_L;
+                case MULT_ASSIGN -> isDouble ? VmProgram.MUL_D : VmProgram.MUL_L;
+                default -> isDouble ? VmProgram.DIV_D : VmProgram.DIV_L;
+            };
+            if (opcode == VmProgram.DIV_L) emit(opcode, slot, slot, value, stmt.operator.line);
+            else emit(opcode, slot, slot, value);
+        }
+        releaseTemps();
+        return null;
+    }
+
+    @Override
+    public Void visitReadStmt(Stmt.Read stmt) {
+        pendingCount++;
+        String name = stmt.name.lexeme;
+        int nameReg = stringConst(name);
+        int slot = symbols.index(stmt.depth, stmt.slot);
+        emit(doubleVars[slot] ? VmProgram.READ_D : VmProgram.READ_L, slot, stmt.name.line, nameReg);
+        return null;
+    }
+
+    @Override
+    public Void visitWriteStmt(Stmt.Write stmt) {
+        pendingCount++;
+        stmt.expression.accept(this);
+        int opcode = switch (resultKind) {
+            case LONG -> VmProgram.WRITE_L;
+            case DOUBLE -> VmProgram.WRITE_D;
+            default -> VmProgram.WRITE_S;
+        };
+        emit(opcode, resultReg);
+        releaseTemps();
+        return null;
+    }
+
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        for (Stmt s : stmt.statements) {
+            s.accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        pendingCount++;
+        int toElse = jumpIfFalse(stmt.condition);
+        releaseTemps();
+        stmt.thenBranch.accept(this);
+
+        if (stmt.elseBranch == null) {
+            bind(toElse);
+            return null;
+        }
+        int toEnd = jump(VmProgram.JMP);
+        bind(toElse);
+        stmt.elseBranch.accept(this);
+        bind(toEnd);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        pendingCount++;
+        flushCount();
+        int start = size;
+        lastInstr = -1;
+
+        int toEnd = jumpIfFalse(stmt.condition);
+        releaseTemps();
+
+        breakSites.push(new ArrayList<>());
+        stmt.body.accept(this);
+        int back = jump(VmProgram.JMP);
+        patch(back, start);
+
+        bind(toEnd);
+        for (int site : breakSites.pop()) {
+            patch(site, size);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitBreakStmt(Stmt.Break stmt) {
+        pendingCount++;
+        breakSites.peek().add(jump(VmProgram.JMP));
+        return null;
+    }
+
+    // ======================
+    // VISITORS PARA EXPRs
+    // ======================
+
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        Token op = expr.operator;
+
+        if (op.type == TokenType.AND || op.type == TokenType.OR) {
+            logical(expr);
+            return null;
+        }
+
+        expr.left.accept(this);
+        int leftKind = resultKind;
+        int leftReg = resultReg;
+        expr.right.accept(this);
+        binaryOp(op, leftKind, leftReg, resultKind, resultReg);
+        return null;
+    }
+
+    private void binaryOp(Token op, int leftKind, int leftReg, int rightKind, int rightReg) {
+        if (leftKind == STRING || rightKind == STRING) {
+            if (leftKind != rightKind) {
+                throw new RuntimeError(op.line, "Operación incompatible con cadenas: '" + op.lexeme + "'.");
+            }
+            switch (op.type) {
+                case EQUAL -> emitResult(LONG, VmProgram.EQ_S, leftReg, rightReg);
+                case NOT_EQUAL -> emitResult(LONG, VmProgram.NE_S, leftReg, rightReg);
+                case PLUS -> emitResult(STRING, VmProgram.CONCAT_S, leftReg, rightReg);
+                default -> throw new RuntimeError(op.line, "Operación no soportada con cadenas: '" + op.lexeme + "'.");
+            }
+            return;
+        }
+
+        // Promoción a double si alguno de los operandos es double
+        boolean isDouble = leftKind == DOUBLE || rightKind == DOUBLE;
+        if (isDouble) {
+            if (leftKind == LONG) leftReg = convert(VmProgram.L2D, leftReg);
+            if (rightKind == LONG) rightReg = convert(VmProgram.L2D, rightReg);
+        }
+
+        switch (op.type) {
+            case PLUS -> emitResult(isDouble ? DOUBLE : LONG, isDouble ? VmProgram.ADD_D : VmProgram.ADD_L, leftReg, rightReg);
+            case MINUS -> emitResult(isDouble ? DOUBLE : LONG, isDouble ? VmProgram.SUB_D : VmProgram.SUB_L, leftReg, rightReg);
+            case MULTIPLY -> emitResult(isDouble ? DOUBLE : LONG, isDouble ? VmProgram.MUL_D : VmProgram.MUL_L, leftReg, rightReg);
+            case DIVIDE -> {
+                if (isDouble) {
+                    emitResult(DOUBLE, VmProgram.DIV_D, leftReg, rightReg);
+                } else {
+                    int dst = newTemp(LONG);
+                    emit(VmProgram.DIV_L, dst, leftReg, rightReg, op.line);
+                    setResult(LONG, dst, true);
+                }
+            }
+            case GREATER -> emitResult(LONG, isDouble ? VmProgram.GT_D : VmProgram.GT_L, leftReg, rightReg);
+            case GREATER_EQUAL -> emitResult(LONG, isDouble ? VmProgram.GE_D : VmProgram.GE_L, leftReg, rightReg);
+            case LESS -> emitResult(LONG, isDouble ? VmProgram.LT_D : VmProgram.LT_L, leftReg, rightReg);
+            case LESS_EQUAL -> emitResult(LONG, isDouble ? VmProgram.LE_D : VmProgram.LE_L, leftReg, rightReg);
+            case EQUAL -> emitResult(LONG, isDouble ? VmProgram.EQ_D : VmProgram.EQ_L, leftReg, rightReg);
+            case NOT_EQUAL -> emitResult(LONG, isDouble ? VmProgram.NE_D : VmProgram.NE_L, leftReg, rightReg);
+            default -> throw new RuntimeError(op.line, "Operador no soportado: '" + op.lexeme + "'.");
+        }
+    }
+
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        Object value = expr.value;
+        if (value instanceof Integer i) {
+            setResult(LONG, longConst((long) i), false);
+        } else if (value instanceof Double d) {
+            setResult(DOUBLE, doubleConst(d), false);
+        } else if (value instanceof Boolean b) {
+            setResult(LONG, longConst(b ? 1L : 0L), false);
+        } else {
+            setResult(STRING, stringConst(String.valueOf(value)), false);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        expr.right.accept(this);
+        int reg = resultReg;
+        if (expr.operator.type == TokenType.NOT) {
+            switch (resultKind) {
+                case LONG -> emitResult(LONG, VmProgram.NOT_L, reg);
+                case DOUBLE -> emitResult(LONG, VmProgram.NOT_D, reg);
+                default -> throw new RuntimeError(expr.operator.line, "Una cadena no puede usarse como condición.");
+            }
+            return null;
+        }
+
+        switch (resultKind) {
+            case LONG -> emitResult(LONG, VmProgram.NEG_L, reg);
+            case DOUBLE -> emitResult(DOUBLE, VmProgram.NEG_D, reg);
+            default -> throw new RuntimeError(expr.operator.line, "No se puede negar una cadena.");
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        int slot = symbols.index(expr.depth, expr.slot);
+        setResult(doubleVars[slot] ? DOUBLE : LONG, slot, false);
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        expr.expression.accept(this);
+        return null;
+    }
+
+    // ======================
+    // CONTROL DE FLUJO
+    // ======================
+
+    // Emite el salto que se toma cuando la condición es falsa y devuelve su sitio para parchearlo
+    private int jumpIfFalse(Expr condition) {
+        Expr cond = condition;
+        while (cond instanceof Expr.Grouping g) cond = g.expression;
+
+        // Comparación long: una sola instrucción que compara y salta por la condición inversa
+        if (cond instanceof Expr.Binary b && inverseJump(b.operator.type) >= 0) {
+            b.left.accept(this);
+            int leftKind = resultKind;
+            int leftReg = resultReg;
+            b.right.accept(this);
+            if (leftKind == LONG && resultKind == LONG) {
+                flushCount();
+                emit(inverseJump(b.operator.type), leftReg, resultReg, -1);
+                return size - 1;
+            }
+            // Hay doubles o cadenas: comparación a 1/0 y salto si es cero
+            binaryOp(b.operator, leftKind, leftReg, resultKind, resultReg);
+        } else {
+            condition.accept(this);
+        }
+
+        flushCount();
+        switch (resultKind) {
+            case LONG -> emit(VmProgram.JZ_L, resultReg, -1);
+            case DOUBLE -> emit(VmProgram.JZ_D, resultReg, -1);
+            default -> throw new RuntimeError(0, "Una cadena no puede usarse como condición.");
+        }
+        return size - 1;
+    }
+
+    private static int inverseJump(TokenType op) {
+        return switch (op) {
+            case LESS -> VmProgram.JGE_L;
+            case LESS_EQUAL -> VmProgram.JGT_L;
+            case GREATER -> VmProgram.JLE_L;
+            case GREATER_EQUAL -> VmProgram.JLT_L;
+            case EQUAL -> VmProgram.JNE_L;
+            case NOT_EQUAL -> VmProgram.JEQ_L;
+            default -> -1;
+        };
+    }
+
+    // && y || con cortocircuito: el resultado arranca en 0 (&&) o 1 (||) y se salta el operando derecho
+    private void logical(Expr.Binary expr) {
+        boolean isAnd = expr.operator.type == TokenType.AND;
+        int dst = newTemp(LONG);
+        emit(VmProgram.MOV_L, dst, longConst(isAnd ? 0L : 1L));
+
+        expr.left.accept(this);
+        int leftReg = truthRegister(expr.operator);
+        flushCount();
+        emit(isAnd ? VmProgram.JZ_L : VmProgram.JNZ_L, leftReg, -1);
+        int skip = size - 1;
+
+        expr.right.accept(this);
+        int opcode = switch (resultKind) {
+            case LONG -> VmProgram.TRUTH_L;
+            case DOUBLE -> VmProgram.TRUTH_D;
+            default -> throw new RuntimeError(expr.operator.line, "Una cadena no puede usarse como condición.");
+        };
+        emit(opcode, dst, resultReg);
+        bind(skip);
+        setResult(LONG, dst, true);
+    }
+
+    // Registro long que es distinto de cero exactamente cuando el resultado actual es verdadero
+    private int truthRegister(Token op) {
+        return switch (resultKind) {
+            case LONG -> resultReg;
+            case DOUBLE -> {
+                int t = newTemp(LONG);
+                emit(VmProgram.TRUTH_D, t, resultReg);
+                yield t;
+            }
+            default -> throw new RuntimeError(op.line, "Una cadena no puede usarse como condición.");
+        };
+    }
+
+    private int jump(int opcode) {
+        flushCount();
+        emit(opcode, -1);
+        return size - 1;
+    }
+
+    private void bind(int site) {
+        flushCount();
+        patch(site, size);
+        lastInstr = -1; // a partir de acá se llega desde más de un lugar
+    }
+
+    private void patch(int site, int target) {
+        code[site] = target;
+    }
+
+    // Las sentencias de un tramo sin saltos se cuentan con una sola instrucción COUNT
+    private void flushCount() {
+        if (pendingCount > 0) {
+            int n = pendingCount;
+            pendingCount = 0;
+            emit(VmProgram.COUNT, n);
+            lastInstr = -1;
+        }
+    }
+
+    // ======================
+    // REGISTROS Y EMISIÓN
+    // ======================
+
+    private void emitResult(int kind, int opcode, int a) {
+        int dst = newTemp(kind);
+        emit(opcode, dst, a);
+        setResult(kind, dst, true);
+    }
+
+    private void emitResult(int kind, int opcode, int a, int b) {
+        int dst = newTemp(kind);
+        emit(opcode, dst, a, b);
+        setResult(kind, dst, true);
+    }
+
+    private int convert(int opcode, int reg) {
+        int dst = newTemp(opcode == VmProgram.L2D ? DOUBLE : LONG);
+        emit(opcode, dst, reg);
+        return dst;
+    }
+
+    private int toDouble() {
+        return resultKind == DOUBLE ? resultReg : convert(VmProgram.L2D, resultReg);
+    }
+
+    private int toLong() {
+        return resultKind == LONG ? resultReg : convert(VmProgram.D2L, resultReg);
+    }
+
+    private void setResult(int kind, int reg, boolean isTemp) {
+        resultKind = kind;
+        resultReg = reg;
+        resultIsTemp = isTemp;
+    }
+
+    // Si la última instrucción calculó el resultado en un temporal, se le cambia el destino
+    private boolean retargetLast(int slot) {
+        if (!resultIsTemp || lastInstr < 0 || code[lastInstr + 1] != resultReg) return false;
+        int op = code[lastInstr];
+        if (op == VmProgram.COUNT || op >= VmProgram.JMP && op <= VmProgram.JEQ_L) return false;
+        code[lastInstr + 1] = slot;
+        return true;
+    }
+
+    private int newTemp(int kind) {
+        return switch (kind) {
+            case LONG -> { maxLong = Math.max(maxLong, nextLong + 1); yield nextLong++; }
+            case DOUBLE -> { maxDouble = Math.max(maxDouble, nextDouble + 1); yield nextDouble++; }
+            default -> { maxString = Math.max(maxString, nextString + 1); yield nextString++; }
+        };
+    }
+
+    // Los temporales solo viven dentro de una sentencia
+    private void releaseTemps() {
+        nextLong = tempLongBase;
+        nextDouble = tempDoubleBase;
+        nextString = tempStringBase;
+    }
+
+    private int longConst(long value) {
+        return longConsts.computeIfAbsent(value, v -> {
+            longConstValues.add(v);
+            longConstRegs.add(nextLong);
+            return nextLong++;
+        });
+    }
+
+    private int doubleConst(double value) {
+        return doubleConsts.computeIfAbsent(value, v -> {
+            doubleConstValues.add(v);
+            doubleConstRegs.add(nextDouble);
+            return nextDouble++;
+        });
+    }
+
+    private int stringConst(String value) {
+        return stringConsts.computeIfAbsent(value, v -> {
+            stringConstValues.add(v);
+            stringConstRegs.add(nextString);
+            return nextString++;
+        });
+    }
+
+    private void emit(int... words) {
+        if (size + words.length > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, size + words.length));
+        }
+        lastInstr = size;
+        System.arraycopy(words, 0, code, size, words.length);
+        size += words.length;
+    }
+
+    private static int[] toIntArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Recorre el AST registrando las constantes antes de reservar los temporales
+    private class ConstantCollector implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
+        @Override public Void visitVarStmt(Stmt.Var stmt) { return null; }
+        @Override public Void visitExpressionStmt(Stmt.Expression stmt) { return stmt.expression.accept(this); }
+        @Override public Void visitAssignStmt(Stmt.Assign stmt) { return stmt.value.accept(this); }
+        @Override public Void visitReadStmt(Stmt.Read stmt) { stringConst(stmt.name.lexeme); return null; }
+        @Override public Void visitWriteStmt(Stmt.Write stmt) { return stmt.expression.accept(this); }
+        @Override public Void visitBreakStmt(Stmt.Break stmt) { return null; }
+
+        @Override
+        public Void visitBlockStmt(Stmt.Block stmt) {
+            for (Stmt s : stmt.statements) s.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitIfStmt(Stmt.If stmt) {
+            stmt.condition.accept(this);
+            stmt.thenBranch.accept(this);
+            if (stmt.elseBranch != null) stmt.elseBranch.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitWhileStmt(Stmt.While stmt) {
+            stmt.condition.accept(this);
+            return stmt.body.accept(this);
+        }
+
+        @Override
+        public Void visitBinaryExpr(Expr.Binary expr) {
+            expr.left.accept(this);
+            return expr.right.accept(this);
+        }
+
+        @Override
+        public Void visitLiteralExpr(Expr.Literal expr) {
+            return VmCompiler.this.visitLiteralExpr(expr);
+        }
+
+        @Override public Void visitUnaryExpr(Expr.Unary expr) { return expr.right.accept(this); }
+        @Override public Void visitVariableExpr(Expr.Variable expr) { return null; }
+        @Override public Void visitGroupingExpr(Expr.Grouping expr) { return expr.expression.accept(this); }
+    }
+}
@@ -0,0 +1,162 @@
+//Programa ya traducido para la VM de registros: instrucciones en un int[] plano y constantes para inicializar los registros.
+
+package minilang;
+
+public class VmProgram {
+
+    // ==================== CÓDIGOS DE OPERACIÓN ==================== //
+    // Formato: opcode seguido de sus operandos (índices de registro, destinos de salto o línea)
+
+    public static final int HALT = 0;       // -
+    public static final int COUNT = 1;     // n            suma n sentencias ejecutadas
+
+    public static final int MOV_L = 2;     // d a
+    public static final int MOV_D = 3;     // d a
+    public static final int MOV_S = 4;     // d a
+    public static final int L2D = 5;       // d(D) a(L)
+    public static final int D2L = 6;       // d(L) a(D)
+
+    public static final int ADD_L = 7;     // d a b
+    public static final int SUB_L = 8;
+    public static final int MUL_L = 9;
+    public static final int DIV_L = 10;    // d a b línea
+    public static final int NEG_L = 11;    // d a
+
+    public static final int ADD_D = 12;    // d a b
+    public static final int SUB_D = 13;
+    public static final int MUL_D = 14;
+    public static final int DIV_D = 15;
+    public static final int NEG_D = 16;    // d a
+
+    public static final int LT_L = 17;     // d(L) a b  -> 1/0
+    public static final int LE_L = 18;
+    public static final int GT_L = 19;
+    public static final int GE_L = 20;
+    public static final int EQ_L = 21;
+    public static final int NE_L = 22;
+
+    public static final int LT_D = 23;     // d(L) a(D) b(D) -> 1/0
+    public static final int LE_D = 24;
+    public static final int GT_D = 25;
+    public static final int GE_D = 26;
+    public static final int EQ_D = 27;
+    public static final int NE_D = 28;
+
+    public static final int EQ_S = 29;     // d(L) a(S) b(S)
+    public static final int NE_S = 30;
+    public static final int CONCAT_S = 31; // d(S) a(S) b(S)
+
+    public static final int TRUTH_L = 32;  // d(L) a(L)  d = a != 0
+    public static final int TRUTH_D = 33;  // d(L) a(D)
+    public static final int NOT_L = 34;    // d(L) a(L)  d = a == 0
+    public static final int NOT_D = 35;    // d(L) a(D)
+
+    public static final int JMP = 36;      // destino
+    public static final int JZ_L = 37;     // a destino
+    public static final int JNZ_L = 38;    // a destino
+    public static final int JZ_D = 39;     // a destino
+
+    // Comparación y salto en una sola instrucción (condiciones long de if/while)
+    public static final int JGE_L = 40;    // a b destino  salta si a >= b
+    public static final int JGT_L = 41;
+    public static final int JLE_L = 42;
+    public static final int JLT_L = 43;
+    public static final int JNE_L = 44;
+    public static final int JEQ_L = 45;
+
+    public static final int WRITE_L = 46;  // a
+    public static final int WRITE_D = 47;
+    public static final int WRITE_S = 48;
+    public static final int READ_L = 49;   // d línea nombre(S)
+    public static final int READ_D = 50;
+
+    public static final int ZERO_L = 51;   // d
+    public static final int ZERO_D = 52;   // d
+
+    private static final String[] NAMES = {
+            "HALT", "COUNT", "MOV_L", "MOV_D", "MOV_S", "L2D", "D2L",
+            "ADD_L", "SUB_L", "MUL_L", "DIV_L", "NEG_L",
+            "ADD_D", "SUB_D", "MUL_D", "DIV_D", "NEG_D",
+            "LT_L", "LE_L", "GT_L", "GE_L", "EQ_L", "NE_L",
+            "LT_D", "LE_D", "GT_D", "GE_D", "EQ_D", "NE_D",
+            "EQ_S", "NE_S", "CONCAT_S",
+            "TRUTH_L", "TRUTH_D", "NOT_L", "NOT_D",
+            "JMP", "JZ_L", "JNZ_L", "JZ_D",
+            "JGE_L", "JGT_L", "JLE_L", "JLT_L", "JNE_L", "JEQ_L",
+            "WRITE_L", "WRITE_D", "WRITE_S", "READ_L", "READ_D",
+            "ZERO_L", "ZERO_D"
+    };
+
+    // Cantidad de operandos de cada opcode
+    private static final int[] OPERANDS = {
+            0, 1, 2, 2, 2, 2, 2,
+            3, 3, 3, 4, 2,
+            3, 3, 3, 3, 2,
+            3, 3, 3, 3, 3, 3,
+            3, 3, 3, 3, 3, 3,
+            3, 3, 3,
+            2, 2, 2, 2,
+            1, 2, 2, 2,
+            3, 3, 3, 3, 3, 3,
+            1, 1, 1, 3, 3,
+            1, 1
+    };
+
+    public static int operandCount(int opcode) {
+        return OPERANDS[opcode];
+    }
+
+    // ==================== CONTENIDO ==================== //
+
+    final int[] code;
+    final int longRegisters;
+    final int doubleRegisters;
+    final int stringRegisters;
+
+    // Registros que arrancan con un valor constante (índice de registro -> valor)
+    final int[] longConstRegs;
+    final long[] longConstValues;
+    final int[] doubleConstRegs;
+    final double[] doubleConstValues;
+    final int[] stringConstRegs;
+    final String[] stringConstValues;
+
+    VmProgram(int[] code, int longRegisters, int doubleRegisters, int stringRegisters,
+              int[] longConstRegs, long[] longConstValues,
+              int[] doubleConstRegs, double[] doubleConstValues,
+              int[] stringConstRegs, String[] stringConstValues) {
+        this.code = code;
+        this.longRegisters = longRegisters;
+        this.doubleRegisters = doubleRegisters;
+        this.stringRegisters = stringRegisters;
+        this.longConstRegs = longConstRegs;
+        this.longConstValues = longConstValues;
+        this.doubleConstRegs = doubleConstRegs;
+        this.doubleConstValues = doubleConstValues;
+        this.stringConstRegs = stringConstRegs;
+        this.stringConstValues = stringConstValues;
+    }
+
+    public int size() {
+        return code.length;
+    }
+
+    /** Listado legible de las instrucciones (para depurar). */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("registros: %d long, %d double, %d string%n",
+                longRegisters, doubleRegisters, stringRegisters));
+        int pc = 0;
+        while (pc < code.length) {
+            int op = code[pc];
+            sb.append(String.format("%5d  %-8s", pc, NAMES[op]));
+            for (int i = 1; i <= OPERANDS[op]; i++) {
+                sb.append(' ').append(code[pc + i]);
+            }
+            sb.append(System.lineSeparator());
+            pc += 1 + OPERANDS[op];
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,105 @@
+//Compara el intérprete del AST, la VM de registros, el backend de bytecode JVM y el intérprete de la SSA sobre un programa con un ciclo caliente.
+
+package minilang;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.List;
+
+public class BackendBenchmark {
+    private static final String PROGRAM = """
+            long i, s, n;
+            double d;
+            n = 5000000;
+            i = 0;
+            s = 0;
+            while (i < n) {
+                s = s + i * 3 - (i / 7);
+                if (s > 1000000000) then s = s - 1000000000;
+                d = d + 0.5;
+                i = i + 1;
+            }
+            write(s);
+            write(d);
+            """;
+
+    private static final int WARMUP = 3;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Lexer lexer = new Lexer(PROGRAM);
+        lexer.tokenize();
+        Parser parser = new Parser(lexer.getTokens());
+        List<Stmt> stmts = parser.parse();
+        SemanticAnalyzer semantic = new SemanticAnalyzer();
+        semantic.analyze(stmts);
+        SymbolTable symbols = semantic.getSymbolTable();
+
+        String interpOut = measure("interp", () -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            Interpreter interpreter = new Interpreter(symbols, newIO(bytes));
+            interpreter.interpret(stmts);
+            return new Result(bytes.toString(), interpreter.getExecutedStatements());
+        });
+
+        VmProgram vmProgram = new VmCompiler(symbols).compile(stmts);
+        String vmOut = measure("vm", () -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            VirtualMachine vm = new VirtualMachine(newIO(bytes));
+            vm.run(vmProgram);
+            return new Result(bytes.toString(), vm.getExecutedStatements());
+        });
+
+        // La compilación se hace una sola vez; se mide la ejecución
+        JvmCompiler.Program program = new JvmCompiler(symbols).compile(stmts);
+        String jvmOut = measure("jvm", () -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ProgramIO io = newIO(bytes);
+            long executed = program.run(io);
+            io.flush();
+            return new Result(bytes.toString(), executed);
+        });
+
+        // La SSA se construye y optimiza una sola vez; se mide la ejecución
+        Ir.Function ir = new IrBuilder(symbols).build(stmts);
+        PassManager passes = PassManager.standard();
+        passes.run(ir);
+        String ssaOut = measure("ssa", () -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            IrInterpreter interpreter = new IrInterpreter(newIO(bytes));
+            interpreter.run(ir);
+            return new Result(bytes.toString(), interpreter.getExecutedStatements());
+        });
+        System.out.println(passes.report());
+
+        System.out.println(interpOut.equals(vmOut) && interpOut.equals(jvmOut) && interpOut.equals(ssaOut) ? "Salidas idénticas." : "ERROR: las salidas difieren.");
+    }
+
+    private record Result(String output, long executed) {}
+
+    private interface Run {
+        Result run();
+    }
+
+    private static String measure(String name, Run run) {
+        for (int i = 0; i < WARMUP; i++) run.run();
+
+        long best = Long.MAX_VALUE;
+        Result result = null;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            result = run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%-8s %8.2f ms  %,.0f sentencias/s%n",
+                name, best / 1e6, result.executed() / (best / 1e9));
+        return result.output();
+    }
+
+    private static ProgramIO newIO(ByteArrayOutputStream bytes) {
+        return new ProgramIO(new BufferedReader(new StringReader("")), new PrintStream(bytes));
+    }
+}
@@ -0,0 +1,78 @@
+//Compara volver a analizar el código fuente (Lexer + Parser) con leer tokens y AST guardados en BinaryFormat:
+//tamaño de cada representación, costo de escribir y de leer, y que la lectura devuelva lo mismo que se escribió.
+
+package minilang;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class BinaryFormatBenchmark {
+    private static final int STATEMENTS = 200_000;
+    private static final int WARMUP = 3;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        StringBuilder sb = new StringBuilder("long x, y, i;\ndouble d;\n");
+        for (int n = 0; n < STATEMENTS; n++) {
+            switch (n % 6) {
+                case 0 -> sb.append("x = x + i * 3 - (y / 2);\n");
+                case 1 -> sb.append("if (x > ").append(n).append(") then { long t").append(n).append("; t").append(n)
+                        .append(" = -y; write(t").append(n).append("); } else write(\"menor\");\n");
+                case 2 -> sb.append("d = d * 1.5 + x;\n");
+                case 3 -> sb.append("while (i < 10) { i = i + 1; if (i == 5) then break; }\n");
+                case 4 -> sb.append("read(y);\n");
+                default -> sb.append("write(\"x vale \" + x);\n");
+            }
+        }
+        String source = sb.toString();
+
+        Lexer lexer = new Lexer(source);
+        lexer.tokenize();
+        List<Token> tokens = lexer.getTokens();
+        List<Stmt> statements = new Parser(tokens).parse();
+        new SemanticAnalyzer().analyze(statements); // así el AST guardado lleva la profundidad y el slot
+
+        byte[] tokenBytes = BinaryFormat.writeTokens(tokens);
+        byte[] treeBytes = BinaryFormat.writeStatements(statements);
+        System.out.printf("Código fuente %,12d bytes  (%,d tokens, %,d sentencias)%n",
+                source.length(), tokens.size(), statements.size());
+        System.out.printf("Tokens       %,12d bytes%n", tokenBytes.length);
+        System.out.printf("AST          %,12d bytes%n", treeBytes.length);
+
+        boolean same = tokens.toString().equals(BinaryFormat.readTokens(ByteBuffer.wrap(tokenBytes)).toString())
+                && statements.toString().equals(BinaryFormat.readStatements(ByteBuffer.wrap(treeBytes)).toString());
+        System.out.println(same ? "Lectura idéntica a lo escrito." : "ERROR: la lectura difiere de lo escrito.");
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(treeBytes.length).put(treeBytes).flip();
+        measure("Lexer + Parser", () -> {
+            Lexer l = new Lexer(source);
+            l.tokenize();
+            return new Parser(l.getTokens()).parse();
+        });
+        measure("Lexer", () -> {
+            Lexer l = new Lexer(source);
+            l.tokenize();
+            return l.getTokens();
+        });
+        measure("escribir tokens", () -> BinaryFormat.writeTokens(tokens));
+        measure("leer tokens", () -> BinaryFormat.readTokens(ByteBuffer.wrap(tokenBytes)));
+        measure("escribir AST", () -> BinaryFormat.writeStatements(statements));
+        measure("leer AST", () -> BinaryFormat.readStatements(ByteBuffer.wrap(treeBytes)));
+        measure("leer AST (directo)", () -> BinaryFormat.readStatements(direct.duplicate()));
+    }
+
+    private interface Run {
+        Object run();
+    }
+
+    private static void measure(String name, Run run) {
+        for (int i = 0; i < WARMUP; i++) run.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-20s %8.2f ms%n", name, best / 1e6);
+    }
+}
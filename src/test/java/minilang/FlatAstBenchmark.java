@@ -0,0 +1,72 @@
+//Compara el AST de objetos (Parser.parse) con el AST plano (Parser.parseFlat): memoria retenida, tiempo de análisis
+//sintáctico y tiempo de recorrido con SemanticAnalyzer. Conviene correrlo con -Xmx2g o más.
+
+package minilang;
+
+import java.lang.ref.Reference;
+import java.util.List;
+
+public class FlatAstBenchmark {
+    private static final int STATEMENTS = 500_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        StringBuilder sb = new StringBuilder("long x, y, i;\ndouble d;\n");
+        for (int i = 0; i < STATEMENTS; i++) {
+            switch (i % 4) {
+                case 0 -> sb.append("x = x + i * 3 - (y / 2);\n");
+                case 1 -> sb.append("if (x > ").append(i).append(") then { y = y - 1; write(y); }\n");
+                case 2 -> sb.append("d = d * 1.5 + x;\n");
+                default -> sb.append("while (i < 10) i = i + 1;\n");
+            }
+        }
+        String source = sb.toString();
+        System.out.printf("Programa: %,d sentencias, %,d caracteres%n", STATEMENTS, source.length());
+
+        // Memoria retenida por cada representación (los tokens del AST plano están en su TokenBuffer)
+        long base = usedMemory();
+        List<Stmt> objects = new Parser(new Lexer(source).tokenizeToBuffer()).parse();
+        long objectBytes = usedMemory() - base;
+        Reference.reachabilityFence(objects); // si no, el JIT puede dar la lista por muerta antes de medir
+        System.out.printf("Objetos: %,12d bytes retenidos%n", objectBytes);
+        objects = null;
+
+        base = usedMemory();
+        FlatAst flat = new Parser(new Lexer(source).tokenizeToBuffer()).parseFlat();
+        long flatBytes = usedMemory() - base;
+        Reference.reachabilityFence(flat);
+        System.out.printf("Plano:   %,12d bytes retenidos (%,d nodos, %,d bytes en arreglos de nodos)%n",
+                flatBytes, flat.size(), flat.footprint());
+        flat = null;
+
+        TokenBuffer tokens = new Lexer(source).tokenizeToBuffer();
+        long parseObjects = Long.MAX_VALUE, parseFlat = Long.MAX_VALUE;
+        long analyzeObjects = Long.MAX_VALUE, analyzeFlat = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            List<Stmt> stmts = new Parser(tokens).parse();
+            parseObjects = Math.min(parseObjects, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            new SemanticAnalyzer().analyze(stmts);
+            analyzeObjects = Math.min(analyzeObjects, System.nanoTime() - start);
+            stmts = null;
+
+            start = System.nanoTime();
+            FlatAst ast = new Parser(tokens).parseFlat();
+            parseFlat = Math.min(parseFlat, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            new SemanticAnalyzer().analyze(ast);
+            analyzeFlat = Math.min(analyzeFlat, System.nanoTime() - start);
+        }
+        System.out.printf("Sintáctico: objetos %8.2f ms  plano %8.2f ms%n", parseObjects / 1e6, parseFlat / 1e6);
+        System.out.printf("Semántico:  objetos %8.2f ms  plano %8.2f ms%n", analyzeObjects / 1e6, analyzeFlat / 1e6);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,40 @@
+//Mide la latencia por tecla de IncrementalDocument (escribir en el medio del archivo) para distintos tamaños de
+//archivo, contra volver a correr Lexer.tokenize() y Parser.parse() completos.
+
+package minilang;
+
+public class IncrementalBenchmark {
+    private static final String LINE = "x = x + 12 * (y - 3);\n";
+    private static final int KEYSTROKES = 2000;
+
+    public static void main(String[] args) {
+        for (int lines : new int[] {1_000, 10_000, 100_000, 1_000_000}) {
+            String source = "long x, y;\n" + LINE.repeat(lines);
+            IncrementalDocument document = new IncrementalDocument(source);
+
+            // Escribe "+ 1" y lo borra, dentro de una sentencia en la mitad del archivo
+            // (la primera ronda mueve los huecos hasta ese punto y calienta el JIT)
+            int offset = 11 + (lines / 2) * LINE.length() + 7;
+            typeAndErase(document, offset);
+            long start = System.nanoTime();
+            typeAndErase(document, offset);
+            double perEdit = (System.nanoTime() - start) / 1e3 / KEYSTROKES;
+
+            start = System.nanoTime();
+            Lexer lexer = new Lexer(source);
+            lexer.tokenize();
+            new Parser(lexer.getTokens()).parse();
+            double full = (System.nanoTime() - start) / 1e3;
+
+            System.out.printf("%,9d líneas: incremental %8.1f µs/edición  (%d tokens, %d sentencias)  completo %,12.0f µs%n",
+                    lines, perEdit, document.getRelexedTokens(), document.getReparsedStatements(), full);
+        }
+    }
+
+    private static void typeAndErase(IncrementalDocument document, int offset) {
+        for (int i = 0; i < KEYSTROKES; i++) {
+            if (i % 2 == 0) document.edit(offset, 0, "1+");
+            else document.edit(offset, 2, "");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+//Prueba de IncrementalDocument: después de cada edición aleatoria (con semilla fija) sus tokens, errores léxicos,
+//sentencias y errores sintácticos tienen que ser idénticos a los de Lexer.tokenize() + Parser.parse() sobre todo
+//el texto. Las piezas incluyen comentarios y cadenas que se abren y se cierran en ediciones distintas.
+
+package minilang;
+
+import java.util.List;
+import java.util.Random;
+
+public class IncrementalDocumentTest {
+    private static final long SEED = 1;
+    private static final int DOCUMENTS = 600;
+    private static final int EDITS_PER_DOCUMENT = 40;
+
+    private static final String[] PIECES = {
+            "x = x + 1;\n", "// com x = 2;\n", "/* a\n b */", "/*", "*/", "\"s\"", "\"", "write(x);", " ", "\n",
+            "{", "}", "long y;", "if (x) then y = 3;", "else", "while (x < 3) x = x - 1;", "break;", "//", "*", "/",
+            "=", ";", "(", ")", "y", "12", "1.5", "#", "ñ",
+    };
+
+    public static void main(String[] args) {
+        Random random = new Random(SEED);
+        int edits = 0;
+        int failures = 0;
+        for (int round = 0; round < DOCUMENTS; round++) {
+            StringBuilder initial = new StringBuilder("long x;\n");
+            for (int i = 0; i < 30; i++) initial.append(PIECES[random.nextInt(PIECES.length)]);
+            IncrementalDocument document = new IncrementalDocument(initial.toString());
+
+            for (int e = 0; e < EDITS_PER_DOCUMENT; e++) {
+                String text = document.getText();
+                int offset = random.nextInt(text.length() + 1);
+                int removed = Math.min(random.nextInt(6), text.length() - offset);
+                String inserted = random.nextInt(4) == 0 ? "" : PIECES[random.nextInt(PIECES.length)];
+                document.edit(offset, removed, inserted);
+                edits++;
+
+                String expected = text.substring(0, offset) + inserted + text.substring(offset + removed);
+                Lexer lexer = new Lexer(expected);
+                lexer.tokenize();
+                Parser parser = new Parser(lexer.getTokens());
+                List<Stmt> statements = parser.parse();
+                boolean same = expected.equals(document.getText())
+                        && lexer.getTokens().toString().equals(document.getTokens().toString())
+                        && lexer.getErrors().toString().equals(document.getLexErrors().toString())
+                        && statements.toString().equals(document.getStatements().toString())
+                        && parser.getErrors().toString().equals(document.getSyntaxErrors().toString());
+                if (!same && failures++ == 0) {
+                    System.out.println("Primera diferencia (documento " + round + ", edición " + e + "):\n" + expected);
+                }
+            }
+        }
+        System.out.println("=== INCREMENTAL CONTRA ANÁLISIS COMPLETO ===");
+        System.out.println("Ediciones: " + edits + ", distintas: " + failures + (failures == 0 ? " (OK)" : " (ERROR)"));
+    }
+}
@@ -3,6 +3,9 @@
 package minilang;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 
@@ -24,6 +27,37 @@ public class LexerTest {
             for (LexError error : lexer.getErrors()) {
                 System.out.println(error);
             }
+
+            // En streaming el buffer solo crece si un lexema no entra: después de una palabra reservada seguida
+            // de un comentario largo tiene que quedar del tamaño inicial, igual que después de un identificador
+            System.out.println("\n=== STREAMING: BUFFER ACOTADO ===");
+            String comment = "/*" + "x".repeat(2_000_000) + "*/";
+            for (String first : new String[] {"x ", "while "}) {
+                Lexer streaming = new Lexer(new StringReader(first + comment + " y"), 1024);
+                while (streaming.nextToken().type != TokenType.EOF) { }
+                int capacity = streaming.ringCapacity();
+                System.out.println("'" + first.trim() + "' + comentario: buffer " + capacity
+                        + (capacity == 1024 ? " (OK)" : " (ERROR: creció)"));
+            }
+
+            // ByteLexer rechaza el UTF-8 inválido también dentro de cadenas y comentarios, como Main al leer el archivo
+            System.out.println("\n=== BYTELEXER: UTF-8 INVÁLIDO ===");
+            byte[][] invalid = {
+                    {'x', ' ', '=', ' ', '"', (byte) 0xFF, '"', ';'},
+                    {'/', '/', ' ', (byte) 0xC3, '\n', 'x', ';'},
+                    {'/', '*', ' ', (byte) 0xE2, (byte) 0x82, ' ', '*', '/'},
+                    {'"', (byte) 0xF5, (byte) 0x80, (byte) 0x80, (byte) 0x80, '"'},
+            };
+            for (byte[] bytes : invalid) {
+                String result;
+                try {
+                    new ByteLexer(ByteBuffer.wrap(bytes)).tokenize();
+                    result = "aceptado (ERROR)";
+                } catch (UncheckedIOException e) {
+                    result = "rechazado (OK)";
+                }
+                System.out.println(bytes.length + " bytes: " + result);
+            }
         } catch (IOException e) {
             System.err.println("Error al leer el archivo: " + e.getMessage());
         }
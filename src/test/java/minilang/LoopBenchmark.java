@@ -0,0 +1,128 @@
+//Mide el efecto de LoopOptimizer (invariantes fuera del ciclo y reducción de fuerza) en cada motor de ejecución.
+
+package minilang;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.List;
+
+public class LoopBenchmark {
+    private static final String PROGRAM = """
+            long i, j, s, n, k, m;
+            double d, f;
+            n = 2000;
+            k = 7;
+            m = 13;
+            f = 1.5;
+            i = 0;
+            s = 0;
+            while (i < n) {
+                j = 0;
+                while (j < n) {
+                    s = s + j * k + (n * m - k * k) + i * m;
+                    if (s > 1000000000) then s = s - 1000000000;
+                    d = d + f * 2.0;
+                    j = j + 1;
+                }
+                i = i + 1;
+            }
+            write(s);
+            write(d);
+            """;
+
+    private static final int WARMUP = 3;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        String[] plain = runAll("", false);
+        String[] optimized = runAll("+ciclos", true);
+
+        boolean same = true;
+        for (int i = 0; i < plain.length; i++) {
+            same &= plain[0].equals(plain[i]) && plain[0].equals(optimized[i]);
+        }
+        System.out.println(same ? "Salidas idénticas." : "ERROR: las salidas difieren.");
+    }
+
+    // Salidas de interp, vm, jvm y ssa; cada variante analiza el programa de nuevo porque el optimizador
+    // declara temporales en la tabla de símbolos
+    private static String[] runAll(String suffix, boolean optimize) {
+        Lexer lexer = new Lexer(PROGRAM);
+        lexer.tokenize();
+        Parser parser = new Parser(lexer.getTokens());
+        List<Stmt> parsed = parser.parse();
+        SemanticAnalyzer semantic = new SemanticAnalyzer();
+        semantic.analyze(parsed);
+        SymbolTable symbols = semantic.getSymbolTable();
+
+        List<Stmt> stmts = parsed;
+        if (optimize) {
+            LoopOptimizer loops = new LoopOptimizer(symbols);
+            stmts = loops.optimize(parsed);
+            System.out.println(loops.report());
+        }
+        List<Stmt> program = stmts;
+
+        String interpOut = measure("interp" + suffix, () -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            Interpreter interpreter = new Interpreter(symbols, newIO(bytes));
+            interpreter.interpret(program);
+            return new Result(bytes.toString(), interpreter.getExecutedStatements());
+        });
+
+        VmProgram vmProgram = new VmCompiler(symbols).compile(program);
+        String vmOut = measure("vm" + suffix, () -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            VirtualMachine vm = new VirtualMachine(newIO(bytes));
+            vm.run(vmProgram);
+            return new Result(bytes.toString(), vm.getExecutedStatements());
+        });
+
+        JvmCompiler.Program jvmProgram = new JvmCompiler(symbols).compile(program);
+        String jvmOut = measure("jvm" + suffix, () -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ProgramIO io = newIO(bytes);
+            long executed = jvmProgram.run(io);
+            io.flush();
+            return new Result(bytes.toString(), executed);
+        });
+
+        Ir.Function ir = new IrBuilder(symbols).build(program);
+        PassManager.standard().run(ir);
+        String ssaOut = measure("ssa" + suffix, () -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            IrInterpreter interpreter = new IrInterpreter(newIO(bytes));
+            interpreter.run(ir);
+            return new Result(bytes.toString(), interpreter.getExecutedStatements());
+        });
+
+        return new String[] {interpOut, vmOut, jvmOut, ssaOut};
+    }
+
+    private record Result(String output, long executed) {}
+
+    private interface Run {
+        Result run();
+    }
+
+    private static String measure(String name, Run run) {
+        for (int i = 0; i < WARMUP; i++) run.run();
+
+        long best = Long.MAX_VALUE;
+        Result result = null;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            result = run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%-16s %8.2f ms  %,d sentencias%n", name, best / 1e6, result.executed());
+        return result.output();
+    }
+
+    private static ProgramIO newIO(ByteArrayOutputStream bytes) {
+        return new ProgramIO(new BufferedReader(new StringReader("")), new PrintStream(bytes));
+    }
+}
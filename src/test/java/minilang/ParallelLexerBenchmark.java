@@ -0,0 +1,50 @@
+//Mide cómo escala ParallelLexer de 1 a N hilos sobre un archivo grande, contra ByteLexer secuencial.
+//Uso: java minilang.ParallelLexerBenchmark <archivo.min>
+
+package minilang;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelLexerBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        ByteBuffer buffer = ByteLexer.map(Path.of(args[0]));
+
+        long best = Long.MAX_VALUE;
+        int size = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            ByteLexer lexer = new ByteLexer(buffer.duplicate());
+            lexer.tokenize();
+            best = Math.min(best, System.nanoTime() - start);
+            size = lexer.getTokens().size();
+        }
+        double sequential = best / 1e6;
+        System.out.printf("ByteLexer   %8.1f ms  (%,d tokens)%n", sequential, size);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            measure(buffer, threads, sequential);
+            if (threads < cores && threads * 2 > cores) measure(buffer, cores, sequential);
+        }
+    }
+
+    private static void measure(ByteBuffer buffer, int threads, double sequential) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long best = Long.MAX_VALUE;
+        ParallelLexer lexer = null;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            lexer = new ParallelLexer(buffer.duplicate(), pool);
+            lexer.tokenize();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        pool.shutdown();
+        System.out.printf("%2d hilo(s)  %8.1f ms  x%.2f  (%d trozos, %d reparados)%n",
+                threads, best / 1e6, sequential / (best / 1e6), lexer.getChunks(), lexer.getRepairs());
+    }
+}
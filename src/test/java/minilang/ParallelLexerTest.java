@@ -0,0 +1,55 @@
+//Prueba de ParallelLexer: con trozos muy chicos (desde 1 byte) sobre textos aleatorios (semilla fija), los tokens y
+//los errores tienen que ser idénticos a los de Lexer.tokenize(). Las cadenas y los comentarios /* */ de varias líneas
+//quedan partidos entre trozos, así que se pasa por la reparación de la especulación.
+
+package minilang;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelLexerTest {
+    private static final long SEED = 1;
+    private static final int INPUTS = 5_000;
+
+    private static final String[] PIECES = {
+            "x = x + 1;\n", "long y;\n", "write(\"hola\");\n", "\"cadena\nde dos líneas\"",
+            "/* comentario\n\n de varias\n líneas */", "// línea\n", "\"", "/*", "*/", "\n", " ", "ñandú", "€",
+            "1.5", "12", "while (y < 3) {\n y = y - 1;\n}\n", "#", "*", "/", "==", "<=", "\t",
+    };
+
+    public static void main(String[] args) {
+        Random random = new Random(SEED);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int failures = 0;
+        int repairs = 0;
+        try {
+            for (int i = 0; i < INPUTS; i++) {
+                StringBuilder sb = new StringBuilder();
+                int pieces = random.nextInt(40);
+                for (int k = 0; k < pieces; k++) sb.append(PIECES[random.nextInt(PIECES.length)]);
+                String source = sb.toString();
+                int chunkSize = 1 + random.nextInt(16);
+
+                Lexer lexer = new Lexer(source);
+                lexer.tokenize();
+                ParallelLexer parallel = new ParallelLexer(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)),
+                        pool, chunkSize);
+                parallel.tokenize();
+                repairs += parallel.getRepairs();
+
+                boolean same = lexer.getTokens().toString().equals(parallel.getTokens().toString())
+                        && lexer.getErrors().toString().equals(parallel.getErrors().toString());
+                if (!same && failures++ == 0) {
+                    System.out.println("Primera diferencia (trozos de " + chunkSize + " bytes):\n" + source);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println("=== PARALELO CONTRA LEXER ===");
+        System.out.println("Textos: " + INPUTS + ", reparaciones: " + repairs + ", distintos: " + failures
+                + (failures == 0 && repairs > 0 ? " (OK)" : " (ERROR)"));
+    }
+}
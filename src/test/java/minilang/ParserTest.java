@@ -33,6 +33,27 @@ public class ParserTest {
                 System.out.println(s);
             }
 
+            // Un error dentro de un bloque no se propaga afuera, y con un máximo se corta en ese error
+            String broken = """
+                    while (a < 3) {
+                        a = a + ;
+                        if (a > 1) { write(a); }
+                        b = = 2;
+                    }
+                    write(a);
+                    """;
+            System.out.println("\n=== RECUPERACIÓN DE ERRORES ===");
+            for (int max : new int[] {Integer.MAX_VALUE, 1}) {
+                Lexer brokenLexer = new Lexer(broken);
+                brokenLexer.tokenize();
+                Parser brokenParser = new Parser(brokenLexer.getTokens()).setMaxErrors(max);
+                List<Stmt> recovered = brokenParser.parse();
+                for (SyntaxError e : brokenParser.getErrors()) {
+                    System.out.println(e);
+                }
+                System.out.println("Sentencias: " + recovered.size() + (brokenParser.isTruncated() ? " (cortado)" : ""));
+            }
+
         } catch (IOException e) {
             System.err.println("Error al leer el archivo: " + e.getMessage());
         }
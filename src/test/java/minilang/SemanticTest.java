@@ -28,12 +28,38 @@ public class SemanticTest {
                 System.out.println(e);
             }
 
+            // Las advertencias (código muerto) solo se buscan en un programa sin errores
+            if (semantic.getErrors().isEmpty()) {
+                DeadCodeEliminator eliminator = new DeadCodeEliminator(semantic.getSymbolTable());
+                eliminator.eliminate(new ConstantFolder().fold(stmts));
+                System.out.println("\n=== ADVERTENCIAS ===");
+                for (SemanticWarning w : eliminator.getWarnings()) {
+                    System.out.println(w);
+                }
+            }
+
             System.out.println("\n=== TABLA DE SÍMBOLOS ===");
             System.out.printf("%-10s %-10s %-10s %-10s %s\n", "Nombre", "Tipo", "Ámbito", "Valor", "Línea");
-            semantic.getSymbolTable().getSymbols().forEach((name, sym) -> {
+            semantic.getSymbolTable().getSymbols().forEach(sym -> {
                 System.out.println(sym);
             });
 
+            // Un bloque que solo contiene bloques vacíos no tiene nodos en el grafo de flujo: no es inalcanzable
+            System.out.println("\n=== BLOQUES VACÍOS ANIDADOS ===");
+            String nested = "long x, y;\nread(x);\ny = x * 0 + 2;\nwrite(y);\n{ { } }\nif (x > 1) then { { } }\n";
+            Lexer nestedLexer = new Lexer(nested);
+            nestedLexer.tokenize();
+            List<Stmt> nestedStmts = new Parser(nestedLexer.getTokens()).parse();
+            SemanticAnalyzer nestedSemantic = new SemanticAnalyzer();
+            nestedSemantic.analyze(nestedStmts);
+            DeadCodeEliminator nestedEliminator = new DeadCodeEliminator(nestedSemantic.getSymbolTable());
+            nestedEliminator.eliminate(new ConstantFolder().fold(nestedStmts));
+            for (SemanticWarning w : nestedEliminator.getWarnings()) {
+                System.out.println(w);
+            }
+            System.out.println("Inalcanzables: " + nestedEliminator.getUnreachable()
+                    + (nestedEliminator.getUnreachable() == 0 ? " (OK)" : " (ERROR: se esperaban 0)"));
+
         } catch (IOException e) {
             System.err.println("Error al leer el archivo: " + e.getMessage());
         }
@@ -0,0 +1,38 @@
+//Compara la memoria que ocupan los tokens de un archivo grande como List<Token> y como TokenBuffer.
+
+package minilang;
+
+import java.util.List;
+
+public class TokenBufferBenchmark {
+    private static final String LINE = "x = x + 12 * (y - 3.5);\n"; // 12 tokens por línea
+
+    public static void main(String[] args) {
+        int tokensWanted = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        String source = LINE.repeat(tokensWanted / 12);
+
+        long base = usedHeap();
+        Lexer lexer = new Lexer(source);
+        lexer.tokenize();
+        List<Token> list = lexer.getTokens();
+        long listBytes = usedHeap() - base;
+        int listSize = list.size();
+        lexer = null;
+        list = null;
+
+        base = usedHeap();
+        TokenBuffer buffer = new Lexer(source).tokenizeToBuffer();
+        long bufferBytes = usedHeap() - base;
+
+        System.out.printf("Tokens: %,d (código fuente: %,d caracteres, no incluido)%n", buffer.size(), source.length());
+        System.out.printf("List<Token>: %,d bytes (%.1f bytes/token)%n", listBytes, (double) listBytes / listSize);
+        System.out.printf("TokenBuffer: %,d bytes (%.1f bytes/token)%n", bufferBytes, (double) bufferBytes / buffer.size());
+        System.out.printf("Reducción: %.1fx%n", (double) listBytes / bufferBytes);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}